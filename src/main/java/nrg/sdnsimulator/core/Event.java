@@ -1,12 +1,74 @@
 package nrg.sdnsimulator.core;
 
+import nrg.sdnsimulator.core.utility.Keywords;
+
 public abstract class Event {
 
-	protected float eventTime;
+	protected long eventTime; // picoseconds
+	/* Tie-breakers for simultaneous events, assigned by the EventList */
+	private short priority;
+	private long sequenceNumber;
+	/* Slot of the event in an indexed future event set, -1 when not queued */
+	private int position;
+	// Slot of the timer in the TimerWheel
+	private int bucket;
 
-	public Event(float eventTime) {
+	public Event(long eventTime) {
 		this.eventTime = eventTime;
+		priority = Keywords.Events.Priorities.Default;
+		sequenceNumber = 0;
+		position = -1;
+		bucket = -1;
 	}
 
 	public abstract void execute(Network net);
+
+	/* Position of the event among simultaneous events when priorities are enabled */
+	public short getPriorityClass() {
+		return Keywords.Events.Priorities.Default;
+	}
+
+	void schedule(short priority, long sequenceNumber) {
+		this.priority = priority;
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	/* Earlier time first, then lower priority, then first scheduled */
+	public boolean isBefore(Event other) {
+		if (eventTime != other.eventTime) {
+			return eventTime < other.eventTime;
+		}
+		if (priority != other.priority) {
+			return priority < other.priority;
+		}
+		return sequenceNumber < other.sequenceNumber;
+	}
+
+	public long getEventTime() {
+		return eventTime;
+	}
+
+	public short getPriority() {
+		return priority;
+	}
+
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	public void setPosition(int position) {
+		this.position = position;
+	}
+
+	int getBucket() {
+		return bucket;
+	}
+
+	void setBucket(int bucket) {
+		this.bucket = bucket;
+	}
 }
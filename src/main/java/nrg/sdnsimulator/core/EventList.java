@@ -1,45 +1,104 @@
 package nrg.sdnsimulator.core;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.futureeventset.BinaryHeap;
+import nrg.sdnsimulator.core.futureeventset.CalendarQueue;
+import nrg.sdnsimulator.core.futureeventset.FourAryHeap;
+import nrg.sdnsimulator.core.utility.Keywords;
 
 public class EventList {
-	private ArrayList<Event> events = new ArrayList<Event>();
+	private FutureEventSet events;
+	private boolean prioritizeSimultaneousEvents;
+	// Simultaneous events keep the order of their scheduling entities
+	private boolean entityTieBreaking;
+	private long sequenceCounter;
 
 	public EventList() {
+		this(Keywords.EventLists.Types.Default);
 	}
 
-	/* ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++ */
-	public static Comparator<Event> timeComparator = new Comparator<Event>() {
-		@Override
-		public int compare(Event e1, Event e2) {
-			if (e1.eventTime < e2.eventTime) {
-				return -1;
-			} else if (e1.eventTime > e2.eventTime) {
-				return 1;
-			} else {
-				return 0;
-			}
+	public EventList(short eventListType) {
+		prioritizeSimultaneousEvents = false;
+		entityTieBreaking = false;
+		sequenceCounter = 0;
+		switch (eventListType) {
+		case Keywords.EventLists.Types.FourAryHeap:
+			events = new FourAryHeap();
+			break;
+		case Keywords.EventLists.Types.CalendarQueue:
+			events = new CalendarQueue();
+			break;
+		case Keywords.EventLists.Types.BinaryHeap:
+			events = new BinaryHeap();
+			break;
+		default:
+			events = new BinaryHeap();
+			break;
 		}
-	};
-	/* ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++ */
+	}
 
 	public void addEvent(Event newEvent) {
-		events.add(newEvent);
-		Collections.sort(events, timeComparator);
+		addEvent(newEvent, null);
+	}
+
+	public void addEvent(Event newEvent, Entity scheduler) {
+		stamp(newEvent, scheduler);
+		events.insert(newEvent);
+	}
+
+	/* Assigns the tie-breakers of an event that is queued elsewhere (TimerWheel, mailboxes) */
+	void stamp(Event newEvent, Entity scheduler) {
+		short priority = Keywords.Events.Priorities.Default;
+		if (prioritizeSimultaneousEvents) {
+			priority = newEvent.getPriorityClass();
+		}
+		if (entityTieBreaking && scheduler != null) {
+			newEvent.schedule(priority, scheduler.nextEventOrder());
+		} else {
+			newEvent.schedule(priority, sequenceCounter++);
+		}
+	}
+
+	/* Queues an event that keeps the tie-breakers it already has */
+	void insertStamped(Event event) {
+		events.insert(event);
 	}
 
 	public Event getEvent() {
-		Event event = this.events.get(0);
-		return event;
+		return events.peek();
 	}
 
-	public void removeEvent() {
-		this.events.remove(0);
+	public Event removeEvent() {
+		return events.poll();
+	}
+
+	/* Unschedules a pending event so that it is never executed */
+	public boolean cancelEvent(Event event) {
+		return events.remove(event);
 	}
 
 	public int size() {
 		return events.size();
 	}
+
+	/* Simultaneous events run timeouts first, then departures, then arrivals */
+	public void setPrioritizeSimultaneousEvents(boolean prioritizeSimultaneousEvents) {
+		this.prioritizeSimultaneousEvents = prioritizeSimultaneousEvents;
+	}
+
+	public boolean isPrioritizeSimultaneousEvents() {
+		return prioritizeSimultaneousEvents;
+	}
+
+	/*
+	 * Simultaneous events run by scheduling entity instead of global scheduling
+	 * order, which partitions can reproduce without sharing a counter
+	 */
+	public void setEntityTieBreaking(boolean entityTieBreaking) {
+		this.entityTieBreaking = entityTieBreaking;
+	}
+
+	public boolean isEntityTieBreaking() {
+		return entityTieBreaking;
+	}
 }
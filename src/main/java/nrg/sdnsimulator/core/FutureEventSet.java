@@ -0,0 +1,30 @@
+package nrg.sdnsimulator.core;
+
+/*
+ * The pending events of a simulation, ordered by Event.isBefore. Ties are
+ * resolved by the sequence number the EventList assigns, so every
+ * implementation polls the events in exactly the same order.
+ */
+public abstract class FutureEventSet {
+
+	public FutureEventSet() {
+	}
+
+	public abstract void insert(Event event);
+
+	/* Returns the earliest event without removing it */
+	public abstract Event peek();
+
+	/* Removes and returns the earliest event */
+	public abstract Event poll();
+
+	/* Removes a pending event, returns false if the event is not in the set */
+	public abstract boolean remove(Event event);
+
+	public abstract int size();
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+}
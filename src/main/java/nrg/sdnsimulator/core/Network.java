@@ -1,28 +1,124 @@
 package nrg.sdnsimulator.core;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
+import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.entity.network.Agent;
 import nrg.sdnsimulator.core.entity.network.Controller;
 import nrg.sdnsimulator.core.entity.network.Host;
 import nrg.sdnsimulator.core.entity.network.Link;
+import nrg.sdnsimulator.core.entity.network.Node;
 import nrg.sdnsimulator.core.entity.network.SDNSwitch;
+import nrg.sdnsimulator.core.entity.traffic.Flow;
+import nrg.sdnsimulator.core.event.ArrivalToNode;
+import nrg.sdnsimulator.core.event.DepartureFromNode;
+import nrg.sdnsimulator.core.event.EventPool;
+import nrg.sdnsimulator.core.event.TimeoutEvent;
+import nrg.sdnsimulator.core.utility.FlowMetrics;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.Mathematics;
+import nrg.sdnsimulator.core.utility.datastructure.EntityRegistry;
+import nrg.sdnsimulator.core.utility.metric.LogHistogram;
 
 public class Network {
 
-	private float currentTime;
+	private long currentTime; // picoseconds
 	private EventList eventList;
-	private HashMap<Integer, Controller> controllers;
-	private HashMap<Integer, SDNSwitch> switches;
-	private HashMap<Integer, Host> hosts;
-	private HashMap<Integer, Link> links;
+	private EventPool eventPool;
+	// Owns the agent timers when enabled, otherwise they go to the EventList
+	private TimerWheel timerWheel;
+	// Indexed by ID, see EntityRegistry
+	private EntityRegistry<Controller> controllers;
+	private EntityRegistry<SDNSwitch> switches;
+	private EntityRegistry<Host> hosts;
+	private EntityRegistry<Link> links;
+	// Never retired, they keep the per-flow utilization
+	private ArrayList<Link> monitoredLinks;
+
+	/* ========== Partitioned execution ========== */
+	private int partitionID;
+	// Shared by all partitions, null when the network runs sequentially
+	private HashMap<Integer, Integer> partitionOfNodeID;
+	private Network[] partitions;
+	// Arrivals posted by the other partitions, lock-free so senders never block
+	private ConcurrentLinkedQueue<Event> mailbox;
+	// Records the executed events of an optimistic partition, null otherwise
+	private TimeWarpPartition timeWarp;
+
+	/* ========== Lazy flow injection ========== */
+	// Retires the hosts of a finished flow, null when the flows are all built before the run
+	private Consumer<Agent> flowRetirement;
+	// Indexed by (ID - HostNodeIDOffset)
+	private BitSet retiredHostIDs;
+
+	/** ========== Statistical Counters ========== **/
+	// ps, merged from the partitions at the end of a parallel run
+	private LogHistogram flowCompletionTimes;
+	// Folded from the retired hosts and links for the Statistics
+	private FlowMetrics retiredFlowMetrics;
+	private long retiredFiredTimers;
+	private long retiredCancelledTimers;
+	private LogHistogram retiredQueueingDelays;
+	// Summed over the partitions of an optimistic run, see TimeWarpPartition
+	private long committedEvents;
+	private long rollbacks;
+	private long rolledBackEvents;
+	private long timeWarpMessages;
+
+	/** ========================================== **/
 
 	public Network() {
-		controllers = new HashMap<Integer, Controller>();
-		hosts = new HashMap<Integer, Host>();
-		switches = new HashMap<Integer, SDNSwitch>();
-		links = new HashMap<Integer, Link>();
-		eventList = new EventList();
+		this(Keywords.EventLists.Types.Default);
+	}
+
+	public Network(short eventListType) {
+		controllers = new EntityRegistry<Controller>(Keywords.ControllerNodeIDOffset);
+		hosts = new EntityRegistry<Host>(Keywords.HostNodeIDOffset);
+		switches = new EntityRegistry<SDNSwitch>(Keywords.SwitchNodeIDOffset);
+		// Forward links from 0 and reverse links from ReverseLinkIDOffSet share one array
+		links = new EntityRegistry<Link>(0);
+		eventList = new EventList(eventListType);
+		eventPool = new EventPool(false);
+		timerWheel = null;
 		currentTime = 0;
+		partitionID = 0;
+		partitionOfNodeID = null;
+		partitions = null;
+		mailbox = new ConcurrentLinkedQueue<Event>();
+		timeWarp = null;
+		flowRetirement = null;
+		retiredHostIDs = new BitSet();
+		flowCompletionTimes = new LogHistogram();
+		retiredFlowMetrics = new FlowMetrics();
+		monitoredLinks = new ArrayList<Link>();
+		retiredFiredTimers = 0;
+		retiredCancelledTimers = 0;
+		retiredQueueingDelays = new LogHistogram();
+		committedEvents = 0;
+		rollbacks = 0;
+		rolledBackEvents = 0;
+		timeWarpMessages = 0;
+	}
+
+	/* A partition of the network: shares its entities but has its own clock and events */
+	public Network(Network network, short eventListType, int partitionID) {
+		this(eventListType);
+		controllers = network.controllers;
+		switches = network.switches;
+		hosts = network.hosts;
+		links = network.links;
+		monitoredLinks = network.monitoredLinks;
+		eventList.setPrioritizeSimultaneousEvents(network.eventList.isPrioritizeSimultaneousEvents());
+		eventList.setEntityTieBreaking(true);
+		eventPool.setEnabled(network.eventPool.isEnabled());
+		setTimerWheelEnabled(network.timerWheel != null);
+		currentTime = network.currentTime;
+		this.partitionID = partitionID;
 	}
 
 	public Controller getController(int id) {
@@ -41,48 +137,268 @@ public class Network {
 		return links.get(id);
 	}
 
+	public Node getNode(int id) {
+		switch (Simulator.getNodeType(id)) {
+		case Keywords.Entities.Nodes.Types.Controller:
+			return controllers.get(id);
+		case Keywords.Entities.Nodes.Types.SDNSwitch:
+			return switches.get(id);
+		case Keywords.Entities.Nodes.Types.Host:
+			return hosts.get(id);
+		default:
+			return null;
+		}
+	}
+
+	public void addController(Controller controller) {
+		controllers.register(controller);
+	}
+
+	public void addSwitch(SDNSwitch sw) {
+		switches.register(sw);
+	}
+
+	public void addHost(Host host) {
+		hosts.register(host);
+		// The ID of a retired host handed out again
+		retiredHostIDs.clear(host.getID() - Keywords.HostNodeIDOffset);
+	}
+
+	public void addLink(Link link) {
+		links.register(link);
+		if (link.isMonitored()) {
+			monitoredLinks.add(link);
+		}
+	}
+
 	public float getCurrentTime() {
+		return Mathematics.picoToMicro(currentTime);
+	}
+
+	public long getCurrentTimePs() {
 		return currentTime;
 	}
 
-	public void updateTime(float currentTime) {
+	public void updateTime(long currentTime) {
 		this.currentTime = currentTime;
 	}
 
+	public LogHistogram getFlowCompletionTimes() {
+		return flowCompletionTimes;
+	}
+
+	public EventPool getEventPool() {
+		return eventPool;
+	}
+
 	public EventList getEventList() {
 		return eventList;
 	}
 
-	public HashMap<Integer, Controller> getControllers() {
-		return controllers;
+	public TimerWheel getTimerWheel() {
+		return timerWheel;
 	}
 
-	public void setControllers(HashMap<Integer, Controller> controllers) {
-		this.controllers = controllers;
+	public void setTimerWheelEnabled(boolean isEnabled) {
+		timerWheel = isEnabled ? new TimerWheel(eventList) : null;
 	}
 
-	public HashMap<Integer, SDNSwitch> getSwitches() {
-		return switches;
+	public void scheduleTimer(Event timeoutEvent, Entity scheduler) {
+		if (timerWheel != null) {
+			timerWheel.arm(timeoutEvent, scheduler);
+		} else {
+			addEvent(timeoutEvent, scheduler);
+		}
 	}
 
-	public void setSwitches(HashMap<Integer, SDNSwitch> switches) {
-		this.switches = switches;
+	public boolean cancelTimer(Event timeoutEvent) {
+		if (timerWheel != null) {
+			return timerWheel.cancel(timeoutEvent);
+		}
+		boolean isCancelled = eventList.cancelEvent(timeoutEvent);
+		if (isCancelled && timeWarp != null) {
+			timeWarp.cancelled(timeoutEvent);
+		}
+		return isCancelled;
 	}
 
-	public HashMap<Integer, Host> getHosts() {
-		return hosts;
+	public void addEvent(Event event, Entity scheduler) {
+		eventList.addEvent(event, scheduler);
+		if (timeWarp != null) {
+			timeWarp.scheduled(event);
+		}
 	}
 
-	public void setHosts(HashMap<Integer, Host> hosts) {
-		this.hosts = hosts;
+	/* Queues an event that runs at nodeID, in the mailbox of its partition if it is remote */
+	public void addEvent(Event event, Entity scheduler, int nodeID) {
+		if (partitions == null) {
+			eventList.addEvent(event, scheduler);
+			return;
+		}
+		eventList.stamp(event, scheduler);
+		int partition = partitionOfNodeID.get(nodeID);
+		if (partition == partitionID) {
+			eventList.insertStamped(event);
+			if (timeWarp != null) {
+				timeWarp.scheduled(event);
+			}
+		} else if (timeWarp != null) {
+			timeWarp.send(event, partitions[partition]);
+		} else {
+			partitions[partition].mailbox.offer(event);
+		}
 	}
 
-	public HashMap<Integer, Link> getLinks() {
-		return links;
+	/*
+	 * Statistics written by an event. An optimistic partition applies them once
+	 * the event can no longer be rolled back, so they may touch any entity.
+	 */
+	public void updateStatistics(Runnable update) {
+		if (timeWarp == null) {
+			update.run();
+		} else {
+			timeWarp.deferStatistics(update);
+		}
+	}
+
+	void post(Event event) {
+		mailbox.offer(event);
+	}
+
+	Event pollMail() {
+		return mailbox.poll();
+	}
+
+	/* Moves the events posted by the other partitions into the EventList */
+	public void deliverMail() {
+		Event event;
+		while ((event = mailbox.poll()) != null) {
+			eventList.insertStamped(event);
+		}
+	}
+
+	public void setPartitions(Network[] partitions, HashMap<Integer, Integer> partitionOfNodeID) {
+		this.partitions = partitions;
+		this.partitionOfNodeID = partitionOfNodeID;
+	}
+
+	public int getPartitionID() {
+		return partitionID;
+	}
+
+	TimeWarpPartition getTimeWarp() {
+		return timeWarp;
+	}
+
+	void setTimeWarp(TimeWarpPartition timeWarp) {
+		this.timeWarp = timeWarp;
 	}
 
-	public void setLinks(HashMap<Integer, Link> links) {
-		this.links = links;
+	/* Node whose state the event changes, -1 for events outside the model */
+	public int getExecutingNodeID(Event event) {
+		if (event instanceof ArrivalToNode) {
+			return ((ArrivalToNode) event).getNodeID();
+		} else if (event instanceof DepartureFromNode) {
+			return ((DepartureFromNode) event).getLink().getSrcNodeID();
+		} else if (event instanceof TimeoutEvent) {
+			return ((TimeoutEvent) event).getNodeID();
+		}
+		return -1;
+	}
+
+	/* ========== Retirement of finished flows ========== */
+	public void setFlowRetirement(Consumer<Agent> flowRetirement) {
+		this.flowRetirement = flowRetirement;
+	}
+
+	/* Called by a host once the last segment of its flow has arrived */
+	public void flowFinished(Agent agent) {
+		if (flowRetirement != null) {
+			flowRetirement.accept(agent);
+		}
+	}
+
+	public void retireHost(Host host) {
+		hosts.unregister(host.getID());
+		retiredHostIDs.set(host.getID() - Keywords.HostNodeIDOffset);
+		host.setRetired(true);
+	}
+
+	public boolean isRetiredHost(int id) {
+		return id >= Keywords.HostNodeIDOffset && retiredHostIDs.get(id - Keywords.HostNodeIDOffset);
+	}
+
+	public void retireLink(Link link) {
+		links.unregister(link.getID());
+		retiredQueueingDelays.merge(link.getQueueingDelay());
+		// The packets still on the link record into the merged histogram
+		link.setQueueingDelay(retiredQueueingDelays);
+	}
+
+	/* Only the metrics of the flow are kept, the flow itself goes with its hosts */
+	public void retireFlow(Flow flow, long firedTimers, long cancelledTimers) {
+		retiredFlowMetrics.add(flow);
+		for (Link link : monitoredLinks) {
+			link.retireFlow(flow);
+		}
+		retiredFiredTimers += firedTimers;
+		retiredCancelledTimers += cancelledTimers;
+	}
+
+	public FlowMetrics getRetiredFlowMetrics() {
+		return retiredFlowMetrics;
+	}
+
+	public long getRetiredFiredTimers() {
+		return retiredFiredTimers;
+	}
+
+	public long getRetiredCancelledTimers() {
+		return retiredCancelledTimers;
+	}
+
+	void addTimeWarpCounters(TimeWarpPartition timeWarp) {
+		committedEvents += timeWarp.getCommittedEvents();
+		rollbacks += timeWarp.getRollbacks();
+		rolledBackEvents += timeWarp.getRolledBackEvents();
+		timeWarpMessages += timeWarp.getSentMessages();
+	}
+
+	public long getCommittedEvents() {
+		return committedEvents;
+	}
+
+	public long getRollbacks() {
+		return rollbacks;
+	}
+
+	public long getRolledBackEvents() {
+		return rolledBackEvents;
+	}
+
+	public long getTimeWarpMessages() {
+		return timeWarpMessages;
+	}
+
+	public LogHistogram getRetiredQueueingDelays() {
+		return retiredQueueingDelays;
+	}
+
+	/* ========== Read-only views in ID order ========== */
+	public Map<Integer, Controller> getControllers() {
+		return controllers;
+	}
+
+	public Map<Integer, SDNSwitch> getSwitches() {
+		return switches;
+	}
+
+	public Map<Integer, Host> getHosts() {
+		return hosts;
+	}
+
+	public Map<Integer, Link> getLinks() {
+		return links;
 	}
 
 }
@@ -1,9 +1,19 @@
 package nrg.sdnsimulator.core;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
 import nrg.sdnsimulator.core.entity.network.Agent;
 import nrg.sdnsimulator.core.entity.network.Controller;
 import nrg.sdnsimulator.core.entity.network.Host;
 import nrg.sdnsimulator.core.entity.network.Link;
+import nrg.sdnsimulator.core.entity.network.Node;
 import nrg.sdnsimulator.core.entity.network.SDNSwitch;
 import nrg.sdnsimulator.core.entity.network.agent.DefaultReceiver;
 import nrg.sdnsimulator.core.entity.network.agent.DefaultSender;
@@ -19,10 +29,13 @@ import nrg.sdnsimulator.core.entity.network.link.DefaultLink;
 import nrg.sdnsimulator.core.entity.network.sdnswitch.DefaultSDNSwitch;
 import nrg.sdnsimulator.core.entity.network.sdnswitch.SDNSwitchv1;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
+import nrg.sdnsimulator.core.event.FlowArrival;
 import nrg.sdnsimulator.core.utility.Keywords;
 import nrg.sdnsimulator.core.utility.Mathematics;
 import nrg.sdnsimulator.core.utility.Statistics;
 import nrg.sdnsimulator.core.utility.datastructure.OneToOneMap;
+import nrg.sdnsimulator.core.utility.datastructure.PacketStore;
 
 public class Simulator {
 
@@ -35,9 +48,32 @@ public class Simulator {
 	private int linkCounter;
 	private int flowCounter;
 	private int btllinkID = -1;
+	private short eventListType;
+	private int numberOfPartitions;
+	private boolean timeWarp;
+	private boolean seqNumRecording;
+	private float queueTraceInterval; // microseconds, 0 for no trace
+	// Flows pulled as the simulation advances, null when they are all generated before the run
+	private FlowSource flowSource;
+	private FlowBuilder flowBuilder;
+	// Exact arrival of the flow being built from the source, -1 otherwise
+	private long sourceArrivalTimePs;
+	// Forward IDs of the access links of retired hosts, handed out again by createLink
+	private ArrayDeque<Integer> retiredLinkIDs;
+	// IDs of retired hosts, handed out again by createHost once their segments are gone
+	private ArrayDeque<Integer> retiredHostIDs;
 	private Network net;
 
+	/* Creates the hosts and access links of a flow and generates it, see setFlowSource */
+	public interface FlowBuilder {
+		void build(int flowIndex, float arrivalTime, int size);
+	}
+
 	public Simulator() {
+		this(Keywords.EventLists.Types.Default);
+	}
+
+	public Simulator(short eventListType) {
 		/* Default Settings of the Simulator */
 		nodeLabels = new OneToOneMap();
 		linkLabels = new OneToOneMap();
@@ -48,8 +84,18 @@ public class Simulator {
 		hostCounter = Keywords.HostNodeIDOffset;
 		linkCounter = 0;
 		flowCounter = 0;
-
-		net = new Network();
+		this.eventListType = eventListType;
+		numberOfPartitions = 1;
+		seqNumRecording = true;
+		queueTraceInterval = 0;
+		timeWarp = false;
+		flowSource = null;
+		flowBuilder = null;
+		sourceArrivalTimePs = -1;
+		retiredLinkIDs = new ArrayDeque<Integer>();
+		retiredHostIDs = new ArrayDeque<Integer>();
+
+		net = new Network(eventListType);
 	}
 
 	/********** Topology Creation methods ***********/
@@ -68,7 +114,7 @@ public class Simulator {
 			controller = new DefaultController(controllerCounter, routingAlgorithm);
 			break;
 		}
-		net.getControllers().put(controllerCounter, controller);
+		net.addController(controller);
 		nodeLabels.put(controllerCounter, label);
 		controllerCounter++;
 
@@ -102,7 +148,7 @@ public class Simulator {
 			sw = new DefaultSDNSwitch(switchCounter);
 			break;
 		}
-		net.getSwitches().put(switchCounter, sw);
+		net.addSwitch(sw);
 		nodeLabels.put(switchCounter, label);
 		switchCounter++;
 	}
@@ -114,18 +160,39 @@ public class Simulator {
 
 	/* Host Creation Method */
 	public void createHost(String label, short hostType) {
+		int hostID = nextHostID();
 		Host host;
 		switch (hostType) {
 		case Keywords.Entities.Hosts.Types.Host_1:
-			host = new DefaultHost(hostCounter);
+			host = new DefaultHost(hostID);
 			break;
 		default:
-			host = new DefaultHost(hostCounter);
+			host = new DefaultHost(hostID);
 			break;
 		}
-		net.getHosts().put(hostCounter, host);
-		nodeLabels.put(hostCounter, label);
-		hostCounter++;
+		net.addHost(host);
+		nodeLabels.put(hostID, label);
+	}
+
+	/*
+	 * A retired host gives its ID to a new one once no segment from or to it is
+	 * left in the network, the links would otherwise take a straggler for a
+	 * segment of the new host. The retired IDs are tried in turn, one per host.
+	 */
+	private int nextHostID() {
+		Integer retiredHostID = retiredHostIDs.poll();
+		if (retiredHostID != null) {
+			if (!net.getEventPool().hasPacketsOf(retiredHostID)) {
+				return retiredHostID;
+			}
+			retiredHostIDs.add(retiredHostID);
+		}
+		// The scheduling keys of the nodes are their IDs, below those of the links
+		if (hostCounter >= Keywords.LinkSchedulingKeyOffset) {
+			throw new IllegalStateException("Host ID " + hostCounter + " reaches the scheduling keys of the links ("
+					+ Keywords.LinkSchedulingKeyOffset + "), too many hosts at once");
+		}
+		return hostCounter++;
 	}
 
 	public void createHost(String label) {
@@ -140,36 +207,45 @@ public class Simulator {
 
 		int srcNodeID = nodeLabels.getID(srcNodeLabel);
 		int dstNodeID = nodeLabels.getID(dstNodeLabel);
+		if (retiredLinkIDs.isEmpty() && linkCounter >= Keywords.ReverseLinkIDOffSet) {
+			throw new IllegalStateException("Link ID " + linkCounter + " reaches the IDs of the reverse links ("
+					+ Keywords.ReverseLinkIDOffSet + "), too many links at once");
+		}
+		int linkID = retiredLinkIDs.isEmpty() ? linkCounter++ : retiredLinkIDs.poll();
 
 		Link link;
 		Link reverseLink;
 		switch (linkType) {
 		case Keywords.Entities.Links.Types.Link_1:
-			link = new DefaultLink(linkCounter, srcNodeID, dstNodeID,
-					(float) Mathematics.baseToMicro(propDelay),
+			link = new DefaultLink(linkID, srcNodeID, dstNodeID,
+					Mathematics.microToPico((float) Mathematics.baseToMicro(propDelay)),
 					(float) Mathematics.bitPerSecondTobitPerMicroSecond(bandwidth), bufferType,
 					bufferSize, bufferPolicy);
-			reverseLink = new DefaultLink(reverseLinkID(linkCounter), dstNodeID, srcNodeID,
-					(float) Mathematics.baseToMicro(propDelay),
+			reverseLink = new DefaultLink(reverseLinkID(linkID), dstNodeID, srcNodeID,
+					Mathematics.microToPico((float) Mathematics.baseToMicro(propDelay)),
 					(float) Mathematics.bitPerSecondTobitPerMicroSecond(bandwidth), bufferType,
 					bufferSize, bufferPolicy);
 			break;
 		default:
-			link = new DefaultLink(linkCounter, srcNodeID, dstNodeID,
-					(float) Mathematics.baseToMicro(propDelay),
+			link = new DefaultLink(linkID, srcNodeID, dstNodeID,
+					Mathematics.microToPico((float) Mathematics.baseToMicro(propDelay)),
 					(float) Mathematics.bitPerSecondTobitPerMicroSecond(bandwidth), bufferType,
 					bufferSize, bufferPolicy);
-			reverseLink = new DefaultLink(reverseLinkID(linkCounter), dstNodeID, srcNodeID,
-					(float) Mathematics.baseToMicro(propDelay),
+			reverseLink = new DefaultLink(reverseLinkID(linkID), dstNodeID, srcNodeID,
+					Mathematics.microToPico((float) Mathematics.baseToMicro(propDelay)),
 					(float) Mathematics.bitPerSecondTobitPerMicroSecond(bandwidth), bufferType,
 					bufferSize, bufferPolicy);
 			break;
 		}
 		link.setMonitored(isMonitored);
-		net.getLinks().put(link.getID(), link);
-		net.getLinks().put(reverseLink.getID(), reverseLink);
-		linkLabels.put(linkCounter, label);
-		linkCounter++;
+		link.setSegmentArrivalRecording(seqNumRecording);
+		link.getQueueLength().setSampleInterval(queueTraceInterval);
+		reverseLink.getQueueLength().setSampleInterval(queueTraceInterval);
+		link.setDstNode(net.getNode(dstNodeID));
+		reverseLink.setDstNode(net.getNode(srcNodeID));
+		net.addLink(link);
+		net.addLink(reverseLink);
+		linkLabels.put(linkID, label);
 
 		if (isMonitored) {
 			btllinkID = linkCounter;
@@ -177,15 +253,15 @@ public class Simulator {
 
 		switch (getNodeType(srcNodeID)) {
 		case Keywords.Entities.Nodes.Types.SDNSwitch:
-			net.getSwitches().get(srcNodeID).connectToNode(link.getID(), dstNodeID,
+			net.getSwitch(srcNodeID).connectToNode(link.getID(), dstNodeID,
 					getNodeType(dstNodeID));
 			break;
 		case Keywords.Entities.Nodes.Types.Host:
-			net.getHosts().get(srcNodeID).connectToNode(link.getID(), dstNodeID,
+			net.getHost(srcNodeID).connectToNode(link.getID(), dstNodeID,
 					getNodeType(dstNodeID));
 			break;
 		case Keywords.Entities.Nodes.Types.Controller:
-			net.getControllers().get(srcNodeID).connectToNode(link.getID(), dstNodeID,
+			net.getController(srcNodeID).connectToNode(link.getID(), dstNodeID,
 					getNodeType(dstNodeID));
 			break;
 		default:
@@ -193,15 +269,15 @@ public class Simulator {
 		}
 		switch (getNodeType(dstNodeID)) {
 		case Keywords.Entities.Nodes.Types.SDNSwitch:
-			net.getSwitches().get(dstNodeID).connectToNode(reverseLink.getID(), srcNodeID,
+			net.getSwitch(dstNodeID).connectToNode(reverseLink.getID(), srcNodeID,
 					getNodeType(srcNodeID));
 			break;
 		case Keywords.Entities.Nodes.Types.Host:
-			net.getHosts().get(dstNodeID).connectToNode(reverseLink.getID(), srcNodeID,
+			net.getHost(dstNodeID).connectToNode(reverseLink.getID(), srcNodeID,
 					getNodeType(srcNodeID));
 			break;
 		case Keywords.Entities.Nodes.Types.Controller:
-			net.getControllers().get(dstNodeID).connectToNode(reverseLink.getID(), srcNodeID,
+			net.getController(dstNodeID).connectToNode(reverseLink.getID(), srcNodeID,
 					getNodeType(srcNodeID));
 			break;
 		default:
@@ -223,9 +299,12 @@ public class Simulator {
 			float arrivalTime, short agentType, int initialSWnd) {
 		int srcHostID = nodeLabels.getID(srcHostLabel);
 		int dstHostID = nodeLabels.getID(dstHostLabel);
-		Flow flow = new Flow(flowCounter, srcHostID, dstHostID, size, arrivalTime);
+		long arrivalTimePs = sourceArrivalTimePs >= 0 ? sourceArrivalTimePs : Mathematics.microToPico(arrivalTime);
+		Flow flow = new Flow(flowCounter, srcHostID, dstHostID, size, arrivalTime, arrivalTimePs);
 		Flow reverseFlow = new Flow(reverseFlowStreamID(flow.getID()), dstHostID, srcHostID, size,
-				arrivalTime);
+				arrivalTime, arrivalTimePs);
+		flow.setSeqNumRecording(seqNumRecording);
+		reverseFlow.setSeqNumRecording(seqNumRecording);
 		flowCounter++;
 		flowLabels.put(flow.getID(), label);
 
@@ -246,9 +325,9 @@ public class Simulator {
 			break;
 		}
 
-		net.getHosts().get(srcHostID).setTransportAgent(srcAgent);
-		net.getHosts().get(dstHostID).setTransportAgent(dstAgent);
-		net.getHosts().get(srcHostID).initialize(net);
+		net.getHost(srcHostID).setTransportAgent(srcAgent);
+		net.getHost(dstHostID).setTransportAgent(dstAgent);
+		net.getHost(srcHostID).initialize(net);
 	}
 
 	public void generateFlow(String label, String srcHostLabel, String dstHostLabel, int size,
@@ -256,6 +335,86 @@ public class Simulator {
 		generateFlow(label, srcHostLabel, dstHostLabel, size, arrivalTime, agentType, 1);
 	}
 
+	/*
+	 * The flows are pulled from the source as the simulation reaches their
+	 * arrival instead of being generated before the run. Only the next arrival
+	 * is queued; the builder creates the hosts and access links of a flow when it
+	 * arrives, and they are retired once its last segment has arrived. The flows
+	 * and counters of the retired hosts are kept for the Statistics. Their IDs
+	 * are handed out again, so a controller that goes through its hosts in ID
+	 * order may not see them in order of arrival. Sequential runs only, a
+	 * partitioned run builds all the flows of the source up front.
+	 */
+	public void setFlowSource(FlowSource flowSource, FlowBuilder flowBuilder) {
+		this.flowSource = flowSource;
+		this.flowBuilder = flowBuilder;
+	}
+
+	/* Builds the flow the source is on and queues the arrival of the next one */
+	public void injectFlow(FlowArrival arrival) {
+		buildSourceFlow();
+		if (flowSource.nextFlow()) {
+			arrival.reset(flowSource.getArrivalTimePs());
+			net.addEvent(arrival, null);
+		}
+	}
+
+	private void startFlowSource() {
+		if (numberOfPartitions > 1) {
+			// The nodes are assigned to the partitions before the run
+			while (flowSource.nextFlow()) {
+				buildSourceFlow();
+			}
+		} else if (flowSource.nextFlow()) {
+			net.setFlowRetirement(this::retireFlow);
+			net.addEvent(new FlowArrival(flowSource.getArrivalTimePs(), this), null);
+		}
+	}
+
+	/* The flow starts at the exact arrival of the source, the float one is for the statistics */
+	private void buildSourceFlow() {
+		sourceArrivalTimePs = flowSource.getArrivalTimePs();
+		flowBuilder.build(flowSource.getFlowIndex(), flowSource.getArrivalTime(), flowSource.getSize());
+		sourceArrivalTimePs = -1;
+	}
+
+	/* The hosts of a finished flow go, with their links, labels and the flow entries of the switches */
+	private void retireFlow(Agent agent) {
+		int flowID = agent.getFlow().getID() < Keywords.ACKStreamIDOffSet ? agent.getFlow().getID()
+				: reverseFlowStreamID(agent.getFlow().getID());
+		for (SDNSwitch sw : net.getSwitches().values()) {
+			sw.removeFlowTableEntry(flowID);
+			sw.removeFlowTableEntry(reverseFlowStreamID(flowID));
+		}
+		retireHost(agent.getSrcHostID());
+		retireHost(agent.getDstHostID());
+		flowLabels.remove(flowID);
+	}
+
+	private void retireHost(int hostID) {
+		Host host = net.getHost(hostID);
+		Agent agent = host.getTransportAgent();
+		if (agent.getFlow().getID() < Keywords.ACKStreamIDOffSet) {
+			long firedTimers = 0;
+			long cancelledTimers = 0;
+			if (agent instanceof Senderv2) {
+				firedTimers = ((Senderv2) agent).getFiredTimers();
+				cancelledTimers = ((Senderv2) agent).getCancelledTimers();
+			}
+			net.retireFlow(agent.getFlow(), firedTimers, cancelledTimers);
+		}
+		net.getSwitch(host.getAccessSwitchID()).disconnectFromHost(hostID);
+		int linkID = host.getAccessLinkID() < Keywords.ReverseLinkIDOffSet ? host.getAccessLinkID()
+				: reverseLinkID(host.getAccessLinkID());
+		net.retireLink(net.getLink(linkID));
+		net.retireLink(net.getLink(reverseLinkID(linkID)));
+		net.retireHost(host);
+		linkLabels.remove(linkID);
+		nodeLabels.remove(hostID);
+		retiredLinkIDs.add(linkID);
+		retiredHostIDs.add(hostID);
+	}
+
 	/********** Run **********/
 	private void initialize() {
 		// Initialize everyThing here
@@ -263,24 +422,392 @@ public class Simulator {
 			controller.setNetwokInformation(net);
 			controller.setBottleneckLinkID(btllinkID); // TODO resolve this issue
 		}
+		if (flowSource != null) {
+			startFlowSource();
+		}
+	}
+
+	/* Simultaneous events run by event type instead of scheduling order */
+	public void setPrioritizeSimultaneousEvents(boolean prioritizeSimultaneousEvents) {
+		net.getEventList().setPrioritizeSimultaneousEvents(prioritizeSimultaneousEvents);
+	}
+
+	/* Recycles the events and packets of the hops and timers, off unless turned on (see EventPool) */
+	public void setEventPooling(boolean isEnabled) {
+		net.getEventPool().setEnabled(isEnabled);
+	}
+
+	/*
+	 * The segments in flight are kept off-heap (see PacketStore). Sequential runs
+	 * only, the partitions keep their packets on the heap.
+	 */
+	public void setPacketStore(boolean isEnabled) {
+		net.getEventPool().setPacketStore(isEnabled && numberOfPartitions == 1
+				? new PacketStore(Keywords.PacketStore.InitialCapacity)
+				: null);
+	}
+
+	/*
+	 * The sending and ACK arrival time of every sequence number, and the arrival
+	 * of every segment at the monitored link, are recorded for the plots. Must
+	 * be set before the links are created and the flows generated.
+	 */
+	public void setSeqNumRecording(boolean seqNumRecording) {
+		this.seqNumRecording = seqNumRecording;
+	}
+
+	/*
+	 * The queue length of each link is also traced, sampled at most once per
+	 * interval (microseconds). Must be set before the links are created.
+	 */
+	public void setQueueTraceInterval(float queueTraceInterval) {
+		this.queueTraceInterval = queueTraceInterval;
+	}
+
+	/* Agent timers are kept in a timing wheel instead of the EventList */
+	public void setTimerWheel(boolean isEnabled) {
+		net.setTimerWheelEnabled(isEnabled);
+	}
+
+	/* Simultaneous events run in the order of the entities that scheduled them */
+	public void setEntityTieBreaking(boolean entityTieBreaking) {
+		net.getEventList().setEntityTieBreaking(entityTieBreaking || numberOfPartitions > 1);
+	}
+
+	/*
+	 * Runs the nodes in parallel partitions (conservative, YAWNS windows bounded
+	 * by the propagation delay of the links between partitions). Must be set
+	 * before the flows are generated, it turns on entity tie-breaking so the
+	 * results are the same as a sequential run with entity tie-breaking.
+	 */
+	public void setPartitions(int numberOfPartitions) {
+		this.numberOfPartitions = Math.max(1, numberOfPartitions);
+		if (this.numberOfPartitions > 1) {
+			net.getEventList().setEntityTieBreaking(true);
+			net.getEventPool().setPacketStore(null);
+		}
+	}
+
+	/*
+	 * The partitions run optimistically (Time Warp) instead of in conservative
+	 * windows, with the same results. Used together with setPartitions; the
+	 * timer wheel and event pooling are off in the partitions.
+	 */
+	public void setTimeWarp(boolean timeWarp) {
+		this.timeWarp = timeWarp;
 	}
 
 	public Statistics run(float start_time, float end_time) {
 		/* Other Default settings of the Simulator */
 		initialize();
+		long endTime = Mathematics.microToPico(end_time);
+		if (numberOfPartitions > 1) {
+			HashMap<Integer, Integer> partitionOfNodeID = assignPartitions();
+			long lookahead = getLookahead(partitionOfNodeID);
+			// A link without delay between two partitions leaves no room for parallelism
+			if (lookahead > 0) {
+				if (timeWarp) {
+					runTimeWarp(partitionOfNodeID, lookahead, endTime);
+				} else {
+					runPartitions(partitionOfNodeID, lookahead, endTime);
+				}
+				return new Statistics(net, btllinkID);
+			}
+		}
 		/* Reading the first Event from Network Event List */
 		/* Main Loop */
-		double timeCheck = 0;
-		while (net.getCurrentTime() <= end_time && net.getEventList().size() > 0) {
+		while (net.getCurrentTimePs() <= endTime && net.getEventList().size() > 0) {
 			/* Running the Current Event and Updating the net */
-			net.getEventList().getEvent().execute(net);
-			net.getEventList().removeEvent();
-			timeCheck = net.getCurrentTime();
+			Event event = net.getEventList().removeEvent();
+			event.execute(net);
+			net.getEventPool().release(event);
 		}
 
 		return new Statistics(net, btllinkID);
 	}
 
+	/********** Partitioned Run **********/
+	/*
+	 * Cuts the topology between switches only: every host stays with the switch
+	 * it is attached to, so the events a host exchanges with its access switch
+	 * never cross partitions and the lookahead is that of the network and
+	 * control links. The groups of a switch and its hosts go, the largest first,
+	 * to the partition with the fewest nodes so far.
+	 */
+	private HashMap<Integer, Integer> assignPartitions() {
+		// Group of a node: its access switch for a host, itself otherwise
+		TreeMap<Integer, Integer> groupOfNodeID = new TreeMap<Integer, Integer>();
+		for (int nodeID : net.getControllers().keySet()) {
+			groupOfNodeID.put(nodeID, nodeID);
+		}
+		for (int nodeID : net.getSwitches().keySet()) {
+			groupOfNodeID.put(nodeID, nodeID);
+		}
+		for (Link link : net.getLinks().values()) {
+			int srcNodeID = link.getSrcNodeID();
+			int dstNodeID = link.getDstNodeID();
+			if (getNodeType(srcNodeID) == Keywords.Entities.Nodes.Types.Host
+					&& getNodeType(dstNodeID) == Keywords.Entities.Nodes.Types.SDNSwitch) {
+				groupOfNodeID.merge(srcNodeID, dstNodeID, Math::min);
+			} else if (getNodeType(dstNodeID) == Keywords.Entities.Nodes.Types.Host
+					&& getNodeType(srcNodeID) == Keywords.Entities.Nodes.Types.SDNSwitch) {
+				groupOfNodeID.merge(dstNodeID, srcNodeID, Math::min);
+			}
+		}
+		for (int nodeID : net.getHosts().keySet()) {
+			groupOfNodeID.putIfAbsent(nodeID, nodeID);
+		}
+		TreeMap<Integer, ArrayList<Integer>> nodeIDsOfGroup = new TreeMap<Integer, ArrayList<Integer>>();
+		for (Map.Entry<Integer, Integer> entry : groupOfNodeID.entrySet()) {
+			nodeIDsOfGroup.computeIfAbsent(entry.getValue(), group -> new ArrayList<Integer>()).add(entry.getKey());
+		}
+		ArrayList<ArrayList<Integer>> groups = new ArrayList<ArrayList<Integer>>(nodeIDsOfGroup.values());
+		// Stable, the groups of a size stay in the order of their IDs
+		groups.sort((first, second) -> Integer.compare(second.size(), first.size()));
+
+		HashMap<Integer, Integer> partitionOfNodeID = new HashMap<Integer, Integer>();
+		int[] nodesOfPartition = new int[numberOfPartitions];
+		for (ArrayList<Integer> group : groups) {
+			int partition = 0;
+			for (int candidate = 1; candidate < numberOfPartitions; candidate++) {
+				if (nodesOfPartition[candidate] < nodesOfPartition[partition]) {
+					partition = candidate;
+				}
+			}
+			for (int nodeID : group) {
+				partitionOfNodeID.put(nodeID, partition);
+			}
+			nodesOfPartition[partition] += group.size();
+		}
+		return partitionOfNodeID;
+	}
+
+	/* Smallest propagation delay among the links between two partitions */
+	private long getLookahead(HashMap<Integer, Integer> partitionOfNodeID) {
+		long lookahead = Long.MAX_VALUE;
+		for (Link link : net.getLinks().values()) {
+			if (!partitionOfNodeID.get(link.getSrcNodeID()).equals(partitionOfNodeID.get(link.getDstNodeID()))) {
+				lookahead = Math.min(lookahead, link.getPropagationDelayPs());
+			}
+		}
+		return lookahead;
+	}
+
+	private Network[] createPartitions(HashMap<Integer, Integer> partitionOfNodeID) {
+		Network[] partitions = new Network[numberOfPartitions];
+		for (int partition = 0; partition < numberOfPartitions; partition++) {
+			partitions[partition] = new Network(net, eventListType, partition);
+		}
+		for (Network partition : partitions) {
+			partition.setPartitions(partitions, partitionOfNodeID);
+		}
+		// Hand the events scheduled while building the scenario to their partitions
+		while (net.getEventList().size() > 0) {
+			Event event = net.getEventList().removeEvent();
+			Integer partition = partitionOfNodeID.get(net.getExecutingNodeID(event));
+			partitions[partition == null ? 0 : partition].getEventList().insertStamped(event);
+		}
+		return partitions;
+	}
+
+	/* Runs one thread per partition and rethrows the first failure */
+	private void runWorkers(Phaser phaser, AtomicReference<Throwable> failure, IntConsumer body) {
+		Thread[] workers = new Thread[numberOfPartitions];
+		for (int partition = 0; partition < numberOfPartitions; partition++) {
+			int partitionID = partition;
+			workers[partition] = new Thread(() -> {
+				try {
+					body.accept(partitionID);
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				} finally {
+					phaser.arriveAndDeregister();
+				}
+			}, "Partition-" + partition);
+			workers[partition].start();
+		}
+		for (Thread worker : workers) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure.compareAndSet(null, e);
+			}
+		}
+		if (failure.get() instanceof RuntimeException) {
+			throw (RuntimeException) failure.get();
+		} else if (failure.get() instanceof Error) {
+			throw (Error) failure.get();
+		} else if (failure.get() != null) {
+			throw new IllegalStateException(failure.get());
+		}
+	}
+
+	/* Like the sequential loop, the first event past the end time still runs */
+	private void finishPartitions(Network[] partitions) {
+		Network last = null;
+		for (Network partition : partitions) {
+			Event first = partition.getEventList().getEvent();
+			if (first != null && (last == null || first.isBefore(last.getEventList().getEvent()))) {
+				last = partition;
+			}
+		}
+		long currentTime = 0;
+		for (Network partition : partitions) {
+			currentTime = Math.max(currentTime, partition.getCurrentTimePs());
+		}
+		if (last != null) {
+			Event event = last.getEventList().removeEvent();
+			event.execute(last);
+			last.getEventPool().release(event);
+			currentTime = last.getCurrentTimePs();
+		}
+		net.updateTime(currentTime);
+		for (Network partition : partitions) {
+			net.getFlowCompletionTimes().merge(partition.getFlowCompletionTimes());
+		}
+	}
+
+	private void runPartitions(HashMap<Integer, Integer> partitionOfNodeID, long lookahead, long endTime) {
+		Network[] partitions = createPartitions(partitionOfNodeID);
+		Phaser phaser = new Phaser(numberOfPartitions);
+		long[] firstEventTimes = new long[numberOfPartitions];
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		runWorkers(phaser, failure, partition -> runPartition(partitions[partition], phaser, firstEventTimes,
+				failure, lookahead, endTime));
+		finishPartitions(partitions);
+	}
+
+	/*
+	 * Every window runs the events earlier than the first pending event of all
+	 * partitions plus the lookahead: nothing sent during the window can arrive
+	 * before its end. The mail is delivered between windows.
+	 */
+	private static void runPartition(Network net, Phaser phaser, long[] firstEventTimes,
+			AtomicReference<Throwable> failure, long lookahead, long endTime) {
+		int partitionID = net.getPartitionID();
+		while (true) {
+			net.deliverMail();
+			Event first = net.getEventList().getEvent();
+			firstEventTimes[partitionID] = first == null ? Long.MAX_VALUE : first.getEventTime();
+			phaser.arriveAndAwaitAdvance();
+			if (failure.get() != null) {
+				return;
+			}
+			long lowerBound = Long.MAX_VALUE;
+			for (long firstEventTime : firstEventTimes) {
+				lowerBound = Math.min(lowerBound, firstEventTime);
+			}
+			if (lowerBound == Long.MAX_VALUE || lowerBound > endTime) {
+				return;
+			}
+			long windowEnd = lookahead > endTime - lowerBound ? endTime : lowerBound + lookahead - 1;
+			while (net.getEventList().size() > 0 && net.getEventList().getEvent().getEventTime() <= windowEnd) {
+				Event event = net.getEventList().removeEvent();
+				event.execute(net);
+				net.getEventPool().release(event);
+			}
+			phaser.arriveAndAwaitAdvance();
+		}
+	}
+
+	/********** Optimistic Run **********/
+	private void runTimeWarp(HashMap<Integer, Integer> partitionOfNodeID, long lookahead, long endTime) {
+		Network[] partitions = createPartitions(partitionOfNodeID);
+		TimeWarpPartition[] timeWarps = new TimeWarpPartition[numberOfPartitions];
+		for (Network partition : partitions) {
+			// Rolled back events are queued again, they must not be recycled
+			partition.getEventPool().setEnabled(false);
+			partition.setTimerWheelEnabled(false);
+			timeWarps[partition.getPartitionID()] = new TimeWarpPartition(partition,
+					Keywords.TimeWarp.CheckpointInterval);
+			partition.setTimeWarp(timeWarps[partition.getPartitionID()]);
+		}
+		HashMap<Integer, ArrayList<Link>> outgoingLinksOfNodeID = new HashMap<Integer, ArrayList<Link>>();
+		for (Link link : net.getLinks().values()) {
+			outgoingLinksOfNodeID.computeIfAbsent(link.getSrcNodeID(), nodeID -> new ArrayList<Link>()).add(link);
+		}
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		nodes.addAll(net.getControllers().values());
+		nodes.addAll(net.getSwitches().values());
+		nodes.addAll(net.getHosts().values());
+		for (Node node : nodes) {
+			timeWarps[partitionOfNodeID.get(node.getID())].addNode(node,
+					outgoingLinksOfNodeID.getOrDefault(node.getID(), new ArrayList<Link>()));
+		}
+
+		long window = lookahead > Long.MAX_VALUE / Keywords.TimeWarp.WindowLookaheads ? Long.MAX_VALUE
+				: lookahead * Keywords.TimeWarp.WindowLookaheads;
+		Phaser phaser = new Phaser(numberOfPartitions);
+		long[] firstEventTimes = new long[numberOfPartitions];
+		long[] sentMessages = new long[numberOfPartitions];
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		runWorkers(phaser, failure, partition -> runTimeWarpPartition(timeWarps[partition], partitions[partition],
+				phaser, firstEventTimes, sentMessages, failure, window, endTime));
+
+		for (TimeWarpPartition partitionTimeWarp : timeWarps) {
+			partitionTimeWarp.commitAll();
+			partitionTimeWarp.applyStatistics();
+			net.addTimeWarpCounters(partitionTimeWarp);
+		}
+		for (Network partition : partitions) {
+			partition.setTimeWarp(null);
+		}
+		finishPartitions(partitions);
+	}
+
+	/*
+	 * Every round runs a batch of events up to the GVT plus the window, then
+	 * exchanges messages until none is in transit and takes the GVT as the
+	 * first pending event of all partitions.
+	 */
+	private static void runTimeWarpPartition(TimeWarpPartition timeWarp, Network net, Phaser phaser,
+			long[] firstEventTimes, long[] sentMessages, AtomicReference<Throwable> failure, long window,
+			long endTime) {
+		int partitionID = net.getPartitionID();
+		long gvt = 0;
+		while (true) {
+			long limit = window > endTime - gvt ? endTime : gvt + window;
+			for (int i = 0; i < Keywords.TimeWarp.EventsPerRound; i++) {
+				timeWarp.receiveMail();
+				Event first = net.getEventList().getEvent();
+				if (first == null || first.getEventTime() > limit) {
+					break;
+				}
+				timeWarp.executeNext();
+			}
+			long totalSentMessages;
+			do {
+				phaser.arriveAndAwaitAdvance();
+				if (failure.get() != null) {
+					return;
+				}
+				long sentBefore = timeWarp.getSentMessages();
+				timeWarp.receiveMail();
+				sentMessages[partitionID] = timeWarp.getSentMessages() - sentBefore;
+				phaser.arriveAndAwaitAdvance();
+				totalSentMessages = 0;
+				for (long sent : sentMessages) {
+					totalSentMessages += sent;
+				}
+			} while (totalSentMessages > 0);
+			Event first = net.getEventList().getEvent();
+			firstEventTimes[partitionID] = first == null ? Long.MAX_VALUE : first.getEventTime();
+			phaser.arriveAndAwaitAdvance();
+			if (failure.get() != null) {
+				return;
+			}
+			gvt = Long.MAX_VALUE;
+			for (long firstEventTime : firstEventTimes) {
+				gvt = Math.min(gvt, firstEventTime);
+			}
+			if (gvt == Long.MAX_VALUE || gvt > endTime) {
+				return;
+			}
+			timeWarp.collectFossils(gvt);
+		}
+	}
+
 	/********* Static Programming Methods ***********/
 	public static int reverseFlowStreamID(int streamID) {
 		int offset = Keywords.ACKStreamIDOffSet;
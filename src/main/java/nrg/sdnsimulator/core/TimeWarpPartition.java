@@ -0,0 +1,367 @@
+package nrg.sdnsimulator.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.entity.EntityState;
+import nrg.sdnsimulator.core.entity.network.Link;
+import nrg.sdnsimulator.core.entity.network.Node;
+import nrg.sdnsimulator.core.entity.traffic.Packet;
+import nrg.sdnsimulator.core.event.PacketEvent;
+
+/*
+ * Optimistic executive of one partition (Time Warp, Jefferson 1985). Events run
+ * as soon as they are the first of the partition. An event received from
+ * another partition that should have run earlier (a straggler) rolls the
+ * partition back, and anti-messages cancel what the undone events had sent.
+ * The state of a node and its outgoing links is saved the first time the node
+ * runs in each checkpoint interval, so idle nodes cost nothing: a rollback
+ * restores the interval and coasts forward to the straggler. Executed events
+ * are committed, and their statistics applied, once they are earlier than the
+ * global virtual time (GVT).
+ */
+class TimeWarpPartition {
+
+	private final Network net;
+	private final int checkpointInterval;
+	// The node and its outgoing links, saved and restored together
+	private final HashMap<Integer, Entity[]> entitiesOfNodeID;
+	private final HashMap<Integer, ArrayList<SavedState>> savedStatesOfNodeID;
+	private final ArrayList<ExecutedEvent> executedEvents;
+	// Number of executed events before executedEvents.get(0)
+	private long committedEvents;
+	private long lastCommittedTime;
+	private final ArrayList<Runnable> committedStatistics;
+	private ExecutedEvent currentEvent;
+	// Coasting forward re-executes events whose messages were already sent
+	private boolean isCoasting;
+
+	/** ========== Statistical Counters ========== **/
+	private long sentMessages;
+	private long rollbacks;
+	private long rolledBackEvents;
+
+	/** ========================================== **/
+
+	private static class ExecutedEvent {
+
+		private final Event event;
+		// The packet as received, events may change it while they run
+		private final Packet packet;
+		private final ArrayList<Event> scheduledEvents;
+		private final ArrayList<Event> cancelledEvents;
+		private ArrayList<Event> sentEvents;
+		private ArrayList<Network> sentTo;
+		private final ArrayList<Runnable> statisticsUpdates;
+
+		private ExecutedEvent(Event event, Packet packet) {
+			this.event = event;
+			this.packet = packet;
+			scheduledEvents = new ArrayList<Event>(2);
+			cancelledEvents = new ArrayList<Event>(0);
+			sentEvents = new ArrayList<Event>(0);
+			sentTo = new ArrayList<Network>(0);
+			statisticsUpdates = new ArrayList<Runnable>(0);
+		}
+
+	}
+
+	private static class SavedState {
+
+		private final long checkpoint;
+		private final EntityState[] states;
+
+		private SavedState(long checkpoint, EntityState[] states) {
+			this.checkpoint = checkpoint;
+			this.states = states;
+		}
+
+	}
+
+	/* Cancels an event sent to another partition, it never runs */
+	private static class AntiMessage extends Event {
+
+		private final Event target;
+
+		private AntiMessage(Event target) {
+			super(target.getEventTime());
+			this.target = target;
+		}
+
+		@Override
+		public void execute(Network net) {
+			throw new IllegalStateException("Anti-messages are not executed");
+		}
+
+	}
+
+	public TimeWarpPartition(Network net, int checkpointInterval) {
+		this.net = net;
+		this.checkpointInterval = checkpointInterval;
+		entitiesOfNodeID = new HashMap<Integer, Entity[]>();
+		savedStatesOfNodeID = new HashMap<Integer, ArrayList<SavedState>>();
+		executedEvents = new ArrayList<ExecutedEvent>();
+		committedEvents = 0;
+		lastCommittedTime = net.getCurrentTimePs();
+		committedStatistics = new ArrayList<Runnable>();
+		currentEvent = null;
+		isCoasting = false;
+		sentMessages = 0;
+		rollbacks = 0;
+		rolledBackEvents = 0;
+	}
+
+	public void addNode(Node node, ArrayList<Link> outgoingLinks) {
+		Entity[] entities = new Entity[outgoingLinks.size() + 1];
+		entities[0] = node;
+		for (int i = 0; i < outgoingLinks.size(); i++) {
+			entities[i + 1] = outgoingLinks.get(i);
+		}
+		entitiesOfNodeID.put(node.getID(), entities);
+		savedStatesOfNodeID.put(node.getID(), new ArrayList<SavedState>());
+	}
+
+	/* ========== Execution ========== */
+	public void executeNext() {
+		Event event = net.getEventList().removeEvent();
+		saveState(net.getExecutingNodeID(event), (committedEvents + executedEvents.size()) / checkpointInterval);
+		Packet packet = null;
+		if (event instanceof PacketEvent && ((PacketEvent) event).getPacket() != null) {
+			packet = new Packet(((PacketEvent) event).getPacket());
+		}
+		currentEvent = new ExecutedEvent(event, packet);
+		executedEvents.add(currentEvent);
+		event.execute(net);
+		currentEvent = null;
+	}
+
+	void scheduled(Event event) {
+		if (currentEvent != null) {
+			currentEvent.scheduledEvents.add(event);
+		}
+	}
+
+	void cancelled(Event event) {
+		if (currentEvent != null) {
+			currentEvent.cancelledEvents.add(event);
+		}
+	}
+
+	void send(Event event, Network partition) {
+		if (isCoasting) {
+			return;
+		}
+		currentEvent.sentEvents.add(event);
+		currentEvent.sentTo.add(partition);
+		partition.post(event);
+		sentMessages++;
+	}
+
+	void deferStatistics(Runnable update) {
+		if (currentEvent != null) {
+			currentEvent.statisticsUpdates.add(update);
+		} else {
+			committedStatistics.add(update);
+		}
+	}
+
+	/* Copies the node the first time it runs in the checkpoint interval */
+	private void saveState(int nodeID, long checkpoint) {
+		ArrayList<SavedState> savedStates = savedStatesOfNodeID.get(nodeID);
+		if (savedStates == null) {
+			return;
+		}
+		if (!savedStates.isEmpty() && savedStates.get(savedStates.size() - 1).checkpoint == checkpoint) {
+			return;
+		}
+		Entity[] entities = entitiesOfNodeID.get(nodeID);
+		EntityState[] states = new EntityState[entities.length];
+		for (int i = 0; i < entities.length; i++) {
+			states[i] = new EntityState();
+			entities[i].saveState(states[i]);
+		}
+		savedStates.add(new SavedState(checkpoint, states));
+	}
+
+	/* ========== Messages of the other partitions ========== */
+	public void receiveMail() {
+		Event message;
+		while ((message = net.pollMail()) != null) {
+			if (message instanceof AntiMessage) {
+				annihilate(((AntiMessage) message).target);
+			} else {
+				receive(message);
+			}
+		}
+	}
+
+	private void receive(Event message) {
+		// Executed events are in time order, only the ones at or after the message can follow it
+		int straggledIndex = -1;
+		for (int i = executedEvents.size() - 1; i >= 0
+				&& executedEvents.get(i).event.getEventTime() >= message.getEventTime(); i--) {
+			if (message.isBefore(executedEvents.get(i).event)) {
+				straggledIndex = i;
+			}
+		}
+		if (straggledIndex < 0) {
+			net.getEventList().insertStamped(message);
+		} else {
+			rollback(straggledIndex, message, null);
+		}
+	}
+
+	private void annihilate(Event target) {
+		if (net.getEventList().cancelEvent(target)) {
+			return;
+		}
+		for (int i = executedEvents.size() - 1; i >= 0; i--) {
+			if (executedEvents.get(i).event == target) {
+				rollback(i, null, target);
+				return;
+			}
+		}
+		throw new IllegalStateException("Anti-message for an event that was never received");
+	}
+
+	/* ========== Rollback ========== */
+	/*
+	 * Undoes the executed events from the start of the checkpoint interval of
+	 * index, restores the nodes to that point and runs the events before index
+	 * again without sending their messages a second time.
+	 */
+	private void rollback(int index, Event straggler, Event annihilated) {
+		long checkpoint = (committedEvents + index) / checkpointInterval;
+		int start = (int) (checkpoint * checkpointInterval - committedEvents);
+		rollbacks++;
+		for (int i = executedEvents.size() - 1; i >= start; i--) {
+			ExecutedEvent executed = executedEvents.get(i);
+			for (Event scheduled : executed.scheduledEvents) {
+				net.getEventList().cancelEvent(scheduled);
+			}
+			for (Event cancelled : executed.cancelledEvents) {
+				net.getEventList().insertStamped(cancelled);
+			}
+			if (executed.packet != null) {
+				((PacketEvent) executed.event).setPacket(executed.packet);
+			}
+			net.getEventList().insertStamped(executed.event);
+			if (i >= index) {
+				for (int j = 0; j < executed.sentEvents.size(); j++) {
+					executed.sentTo.get(j).post(new AntiMessage(executed.sentEvents.get(j)));
+					sentMessages++;
+				}
+				rolledBackEvents++;
+			}
+		}
+		ArrayList<ExecutedEvent> coasted = new ArrayList<ExecutedEvent>(executedEvents.subList(start, index));
+		executedEvents.subList(start, executedEvents.size()).clear();
+		restoreStates(checkpoint);
+		net.updateTime(start > 0 ? executedEvents.get(start - 1).event.getEventTime() : lastCommittedTime);
+		if (straggler != null) {
+			net.getEventList().insertStamped(straggler);
+		}
+		if (annihilated != null) {
+			net.getEventList().cancelEvent(annihilated);
+		}
+		isCoasting = true;
+		for (ExecutedEvent executed : coasted) {
+			// The events scheduled by coasted events are new ones with the same tie-breakers
+			Event next = net.getEventList().getEvent();
+			if (next.isBefore(executed.event) || executed.event.isBefore(next)) {
+				throw new IllegalStateException("Coasting forward diverged from the rolled back events");
+			}
+			executeNext();
+			ExecutedEvent reexecuted = executedEvents.get(executedEvents.size() - 1);
+			reexecuted.sentEvents = executed.sentEvents;
+			reexecuted.sentTo = executed.sentTo;
+		}
+		isCoasting = false;
+	}
+
+	/* Restores each node to its first state saved at or after the checkpoint */
+	private void restoreStates(long checkpoint) {
+		for (Map.Entry<Integer, ArrayList<SavedState>> entry : savedStatesOfNodeID.entrySet()) {
+			ArrayList<SavedState> savedStates = entry.getValue();
+			int first = savedStates.size();
+			while (first > 0 && savedStates.get(first - 1).checkpoint >= checkpoint) {
+				first--;
+			}
+			if (first < savedStates.size()) {
+				Entity[] entities = entitiesOfNodeID.get(entry.getKey());
+				for (int i = 0; i < entities.length; i++) {
+					entities[i].restoreState(savedStates.get(first).states[i]);
+				}
+				savedStates.subList(first, savedStates.size()).clear();
+			}
+		}
+	}
+
+	/* ========== Fossil collection ========== */
+	/*
+	 * No message earlier than the GVT can arrive any more, so the checkpoint
+	 * intervals that end before it are committed and their states dropped.
+	 */
+	public void collectFossils(long gvt) {
+		int first = 0;
+		while (first < executedEvents.size() && executedEvents.get(first).event.getEventTime() < gvt) {
+			first++;
+		}
+		long checkpoint = (committedEvents + first) / checkpointInterval;
+		commit((int) (checkpoint * checkpointInterval - committedEvents));
+		for (ArrayList<SavedState> savedStates : savedStatesOfNodeID.values()) {
+			int obsolete = 0;
+			while (obsolete < savedStates.size() && savedStates.get(obsolete).checkpoint < checkpoint) {
+				obsolete++;
+			}
+			savedStates.subList(0, obsolete).clear();
+		}
+	}
+
+	/* Commits every executed event, once the run is over */
+	public void commitAll() {
+		commit(executedEvents.size());
+		for (ArrayList<SavedState> savedStates : savedStatesOfNodeID.values()) {
+			savedStates.clear();
+		}
+	}
+
+	private void commit(int count) {
+		if (count <= 0) {
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			committedStatistics.addAll(executedEvents.get(i).statisticsUpdates);
+		}
+		lastCommittedTime = executedEvents.get(count - 1).event.getEventTime();
+		executedEvents.subList(0, count).clear();
+		committedEvents += count;
+	}
+
+	/* Applies the statistics of the committed events in the order they ran */
+	public void applyStatistics() {
+		for (Runnable update : committedStatistics) {
+			update.run();
+		}
+		committedStatistics.clear();
+	}
+
+	public long getSentMessages() {
+		return sentMessages;
+	}
+
+	public long getCommittedEvents() {
+		return committedEvents;
+	}
+
+	public long getRollbacks() {
+		return rollbacks;
+	}
+
+	public long getRolledBackEvents() {
+		return rolledBackEvents;
+	}
+
+}
@@ -0,0 +1,229 @@
+package nrg.sdnsimulator.core;
+
+import java.util.Arrays;
+
+import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.futureeventset.BinaryHeap;
+
+/*
+ * Hierarchical timing wheel (Varghese and Lauck, 1987) for agent timers. A
+ * timer is filed under the highest base-64 digit in which its expiry tick
+ * differs from the current tick, so arming and cancelling are O(1) and each
+ * timer moves down at most once per level. Timers of the current tick wait in
+ * a small heap. The wheel keeps a single proxy event in the EventList that
+ * carries the time, priority and sequence number of the earliest timer, so
+ * timers run exactly where they would have run from the EventList.
+ */
+public class TimerWheel {
+
+	private static final int SlotBits = 6;
+	private static final int SlotsPerLevel = 1 << SlotBits;
+	private static final int Levels = 5;
+	private static final int InitialSlotCapacity = 4;
+	// Timers beyond the range of the top level
+	private static final int OverflowBucket = Levels * SlotsPerLevel;
+	private static final int DueBucket = -1;
+	// One tick is 2^16 ps (~65 ns), the five levels span ~70 seconds
+	public static final int DefaultTickBits = 16;
+
+	private final EventList eventList;
+	private final int tickBits;
+	private long currentTick;
+	private Event[][] buckets;
+	private int[] bucketSizes;
+	private FutureEventSet dueTimers;
+	private int size;
+
+	/* ========== Proxy event in the EventList ========== */
+	private final WheelEvent wheelEvent;
+	private boolean isWheelEventQueued;
+	private boolean isExecuting;
+
+	private class WheelEvent extends Event {
+
+		private boolean isAdvance;
+
+		public WheelEvent() {
+			super(0);
+		}
+
+		@Override
+		public void execute(Network net) {
+			net.updateTime(eventTime);
+			isWheelEventQueued = false;
+			isExecuting = true;
+			if (isAdvance) {
+				advance(eventTime >> tickBits);
+			} else {
+				Event timer = dueTimers.poll();
+				timer.setBucket(DueBucket);
+				size--;
+				timer.execute(net);
+				net.getEventPool().release(timer);
+			}
+			isExecuting = false;
+			scheduleWheelEvent();
+		}
+
+	}
+
+	public TimerWheel(EventList eventList) {
+		this(eventList, DefaultTickBits);
+	}
+
+	public TimerWheel(EventList eventList, int tickBits) {
+		this.eventList = eventList;
+		this.tickBits = tickBits;
+		currentTick = 0;
+		buckets = new Event[OverflowBucket + 1][InitialSlotCapacity];
+		bucketSizes = new int[OverflowBucket + 1];
+		dueTimers = new BinaryHeap();
+		size = 0;
+		wheelEvent = new WheelEvent();
+		isWheelEventQueued = false;
+		isExecuting = false;
+	}
+
+	public void arm(Event timer) {
+		arm(timer, null);
+	}
+
+	public void arm(Event timer, Entity scheduler) {
+		eventList.stamp(timer, scheduler);
+		file(timer);
+		size++;
+		if (isExecuting) {
+			return;
+		}
+		if (!isWheelEventQueued || timer.getEventTime() <= wheelEvent.getEventTime()) {
+			scheduleWheelEvent();
+		}
+	}
+
+	/* Returns false if the timer has already fired or was never armed */
+	public boolean cancel(Event timer) {
+		int bucket = timer.getBucket();
+		if (bucket == DueBucket) {
+			boolean wasFirst = dueTimers.peek() == timer;
+			if (!dueTimers.remove(timer)) {
+				return false;
+			}
+			size--;
+			if (wasFirst && !isExecuting) {
+				scheduleWheelEvent();
+			}
+			return true;
+		}
+		if (bucket < 0) {
+			return false;
+		}
+		removeFromBucket(bucket, timer.getPosition());
+		timer.setBucket(DueBucket);
+		timer.setPosition(-1);
+		size--;
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private void file(Event timer) {
+		long tick = timer.getEventTime() >> tickBits;
+		if (tick <= currentTick) {
+			timer.setBucket(DueBucket);
+			dueTimers.insert(timer);
+			return;
+		}
+		int level = (63 - Long.numberOfLeadingZeros(tick ^ currentTick)) / SlotBits;
+		int bucket = OverflowBucket;
+		if (level < Levels) {
+			bucket = level * SlotsPerLevel + (int) ((tick >> (level * SlotBits)) & (SlotsPerLevel - 1));
+		}
+		if (bucketSizes[bucket] == buckets[bucket].length) {
+			buckets[bucket] = Arrays.copyOf(buckets[bucket], bucketSizes[bucket] * 2);
+		}
+		timer.setBucket(bucket);
+		timer.setPosition(bucketSizes[bucket]);
+		buckets[bucket][bucketSizes[bucket]++] = timer;
+	}
+
+	private void removeFromBucket(int bucket, int position) {
+		int last = --bucketSizes[bucket];
+		buckets[bucket][position] = buckets[bucket][last];
+		buckets[bucket][position].setPosition(position);
+		buckets[bucket][last] = null;
+	}
+
+	/* Moves the wheel to newTick and files the timers of its slots again */
+	private void advance(long newTick) {
+		long oldTick = currentTick;
+		currentTick = newTick;
+		if ((oldTick >> (Levels * SlotBits)) != (newTick >> (Levels * SlotBits))) {
+			refile(OverflowBucket);
+		}
+		for (int level = Levels - 1; level >= 0; level--) {
+			refile(level * SlotsPerLevel + (int) ((newTick >> (level * SlotBits)) & (SlotsPerLevel - 1)));
+		}
+	}
+
+	private void refile(int bucket) {
+		int count = bucketSizes[bucket];
+		if (count == 0) {
+			return;
+		}
+		Event[] timers = Arrays.copyOf(buckets[bucket], count);
+		Arrays.fill(buckets[bucket], 0, count, null);
+		bucketSizes[bucket] = 0;
+		for (Event timer : timers) {
+			file(timer);
+		}
+	}
+
+	/*
+	 * Queues the proxy at the earliest due timer, or at the start of the first
+	 * non-empty slot. Advancing has no effect on the model, so it runs before
+	 * every other event of its instant.
+	 */
+	private void scheduleWheelEvent() {
+		if (isWheelEventQueued) {
+			eventList.cancelEvent(wheelEvent);
+			isWheelEventQueued = false;
+		}
+		if (size == 0) {
+			return;
+		}
+		Event first = dueTimers.peek();
+		if (first != null) {
+			wheelEvent.isAdvance = false;
+			wheelEvent.eventTime = first.getEventTime();
+			wheelEvent.schedule(first.getPriority(), first.getSequenceNumber());
+		} else {
+			wheelEvent.isAdvance = true;
+			wheelEvent.eventTime = nextSlotTick() << tickBits;
+			wheelEvent.schedule(Short.MIN_VALUE, Long.MIN_VALUE);
+		}
+		eventList.insertStamped(wheelEvent);
+		isWheelEventQueued = true;
+	}
+
+	private long nextSlotTick() {
+		for (int level = 0; level < Levels; level++) {
+			int shift = level * SlotBits;
+			int currentSlot = (int) ((currentTick >> shift) & (SlotsPerLevel - 1));
+			for (int slot = currentSlot + 1; slot < SlotsPerLevel; slot++) {
+				if (bucketSizes[level * SlotsPerLevel + slot] > 0) {
+					long block = (currentTick >> (shift + SlotBits)) << (shift + SlotBits);
+					return block | ((long) slot << shift);
+				}
+			}
+		}
+		// Only far timers are left: jump to the top level block of the earliest one
+		long firstTick = Long.MAX_VALUE;
+		for (int i = 0; i < bucketSizes[OverflowBucket]; i++) {
+			firstTick = Math.min(firstTick, buckets[OverflowBucket][i].getEventTime() >> tickBits);
+		}
+		return (firstTick >> (Levels * SlotBits)) << (Levels * SlotBits);
+	}
+
+}
@@ -4,17 +4,49 @@ public abstract class Entity {
 	protected boolean validation;
 	protected boolean verification;
 	protected final int ID;
+	// Number of events this entity has scheduled
+	private long scheduledEvents;
 
 	public Entity(int id) {
 		this.ID = id;
 		validation = false;
 		verification = false;
+		scheduledEvents = 0;
 	}
 
 	public int getID() {
 		return this.ID;
 	}
 
+	/*
+	 * Tie-breaker of the next event scheduled by this entity: its scheduling key
+	 * in the high bits and its own event count below, so simultaneous events are
+	 * ordered alike whichever EventList or partition holds them.
+	 */
+	public long nextEventOrder() {
+		return ((long) getSchedulingKey() << 40) | scheduledEvents++;
+	}
+
+	/* Unique among the entities that schedule events and below 2^23 */
+	protected int getSchedulingKey() {
+		return ID;
+	}
+
+	/* ========== State saving of an optimistic run, see TimeWarpPartition ========== */
+	/*
+	 * Adds what the entity changes while it runs to the state, mutable values as
+	 * copies. Subclasses add their fields after those of their superclass and take
+	 * them back in the same order in restoreState. The topology and the @NotSaved
+	 * counters are left out.
+	 */
+	public void saveState(EntityState state) {
+		state.add(scheduledEvents);
+	}
+
+	public void restoreState(EntityState state) {
+		scheduledEvents = state.next();
+	}
+
 	public boolean isValidation() {
 		return validation;
 	}
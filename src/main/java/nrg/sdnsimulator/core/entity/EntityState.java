@@ -0,0 +1,29 @@
+package nrg.sdnsimulator.core.entity;
+
+import java.util.ArrayList;
+
+/*
+ * State of an entity saved by an optimistic run, see Entity.saveState. The
+ * values are taken back in the order they were added, and a state is restored
+ * at most once, so the entity can keep the copies it gets back.
+ */
+public class EntityState {
+
+	private final ArrayList<Object> values;
+	private int next;
+
+	public EntityState() {
+		values = new ArrayList<Object>();
+		next = 0;
+	}
+
+	public void add(Object value) {
+		values.add(value);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T next() {
+		return (T) values.get(next++);
+	}
+
+}
@@ -0,0 +1,19 @@
+package nrg.sdnsimulator.core.entity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * A statistical counter written only through Network.updateStatistics. The
+ * saved states of an optimistic run leave it out (see Entity.saveState): the
+ * updates are applied once their events are committed, so the live counter is
+ * never rolled back.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface NotSaved {
+}
@@ -6,8 +6,10 @@ import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
 import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
+import nrg.sdnsimulator.core.utility.metric.LogHistogram;
 
 @Getter
 @Setter
@@ -34,4 +36,60 @@ public abstract class Agent extends Entity {
 
 	public abstract void timeout(Network net, int timerID);
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(interSegmentDelay_);
+		state.add(mostRecentSegmentDepartureTime);
+		state.add(copySegments(segmentsToSend));
+		flow.saveState(state);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		interSegmentDelay_ = state.next();
+		mostRecentSegmentDepartureTime = state.next();
+		segmentsToSend = state.next();
+		flow.restoreState(state);
+	}
+
+	protected static ArrayList<Segment> copySegments(ArrayList<Segment> segments) {
+		ArrayList<Segment> copies = new ArrayList<Segment>(segments.size());
+		for (Segment segment : segments) {
+			copies.add(new Segment(segment));
+		}
+		return copies;
+	}
+
+	/* Last segment the flow delivers, the hosts of the flow can be retired once it has arrived */
+	public boolean isLastSegment(Segment segment) {
+		return false;
+	}
+
+	/** ===== Statistical Counters ===== **/
+	protected void updateAckArrivalTime(Network net, int seqNum) {
+		if (!flow.isSeqNumRecording()) {
+			return;
+		}
+		Flow ackFlow = flow;
+		float arrivalTime = net.getCurrentTime();
+		net.updateStatistics(() -> ackFlow.updateAckSeqNumArrivalTime(seqNum, arrivalTime));
+	}
+
+	/* From the arrival of the flow to the sending of its FIN, for the completion time percentiles */
+	protected void updateFlowCompletionTime(Network net) {
+		long completionTimePs = net.getCurrentTimePs() - flow.getArrivalTimePs();
+		LogHistogram flowCompletionTimes = net.getFlowCompletionTimes();
+		net.updateStatistics(() -> flowCompletionTimes.record(completionTimePs));
+	}
+
+	/* Completion time of the flow of the host at the other end */
+	protected void updatePeerCompletionTime(Network net) {
+		Host peer = net.getHost(dstHostID);
+		float completionTime = net.getCurrentTime();
+		net.updateStatistics(() -> peer.getTransportAgent().getFlow().setCompletionTime(completionTime));
+	}
+	/** ================================ **/
+
 }
@@ -3,6 +3,7 @@ package nrg.sdnsimulator.core.entity.network;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.network.buffer.BufferToken;
 
 @Getter
@@ -12,7 +13,7 @@ public abstract class Buffer extends Entity {
 	protected final int capacity;
 	protected BufferToken ccToken;
 	protected int maxOccupancy;
-	protected float mostRecentSegmentDepartureTime;
+	protected long mostRecentSegmentDepartureTime; // picoseconds
 	protected int occupancy;
 	protected int policy;
 
@@ -29,6 +30,24 @@ public abstract class Buffer extends Entity {
 		/** ========================================== **/
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(new BufferToken(ccToken));
+		state.add(maxOccupancy);
+		state.add(mostRecentSegmentDepartureTime);
+		state.add(occupancy);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		ccToken = state.next();
+		maxOccupancy = state.next();
+		mostRecentSegmentDepartureTime = state.next();
+		occupancy = state.next();
+	}
+
 	public void deQueue() {
 		if (occupancy > 0) {
 			occupancy--;
@@ -39,7 +58,8 @@ public abstract class Buffer extends Entity {
 		}
 	}
 
-	public abstract float enQueue(float currentTime, float packetTransmissionDelay);
+	/* Returns the wait time in picoseconds, or Long.MIN_VALUE if the packet is dropped */
+	public abstract long enQueue(long currentTime, long packetTransmissionDelay);
 
 	public boolean isFull() {
 		if (occupancy < capacity) {
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.Simulator;
 import nrg.sdnsimulator.core.entity.network.controller.ControlDatabase;
 import nrg.sdnsimulator.core.entity.network.controller.router.Dijkstra;
@@ -45,6 +46,25 @@ public abstract class Controller extends Node {
 
 	}
 
+	/* The segment being received and the router are set anew for each packet */
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(numberOfAdmittedFlows);
+		state.add(numberOfDistinctSYNs);
+		state.add(numberOfRejectedFlows);
+		state.add(database == null ? null : new ControlDatabase(database));
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		numberOfAdmittedFlows = state.next();
+		numberOfDistinctSYNs = state.next();
+		numberOfRejectedFlows = state.next();
+		database = state.next();
+	}
+
 	public void setNetwokInformation(Network net) {
 		database = new ControlDatabase(net);
 		router.setNodeInformation(net.getSwitches());
@@ -70,28 +90,28 @@ public abstract class Controller extends Node {
 				messagesToSwitchID.put(switchID, new CtrlMessage(Keywords.SDNMessages.Types.FlowSetUp));
 			}
 			messagesToSwitchID.get(switchID).addFlowSetUpEntry(recvdSegment.getFlowID(),
-					net.getSwitches().get(switchID).getNetworkLinksIDs().get(nextSwitchID));
+					net.getSwitch(switchID).getNetworkLinksIDs().get(nextSwitchID));
 			// ACK stream entry
 			if (!messagesToSwitchID.containsKey(nextSwitchID)) {
 				messagesToSwitchID.put(nextSwitchID, new CtrlMessage(Keywords.SDNMessages.Types.FlowSetUp));
 			}
 			messagesToSwitchID.get(nextSwitchID).addFlowSetUpEntry(
 					Simulator.reverseFlowStreamID(recvdSegment.getFlowID()),
-					net.getSwitches().get(nextSwitchID).getNetworkLinksIDs().get(switchID));
+					net.getSwitch(nextSwitchID).getNetworkLinksIDs().get(switchID));
 		}
 
 		// Sending flow setup messages to the switches
 		for (int switchID : messagesToSwitchID.keySet()) {
 			// Debugger.debugToConsole("Sending flow setup message to switch: " + switchID);
-			sendPacketToSwitch(net, switchID, new Packet(null, messagesToSwitchID.get(switchID)));
+			sendPacketToSwitch(net, switchID, net.getEventPool().acquirePacket(null, messagesToSwitchID.get(switchID)));
 		}
 
 		// Update the database pathOfFlowID
 		database.getPathOfFlowID().put(recvdSegment.getFlowID(), dataStreamPath);
 
 		// FIXME Update sharedEgressLink for the single access switch
-		database.setSharedEgressLinkBw(net.getLinks().get(
-				net.getSwitches().get(srcAccessSwitchID).networkLinksIDs.get(dataStreamPath.get(srcAccessSwitchID)))
+		database.setSharedEgressLinkBw(net.getLink(
+				net.getSwitch(srcAccessSwitchID).networkLinksIDs.get(dataStreamPath.get(srcAccessSwitchID)))
 				.getBandwidth());
 		// Debugger.debugToConsole("=============================================================");
 	}
@@ -101,7 +121,7 @@ public abstract class Controller extends Node {
 	/* -------------------------------------------------------------------------- */
 	protected void sendControlMessageToAccessSwitches(Network net, HashMap<Integer, CtrlMessage> messages) {
 		for (int switchID : database.getAccessSwitchIDsSet()) {
-			sendPacketToSwitch(net, switchID, new Packet(null, messages.get(switchID)));
+			sendPacketToSwitch(net, switchID, net.getEventPool().acquirePacket(null, messages.get(switchID)));
 		}
 	}
 
@@ -109,14 +129,14 @@ public abstract class Controller extends Node {
 	/* ========== Switch Communication =========== */
 	/* =========================================== */
 	protected void sendPacketToSwitch(Network net, int switchID, Packet packet) {
-		net.getLinks().get((controlLinksIDs.get(switchID))).bufferPacket(net, packet);
+		net.getLink((controlLinksIDs.get(switchID))).bufferPacket(net, packet);
 	}
 
 	/* =========================================== */
 	/* ========== Utility ======================== */
 	/* =========================================== */
 	protected int getAccessSwitchID(Network net, int hostID) {
-		return net.getHosts().get(hostID).accessSwitchID;
+		return net.getHost(hostID).accessSwitchID;
 	}
 
 	public int getBottleneckLinkID() {
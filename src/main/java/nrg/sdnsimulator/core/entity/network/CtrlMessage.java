@@ -1,6 +1,7 @@
 package nrg.sdnsimulator.core.entity.network;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -23,6 +24,19 @@ public class CtrlMessage {
 		this.type = type;
 	}
 
+	/* The tokens are copied too, a buffer keeps and changes the one it gets */
+	public CtrlMessage(CtrlMessage message) {
+		if (message.ccTokenOfHostID != null) {
+			ccTokenOfHostID = new HashMap<Integer, BufferToken>();
+			for (Map.Entry<Integer, BufferToken> entry : message.ccTokenOfHostID.entrySet()) {
+				ccTokenOfHostID.put(entry.getKey(), new BufferToken(entry.getValue()));
+			}
+		}
+		flowTableEntries = new HashMap<Integer, Integer>(message.flowTableEntries);
+		size = message.size;
+		type = message.type;
+	}
+
 	public void addFlowSetUpEntry(int FlowID, int egressLinkID) {
 		flowTableEntries.put(FlowID, egressLinkID);
 	}
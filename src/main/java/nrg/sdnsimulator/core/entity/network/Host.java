@@ -5,9 +5,8 @@ import java.util.HashMap;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
-import nrg.sdnsimulator.core.entity.traffic.Packet;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
-import nrg.sdnsimulator.core.utility.Mathematics;
 
 @Getter
 @Setter
@@ -20,6 +19,8 @@ public abstract class Host extends Node {
 	protected Agent transportAgent;
 	// For future extension
 	protected HashMap<Integer, Agent> transportAgents;
+	// Its flow has finished in a lazy run, packets still on the way are dropped
+	protected boolean isRetired;
 
 	public Host(int ID) {
 		super(ID);
@@ -35,6 +36,24 @@ public abstract class Host extends Node {
 
 	public abstract void initialize(Network net);
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(mostRecentPacketDepartureTime);
+		if (transportAgent != null) {
+			transportAgent.saveState(state);
+		}
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		mostRecentPacketDepartureTime = state.next();
+		if (transportAgent != null) {
+			transportAgent.restoreState(state);
+		}
+	}
+
 	protected void sendSegments(Network net) {
 		for (Segment segment : transportAgent.segmentsToSend) {
 			sendSegment(net, segment);
@@ -46,19 +65,18 @@ public abstract class Host extends Node {
 
 	private void sendSegment(Network net, Segment segment) {
 		/** ===== Statistical Counters ===== **/
-		transportAgent.flow
-				.setTotalTransmissionTime(Mathematics.addFloat(transportAgent.flow.getTotalTransmissionTime(),
-						net.getLinks().get(accessLinkID).getTransmissionDelay(segment.getSize())));
+		transportAgent.flow.updateTotalTransmissionTime(
+				net.getLink(accessLinkID).getTransmissionDelayPs(segment.getSize()));
 		/** ================================ **/
-		net.getLinks().get(accessLinkID).bufferPacket(net, new Packet(segment, null));
+		net.getLink(accessLinkID).bufferPacket(net, net.getEventPool().acquirePacket(segment, null));
 	}
 
-	public void updateFlowTotalBufferTime(float bufferTime) {
-		Mathematics.addFloat(transportAgent.flow.getTotalBufferTime(), bufferTime);
+	public void updateFlowTotalBufferTime(long bufferTime) {
+		transportAgent.flow.updateTotalBufferTime(bufferTime);
 	}
 
 	public void updateDataSegmentsDepartures(int seqNum, float departureTime) {
-		transportAgent.flow.getDataSeqNumSendingTimes().put((float) seqNum, departureTime);
+		transportAgent.flow.updateDataSeqNumSendingTime(seqNum, departureTime);
 	}
 
 }
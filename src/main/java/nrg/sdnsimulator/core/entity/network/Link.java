@@ -2,7 +2,6 @@ package nrg.sdnsimulator.core.entity.network;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.TreeMap;
 
 import org.apache.commons.math3.util.Pair;
 
@@ -10,44 +9,75 @@ import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
 import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.entity.EntityState;
+import nrg.sdnsimulator.core.entity.NotSaved;
 import nrg.sdnsimulator.core.entity.network.buffer.Bufferv1;
 import nrg.sdnsimulator.core.entity.network.buffer.DefaultBuffer;
+import nrg.sdnsimulator.core.entity.traffic.Flow;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
 import nrg.sdnsimulator.core.utility.Keywords;
 import nrg.sdnsimulator.core.utility.Mathematics;
+import nrg.sdnsimulator.core.utility.datastructure.TimeWeightedStatistic;
+import nrg.sdnsimulator.core.utility.metric.LogHistogram;
+import nrg.sdnsimulator.core.utility.metric.RunningStatistic;
 
 @Getter
 @Setter
 public abstract class Link extends Entity {
 
+	/* Packet sizes whose transmission delays are cached, most frequent first */
+	private static final int[] SizeClasses = { Keywords.Segments.Sizes.DataSegSize,
+			Keywords.Segments.Sizes.ACKSegSize, Keywords.Segments.Sizes.CTRLSegSize,
+			Keywords.Segments.Sizes.CtrlMessageSize, Keywords.Segments.Sizes.SYNSegSize,
+			Keywords.Segments.Sizes.FINSegSize };
+
 	protected boolean isMonitored;
+	// The arrival of every segment at a monitored link is kept for the arrival plots
+	protected boolean segmentArrivalRecording;
 	protected boolean isNetworkBottleneck;
 	protected boolean isPathBottleneck;
 	protected Buffer buffer;
-	protected float bandwidth;
-	protected float propagationDelay;
+	protected float bandwidth; // bits/microsecond
+	// Transmission delay (ps) of each size class at the current bandwidth
+	private long[] transmissionDelayOfSizeClass;
+	protected long propagationDelayPs;
 	protected int srcNodeID;
 	protected int dstNodeID;
+	// Set when the topology is built, arrivals are dispatched to it directly
+	protected Node dstNode;
 
 	/** ========== Statistical Counters ========== **/
-	protected float totalTransmissionTime;
-	protected float firstSegmentArrivalTime;
-	protected float lastSegmentTransmittedTime;
+	@NotSaved
+	protected long totalTransmissionTimePs;
+	@NotSaved
+	protected long firstSegmentArrivalTimePs;
+	@NotSaved
+	protected long lastSegmentTransmittedTimePs;
+	@NotSaved
 	protected float maxQeueLength;
-	protected TreeMap<Float, Float> queueLength;
-	protected HashMap<Float, Float> utilizationTimePerFlowID; // <FlowID, utilizationzTime>
+	@NotSaved
+	protected TimeWeightedStatistic queueLength;
+	@NotSaved
+	protected HashMap<Integer, Long> utilizationTimePerFlowID; // <FlowID, utilizationTime(ps)>
+	// Utilization time (ps) over size of the flows retired by a lazy run, out of utilizationTimePerFlowID
+	@NotSaved
+	protected RunningStatistic retiredUtilizationTimeOverSize;
+	@NotSaved
+	protected LogHistogram queueingDelay; // ps, of every packet buffered by the link
+	@NotSaved
 	protected ArrayList<Pair<Float, Float>> segmentArrivalTimeOfFlowID; // Array<<FlowID,
 
 	/** ========================================== **/
 
-	public Link(int ID, int sourceID, int destinationID, float propagationDelay, float band, short bufferType,
+	public Link(int ID, int sourceID, int destinationID, long propagationDelay, float band, short bufferType,
 			int bufferSize, int bufferPolicy) {
 		super(ID);
 		isMonitored = false;
 		isNetworkBottleneck = false;
 		isPathBottleneck = false;
 		this.bandwidth = band;// bits/microsecond
-		this.propagationDelay = propagationDelay; // microsecond
+		updateTransmissionDelays();
+		this.propagationDelayPs = propagationDelay; // picosecond
 		this.srcNodeID = sourceID;
 		this.dstNodeID = destinationID;
 		switch (bufferType) {
@@ -59,14 +89,17 @@ public abstract class Link extends Entity {
 			break;
 		}
 		isMonitored = false;
+		segmentArrivalRecording = true;
 
 		/** ========== Statistical Counters Initialization ========== **/
-		totalTransmissionTime = 0;
-		firstSegmentArrivalTime = 0;
-		lastSegmentTransmittedTime = 0;
+		totalTransmissionTimePs = 0;
+		firstSegmentArrivalTimePs = 0;
+		lastSegmentTransmittedTimePs = 0;
 		maxQeueLength = 0;
-		queueLength = new TreeMap<Float, Float>();
-		utilizationTimePerFlowID = new HashMap<Float, Float>();
+		queueLength = new TimeWeightedStatistic();
+		utilizationTimePerFlowID = new HashMap<Integer, Long>();
+		retiredUtilizationTimeOverSize = new RunningStatistic();
+		queueingDelay = new LogHistogram();
 		segmentArrivalTimeOfFlowID = new ArrayList<Pair<Float, Float>>();
 		/** ==================================================== **/
 
@@ -76,43 +109,111 @@ public abstract class Link extends Entity {
 
 	public abstract void transmitPacket(Network net, Packet packet);
 
+	@Override
+	protected int getSchedulingKey() {
+		return Keywords.LinkSchedulingKeyOffset | ID;
+	}
+
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		buffer.saveState(state);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		buffer.restoreState(state);
+	}
+
+	public long getTotalDelayPs(int segmentSize) {
+		return getTransmissionDelayPs(segmentSize) + propagationDelayPs;
+	}
+
+	public long getTransmissionDelayPs(int segmentSize) {
+		for (int sizeClass = 0; sizeClass < SizeClasses.length; sizeClass++) {
+			if (SizeClasses[sizeClass] == segmentSize) {
+				return transmissionDelayOfSizeClass[sizeClass];
+			}
+		}
+		return computeTransmissionDelayPs(segmentSize);
+	}
+
+	private long computeTransmissionDelayPs(int segmentSize) {
+		return Math.round(segmentSize * 1000000.0 / bandwidth);
+	}
+
+	public void setBandwidth(float bandwidth) {
+		this.bandwidth = bandwidth;
+		updateTransmissionDelays();
+	}
+
+	private void updateTransmissionDelays() {
+		transmissionDelayOfSizeClass = new long[SizeClasses.length];
+		for (int sizeClass = 0; sizeClass < SizeClasses.length; sizeClass++) {
+			transmissionDelayOfSizeClass[sizeClass] = computeTransmissionDelayPs(SizeClasses[sizeClass]);
+		}
+	}
+
+	/* ===== Microsecond views of the picosecond values ===== */
 	public float getTotalDelay(int segmentSize) {
-		return Mathematics.addFloat(this.getTransmissionDelay(segmentSize), propagationDelay);
+		return Mathematics.picoToMicro(getTotalDelayPs(segmentSize));
 	}
 
 	public float getTransmissionDelay(int segmentSize) {
-		return Mathematics.divideFloat(segmentSize, bandwidth);
+		return Mathematics.picoToMicro(getTransmissionDelayPs(segmentSize));
+	}
+
+	public float getPropagationDelay() {
+		return Mathematics.picoToMicro(propagationDelayPs);
+	}
+
+	public float getTotalTransmissionTime() {
+		return Mathematics.picoToMicro(totalTransmissionTimePs);
+	}
+
+	public float getFirstSegmentArrivalTime() {
+		return Mathematics.picoToMicro(firstSegmentArrivalTimePs);
 	}
 
-	public void updateUtilizationCounters(float currentTime, int flowID, float transmissionDelay) {
+	public float getLastSegmentTransmittedTime() {
+		return Mathematics.picoToMicro(lastSegmentTransmittedTimePs);
+	}
+	/* ====================================================== */
+
+	public void updateUtilizationCounters(long currentTime, int flowID, long transmissionDelay) {
 		if (isMonitored) {
-			if (firstSegmentArrivalTime == 0) {
-				firstSegmentArrivalTime = currentTime;
-			}
-			totalTransmissionTime = Mathematics.addFloat(totalTransmissionTime, transmissionDelay);
-			lastSegmentTransmittedTime = Mathematics.addFloat(currentTime, transmissionDelay);
-			if (utilizationTimePerFlowID.containsKey((float) flowID)) {
-				utilizationTimePerFlowID.put((float) flowID,
-						Mathematics.addFloat(utilizationTimePerFlowID.get((float) flowID), transmissionDelay));
-			} else {
-				utilizationTimePerFlowID.put((float) flowID, transmissionDelay);
+			if (firstSegmentArrivalTimePs == 0) {
+				firstSegmentArrivalTimePs = currentTime;
 			}
+			totalTransmissionTimePs += transmissionDelay;
+			lastSegmentTransmittedTimePs = currentTime + transmissionDelay;
+			utilizationTimePerFlowID.merge(flowID, transmissionDelay, Long::sum);
 		}
 
 	}
 
+	public void retireFlow(Flow flow) {
+		Long utilizationTimePs = utilizationTimePerFlowID.remove(flow.getID());
+		retiredUtilizationTimeOverSize.add((double) (utilizationTimePs == null ? 0 : utilizationTimePs) / flow.getSize());
+	}
+
+	public void updateQueueingDelayCounter(long bufferTime) {
+		queueingDelay.record(bufferTime);
+	}
+
 	public void updateMaxQueueLengthCounter(int bufferOccupancy) {
 		if (bufferOccupancy > maxQeueLength) {
 			maxQeueLength = bufferOccupancy;
 		}
 	}
 
-	public void updateQueueLenghtCounter(float time, int bufferOccupancy) {
-		queueLength.put(time, (float) (bufferOccupancy));
+	public void updateQueueLenghtCounter(long timePs, int bufferOccupancy) {
+		queueLength.update(timePs, bufferOccupancy);
 	}
 
 	public void updateSegementArrivalToLinkCounters(float segmentArrivalTime, int flowID) {
-		if (isMonitored) {
+		if (isMonitored && segmentArrivalRecording) {
 			segmentArrivalTimeOfFlowID.add(new Pair<Float, Float>((float) flowID, segmentArrivalTime));
 		}
 	}
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
 import nrg.sdnsimulator.core.utility.Keywords;
 
@@ -28,6 +29,18 @@ public abstract class SDNSwitch extends Node {
 
 	protected abstract void recvCtrlMessage(Network net, CtrlMessage message);
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(new HashMap<Integer, Integer>(flowTable));
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		flowTable = state.next();
+	}
+
 	public void connectToNode(int linkID, int dstNodeID, short dstNodeType) {
 		switch (dstNodeType) {
 		case Keywords.Entities.Nodes.Types.Controller:
@@ -44,28 +57,42 @@ public abstract class SDNSwitch extends Node {
 		}
 	}
 
+	/* The host has been retired, see Simulator.setFlowSource */
+	public void disconnectFromHost(int hostID) {
+		accessLinksIDs.remove(hostID);
+	}
+
+	/*
+	 * Every host gets a packet of its own sharing the segment, each host releases
+	 * the packet it receives. The broadcast packet itself ends here.
+	 */
 	protected void broadcastToHosts(Network net, Packet packet) {
 		for (int dstHostID : accessLinksIDs.keySet()) {
-			forwardToHost(net, dstHostID, packet);
+			forwardToHost(net, dstHostID, net.getEventPool().acquirePacket(packet.getSegment(), null));
 		}
+		net.getEventPool().release(packet);
 	}
 
 	protected void forwardToHost(Network net, int dstHostID, Packet packet) {
-		net.getLinks().get(accessLinksIDs.get(dstHostID)).bufferPacket(net, packet);
+		net.getLink(accessLinksIDs.get(dstHostID)).bufferPacket(net, packet);
 	}
 
 	protected void forwardToSwitch(Network net, int flowID, Packet packet) {
-		net.getLinks().get(flowTable.get(flowID)).bufferPacket(net, packet);
+		net.getLink(flowTable.get(flowID)).bufferPacket(net, packet);
 	}
 
 	protected void forwardToController(Network net, Packet packet) {
-		net.getLinks().get(controlLinkID).bufferPacket(net, packet);
+		net.getLink(controlLinkID).bufferPacket(net, packet);
 	}
 
 	protected void addFlowTableEntry(int flowID, int egressLinkID) {
 		flowTable.put(flowID, egressLinkID);
 	}
 
+	public void removeFlowTableEntry(int flowID) {
+		flowTable.remove(flowID);
+	}
+
 	protected boolean hasFlowEntry(int flowID) {
 		if (flowTable.containsKey(flowID)) {
 			return true;
@@ -2,6 +2,7 @@ package nrg.sdnsimulator.core.entity.network;
 
 import lombok.Getter;
 import lombok.Setter;
+import nrg.sdnsimulator.core.Event;
 
 @Getter
 @Setter
@@ -10,11 +11,22 @@ public class Timer {
 	private int id;
 	private short type;
 	private boolean isActive;
+	// The pending timeout, used to cancel the timer
+	private Event timeoutEvent;
 
 	public Timer(int id, short type) {
 		this.id = id;
 		this.type = type;
 		isActive = true;
+		timeoutEvent = null;
+	}
+
+	/* The copy refers to the same pending timeout */
+	public Timer(Timer timer) {
+		id = timer.id;
+		type = timer.type;
+		isActive = timer.isActive;
+		timeoutEvent = timer.timeoutEvent;
 	}
 
 }
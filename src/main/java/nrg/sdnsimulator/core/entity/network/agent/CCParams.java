@@ -7,18 +7,23 @@ import lombok.Setter;
 @Setter
 public class CCParams {
 	private int sWnd;
-	private float sInterSegmentDelay;
-	private float sInterval;
-	private float sInitialDelay;
+	// picoseconds
+	private long sInterSegmentDelay;
+	private long sInterval;
+	private long sInitialDelay;
 
-	public CCParams(int sWnd, float sInterSegmentDelay, float sInterval, float sInitialDelay) {
+	public CCParams(int sWnd, long sInterSegmentDelay, long sInterval, long sInitialDelay) {
 		this.sWnd = sWnd;
 		this.sInterSegmentDelay = sInterSegmentDelay;
 		this.sInterval = sInterval;
 		this.sInitialDelay = sInitialDelay;
 	}
 
-	public void update(int sWnd, float sInterSegmentDelay, float sInterval, float sInitialDelay) {
+	public CCParams(CCParams params) {
+		this(params.sWnd, params.sInterSegmentDelay, params.sInterval, params.sInitialDelay);
+	}
+
+	public void update(int sWnd, long sInterSegmentDelay, long sInterval, long sInitialDelay) {
 		this.sWnd = sWnd;
 		this.sInterSegmentDelay = sInterSegmentDelay;
 		this.sInterval = sInterval;
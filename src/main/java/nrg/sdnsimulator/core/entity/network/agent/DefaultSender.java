@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.network.Agent;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
@@ -43,30 +44,53 @@ public class DefaultSender extends Agent {
 		interSegmentDelay_ = 0;
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(ACKedSeqNum);
+		state.add(inFlight);
+		state.add(remainingSegments);
+		state.add(seqNum);
+		state.add(sWnd_);
+		state.add(toSend);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		ACKedSeqNum = state.next();
+		inFlight = state.next();
+		remainingSegments = state.next();
+		seqNum = state.next();
+		sWnd_ = state.next();
+		toSend = state.next();
+	}
+
 	public void recvSegment(Network net, Segment segment) {
 		segmentsToSend.clear();
 		switch (segment.getType()) {
 		case Keywords.Segments.Types.SYNACK:
 			/** ===== Statistical Counters ===== **/
 			flow.setDataSendingStartTime(net.getCurrentTime());
-			flow.getAckSeqNumArrivalTimes().put((float) segment.getSeqNum(), net.getCurrentTime());
+			updateAckArrivalTime(net, segment.getSeqNum());
 			/** ================================ **/
 			ACKedSeqNum = segment.getSeqNum();
-			prepareSegmentsToSend();
+			prepareSegmentsToSend(net);
 			break;
 		case Keywords.Segments.Types.ACK:
 			/** ===== Statistical Counters ===== **/
-			flow.getAckSeqNumArrivalTimes().put((float) segment.getSeqNum(), net.getCurrentTime());
+			updateAckArrivalTime(net, segment.getSeqNum());
 			/** ================================ **/
 			if (isACKNumExpected(segment.getSeqNum())) {
 				if (segment.getSeqNum() == flow.getSize()) {
 					/** ===== Statistical Counters ===== **/
 					flow.setFINSendingTime(net.getCurrentTime());
+					updateFlowCompletionTime(net);
 					/** ================================ **/
 					segmentsToSend.add(genFIN());
 					break;
 				}
-				prepareSegmentsToSend();
+				prepareSegmentsToSend(net);
 			} else {
 				// This is the case that the receiver is demanding something else
 			}
@@ -78,9 +102,9 @@ public class DefaultSender extends Agent {
 		}
 	}
 
-	private Segment genDATASegment() {
+	private Segment genDATASegment(Network net) {
 		if (remainingSegments > 0) {
-			Segment seg = new Segment(this.flow.getID(), Keywords.Segments.Types.DATA, seqNum,
+			Segment seg = net.getEventPool().acquireSegment(this.flow.getID(), Keywords.Segments.Types.DATA, seqNum,
 					Keywords.Segments.Sizes.DataSegSize, srcHostID, dstHostID);
 			remainingSegments--;
 			return seg;
@@ -115,12 +139,12 @@ public class DefaultSender extends Agent {
 		}
 	}
 
-	private void prepareSegmentsToSend() {
+	private void prepareSegmentsToSend(Network net) {
 		segmentsToSend.clear();
 		toSend = (int) Mathematics.minDouble(sWnd_ - inFlight, remainingSegments);
 		for (int i = 0; i < toSend; i++) {
 			seqNum++;
-			segmentsToSend.add(genDATASegment());
+			segmentsToSend.add(genDATASegment(net));
 			inFlight += 1;
 		}
 	}
@@ -135,4 +159,9 @@ public class DefaultSender extends Agent {
 
 	}
 
+	@Override
+	public boolean isLastSegment(Segment segment) {
+		return segment.getType() == Keywords.Segments.Types.FINACK;
+	}
+
 }
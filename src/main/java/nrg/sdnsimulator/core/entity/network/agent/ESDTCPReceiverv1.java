@@ -3,6 +3,7 @@ package nrg.sdnsimulator.core.entity.network.agent;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.network.Agent;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
@@ -22,6 +23,18 @@ public class ESDTCPReceiverv1 extends Agent {
 		ACKNum = 0;
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(ACKNum);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		ACKNum = state.next();
+	}
+
 	public void recvSegment(Network net, Segment segment) {
 		segmentsToSend.clear();
 		/* Updating the ACKNum_ state variable */
@@ -32,14 +45,14 @@ public class ESDTCPReceiverv1 extends Agent {
 			break;
 		case Keywords.Segments.Types.DATA:
 			updateACKNum(segment.getSeqNum());
-			segmentsToSend.add(new Segment(flow.getID(), Keywords.Segments.Types.ACK, ACKNum,
+			segmentsToSend.add(net.getEventPool().acquireSegment(flow.getID(), Keywords.Segments.Types.ACK, ACKNum,
 					Keywords.Segments.Sizes.ACKSegSize, this.srcHostID, this.dstHostID));
 			break;
 		case Keywords.Segments.Types.FIN:
 			segmentsToSend.add(new Segment(flow.getID(), Keywords.Segments.Types.FINACK, segment.getSeqNum(),
 					Keywords.Segments.Sizes.FINSegSize, this.srcHostID, this.dstHostID));
 			/** ===== Statistical Counters ===== **/
-			net.getHosts().get(this.dstHostID).getTransportAgent().getFlow().setCompletionTime(net.getCurrentTime());
+			updatePeerCompletionTime(net);
 			/** ================================ **/
 			break;
 		case Keywords.Segments.Types.CTRL:
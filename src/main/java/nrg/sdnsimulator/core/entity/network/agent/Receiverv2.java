@@ -3,6 +3,7 @@ package nrg.sdnsimulator.core.entity.network.agent;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.network.Agent;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
@@ -19,6 +20,18 @@ public class Receiverv2 extends Agent {
 		ACKNum = -1;
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(ACKNum);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		ACKNum = state.next();
+	}
+
 	@Override
 	public void recvSegment(Network net, Segment segment) {
 		segmentsToSend.clear();
@@ -31,8 +44,8 @@ public class Receiverv2 extends Agent {
 			break;
 		case Keywords.Segments.Types.DATA:
 			// Debugger.methodEntrance("Receiverv2", "recvPacket", "Segment Type: DATA");
-			segmentsToSend.add(new Segment(flow.getID(), Keywords.Segments.Types.ACK, segment.getSeqNum(),
-					Keywords.Segments.Sizes.ACKSegSize, this.srcHostID, this.dstHostID));
+			segmentsToSend.add(net.getEventPool().acquireSegment(flow.getID(), Keywords.Segments.Types.ACK,
+					segment.getSeqNum(), Keywords.Segments.Sizes.ACKSegSize, this.srcHostID, this.dstHostID));
 			break;
 		case Keywords.Segments.Types.FIN:
 			/*
@@ -63,4 +76,10 @@ public class Receiverv2 extends Agent {
 
 	}
 
+	@Override
+	public boolean isLastSegment(Segment segment) {
+		// No FINACK goes back to the sender
+		return segment.getType() == Keywords.Segments.Types.FIN;
+	}
+
 }
@@ -2,16 +2,20 @@ package nrg.sdnsimulator.core.entity.network.agent;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeMap;
 
 import lombok.Getter;
 import lombok.Setter;
+import nrg.sdnsimulator.core.Event;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.network.Agent;
+import nrg.sdnsimulator.core.entity.network.Host;
 import nrg.sdnsimulator.core.entity.network.Timer;
+import nrg.sdnsimulator.core.entity.traffic.ControlPayload;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
-import nrg.sdnsimulator.core.event.TimeoutEvent;
 import nrg.sdnsimulator.core.utility.Keywords;
 import nrg.sdnsimulator.core.utility.Mathematics;
 
@@ -35,6 +39,12 @@ public class Senderv2 extends Agent {
 																// isRetransmission>
 	private TreeMap<Integer, Boolean> seqNumbersToSend; // <SequenceNumber, isRetransmission>
 
+	/** ========== Statistical Counters ========== **/
+	private int firedTimers;
+	private int cancelledTimers;
+
+	/** ========================================== **/
+
 	public Senderv2(Flow flow) {
 		super(flow);
 
@@ -53,9 +63,51 @@ public class Senderv2 extends Agent {
 		hasRecvdSYNACK = false;
 		hasSentFIN = false;
 		hasStartedSending = false;
+		firedTimers = 0;
+		cancelledTimers = 0;
 
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(hasRecvdSYNACK);
+		state.add(hasStartedSending);
+		state.add(hasSentFIN);
+		state.add(copyTimers(timerOfTimerID));
+		state.add(new ArrayList<Integer>(timeToNextCycleTimerIDs));
+		state.add(timerIndex);
+		state.add(copyCCParams(nextCCParamsOfTimerID));
+		state.add(new CCParams(ccParams));
+		state.add(remainingSegments);
+		state.add(mostRecentSequenceNum);
+		state.add(lastSentSeqNum);
+		state.add(new TreeMap<Integer, Boolean>(negativeACKWaitingList));
+		state.add(new TreeMap<Integer, Boolean>(seqNumbersToSend));
+		state.add(firedTimers);
+		state.add(cancelledTimers);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		hasRecvdSYNACK = state.next();
+		hasStartedSending = state.next();
+		hasSentFIN = state.next();
+		timerOfTimerID = state.next();
+		timeToNextCycleTimerIDs = state.next();
+		timerIndex = state.next();
+		nextCCParamsOfTimerID = state.next();
+		ccParams = state.next();
+		remainingSegments = state.next();
+		mostRecentSequenceNum = state.next();
+		lastSentSeqNum = state.next();
+		negativeACKWaitingList = state.next();
+		seqNumbersToSend = state.next();
+		firedTimers = state.next();
+		cancelledTimers = state.next();
+	}
+
 	@Override
 	public void sendFirst(Network net) {
 		segmentsToSend.clear();
@@ -72,40 +124,36 @@ public class Senderv2 extends Agent {
 			break;
 		case Keywords.Segments.Types.CTRL:
 			// Stop all running TimeToNextCycleTimers
-			deactivateSendingCycleTimers();
+			deactivateSendingCycleTimers(net);
 			// Create the new TimetToNextCycleTimer
 			if (!hasSentFIN) {
 				timerIndex++;
 				Timer timeToNextCycleTimer = new Timer(timerIndex,
 						Keywords.Entities.Agents.TimerTypes.TimeToCycleTimer);
-				timerOfTimerID.put(timeToNextCycleTimer.getId(), timeToNextCycleTimer);
-				net.getEventList()
-						.addEvent(new TimeoutEvent(
-								Mathematics.addFloat(net.getCurrentTime(), segment.getTimeToNextCycle()), srcHostID,
-								timeToNextCycleTimer.getId()));
-				nextCCParamsOfTimerID.put(timeToNextCycleTimer.getId(), new CCParams(segment.getsWnd(),
-						segment.getsInterSegmentDelay(), segment.getsInterval(), segment.getsInitialDelay()));
+				ControlPayload payload = segment.getControlPayload();
+				startTimer(net, timeToNextCycleTimer, payload.getTimeToNextCycle());
+				nextCCParamsOfTimerID.put(timeToNextCycleTimer.getId(), new CCParams(payload.getSWnd(),
+						payload.getSInterSegmentDelay(), payload.getSInterval(), payload.getSInitialDelay()));
 				timeToNextCycleTimerIDs.add(timeToNextCycleTimer.getId());
 			}
 			break;
 		case Keywords.Segments.Types.SYNACK:
 			/** ===== Statistical Counters ===== **/
-			flow.getAckSeqNumArrivalTimes().put((float) segment.getSeqNum(), net.getCurrentTime());
+			updateAckArrivalTime(net, segment.getSeqNum());
 			/** ================================ **/
 			hasRecvdSYNACK = true;
 			break;
 		case Keywords.Segments.Types.ACK:
 			/** ===== Statistical Counters ===== **/
-			flow.getAckSeqNumArrivalTimes().put((float) segment.getSeqNum(), net.getCurrentTime());
+			updateAckArrivalTime(net, segment.getSeqNum());
 			/** ================================ **/
 			if (remainingSegments == 0 && negativeACKWaitingList.isEmpty() && segment.getSeqNum() == lastSentSeqNum) {
 				segmentsToSend.add(genFIN());
-				for (int timerID : timerOfTimerID.keySet()) {
-					timerOfTimerID.get(timerID).setActive(false);
-				}
+				deactivateAllTimers(net);
 				/** ===== Statistical Counters ===== **/
 				flow.setCompletionTime(net.getCurrentTime());
 				flow.setFINSendingTime(net.getCurrentTime());
+				updateFlowCompletionTime(net);
 				/** ================================ **/
 			}
 			break;
@@ -122,15 +170,15 @@ public class Senderv2 extends Agent {
 
 	@Override
 	public void timeout(Network net, int timerID) {
-		Timer currentTimer = timerOfTimerID.get(timerID);
-		timerOfTimerID.remove(timerID);
-		if (currentTimer.isActive()) {
+		Timer currentTimer = timerOfTimerID.remove(timerID);
+		if (currentTimer != null && currentTimer.isActive()) {
+			firedTimers++;
 			switch (currentTimer.getType()) {
 			case Keywords.Entities.Agents.TimerTypes.TimeToCycleTimer:
 				// Clear seqNum to send
 				seqNumbersToSend.clear();
 				// Deactivate all running timers
-				deactivateAllTimers();
+				deactivateAllTimers(net);
 				// Update ccParams
 				ccParams = nextCCParamsOfTimerID.get(timerID);
 				nextCCParamsOfTimerID.remove(timerID);
@@ -159,10 +207,7 @@ public class Senderv2 extends Agent {
 		} else if (ccParams.getSInitialDelay() > 0) {
 			timerIndex++;
 			Timer initialDelayTimer = new Timer(timerIndex, Keywords.Entities.Agents.TimerTypes.InitialDelayTimer);
-			timerOfTimerID.put(initialDelayTimer.getId(), initialDelayTimer);
-			net.getEventList()
-					.addEvent(new TimeoutEvent(Mathematics.addFloat(net.getCurrentTime(), ccParams.getSInitialDelay()),
-							srcHostID, initialDelayTimer.getId()));
+			startTimer(net, initialDelayTimer, ccParams.getSInitialDelay());
 		}
 	}
 
@@ -190,10 +235,7 @@ public class Senderv2 extends Agent {
 			}
 			timerIndex++;
 			Timer sIntervalTimer = new Timer(timerIndex, Keywords.Entities.Agents.TimerTypes.IntervalTimer);
-			timerOfTimerID.put(sIntervalTimer.getId(), sIntervalTimer);
-			net.getEventList()
-					.addEvent(new TimeoutEvent(Mathematics.addFloat(net.getCurrentTime(), ccParams.getSInterval()),
-							srcHostID, sIntervalTimer.getId()));
+			startTimer(net, sIntervalTimer, ccParams.getSInterval());
 		}
 	}
 
@@ -201,17 +243,13 @@ public class Senderv2 extends Agent {
 		if (!seqNumbersToSend.isEmpty()) {
 			int sequenceNumber = seqNumbersToSend.firstKey();
 			lastSentSeqNum = sequenceNumber; // TODO note for the retransmissions
-			segmentsToSend.add(genDATASegment(sequenceNumber, seqNumbersToSend.get(sequenceNumber)));
+			segmentsToSend.add(genDATASegment(net, sequenceNumber, seqNumbersToSend.get(sequenceNumber)));
 			seqNumbersToSend.remove(sequenceNumber);
 			if (!seqNumbersToSend.isEmpty()) {
 				timerIndex++;
 				Timer interSegmentDelayTimer = new Timer(timerIndex,
 						Keywords.Entities.Agents.TimerTypes.InterSegmentDelayTimer);
-				timerOfTimerID.put(interSegmentDelayTimer.getId(), interSegmentDelayTimer);
-				net.getEventList()
-						.addEvent(new TimeoutEvent(
-								Mathematics.addFloat(net.getCurrentTime(), ccParams.getSInterSegmentDelay()), srcHostID,
-								interSegmentDelayTimer.getId()));
+				startTimer(net, interSegmentDelayTimer, ccParams.getSInterSegmentDelay());
 			}
 		}
 	}
@@ -234,10 +272,10 @@ public class Senderv2 extends Agent {
 		return segment;
 	}
 
-	private Segment genDATASegment(int seqNumber, boolean isRetransmission) {
+	private Segment genDATASegment(Network net, int seqNumber, boolean isRetransmission) {
 		if (remainingSegments > 0) {
-			Segment segment = new Segment(this.flow.getID(), Keywords.Segments.Types.DATA, seqNumber,
-					Keywords.Segments.Sizes.DataSegSize, srcHostID, dstHostID);
+			Segment segment = net.getEventPool().acquireSegment(this.flow.getID(), Keywords.Segments.Types.DATA,
+					seqNumber, Keywords.Segments.Sizes.DataSegSize, srcHostID, dstHostID);
 			if (!isRetransmission) {
 				remainingSegments--;
 			}
@@ -250,25 +288,59 @@ public class Senderv2 extends Agent {
 
 	}
 
-	private void deactivateAllTimers() {
-		for (int timerID : timerOfTimerID.keySet()) {
-			timerOfTimerID.get(timerID).setActive(false);
+	private void startTimer(Network net, Timer timer, long delay) {
+		timerOfTimerID.put(timer.getId(), timer);
+		Host srcHost = net.getHost(srcHostID);
+		Event timeoutEvent = net.getEventPool().acquireTimeoutEvent(net.getCurrentTimePs() + delay, srcHost,
+				timer.getId());
+		timer.setTimeoutEvent(timeoutEvent);
+		net.scheduleTimer(timeoutEvent, srcHost);
+	}
+
+	/* Unschedules the pending timeout so it never fires */
+	private void cancelTimer(Network net, Timer timer) {
+		timer.setActive(false);
+		if (net.cancelTimer(timer.getTimeoutEvent())) {
+			net.getEventPool().release(timer.getTimeoutEvent());
+			cancelledTimers++;
+		}
+		timer.setTimeoutEvent(null);
+		nextCCParamsOfTimerID.remove(timer.getId());
+	}
+
+	private void deactivateAllTimers(Network net) {
+		for (Timer timer : timerOfTimerID.values()) {
+			cancelTimer(net, timer);
 		}
+		timerOfTimerID.clear();
 		timeToNextCycleTimerIDs.clear();
 
 	}
 
-	private void deactivateSendingCycleTimers() {
+	private void deactivateSendingCycleTimers(Network net) {
 		for (int timerID : timeToNextCycleTimerIDs) {
-			if (timerOfTimerID.containsKey(timerID)) {
-				timerOfTimerID.get(timerID).setActive(false);
+			Timer timer = timerOfTimerID.remove(timerID);
+			if (timer != null) {
+				cancelTimer(net, timer);
 			}
 		}
 		timeToNextCycleTimerIDs.clear();
 	}
 
-	private void deactivateTimer(int timerID) {
-		timerOfTimerID.get(timerID).setActive(false);
+	private static HashMap<Integer, Timer> copyTimers(HashMap<Integer, Timer> timers) {
+		HashMap<Integer, Timer> copies = new HashMap<Integer, Timer>();
+		for (Map.Entry<Integer, Timer> entry : timers.entrySet()) {
+			copies.put(entry.getKey(), new Timer(entry.getValue()));
+		}
+		return copies;
+	}
+
+	private static HashMap<Integer, CCParams> copyCCParams(HashMap<Integer, CCParams> params) {
+		HashMap<Integer, CCParams> copies = new HashMap<Integer, CCParams>();
+		for (Map.Entry<Integer, CCParams> entry : params.entrySet()) {
+			copies.put(entry.getKey(), new CCParams(entry.getValue()));
+		}
+		return copies;
 	}
 
 }
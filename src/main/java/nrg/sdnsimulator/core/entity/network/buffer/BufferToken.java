@@ -22,6 +22,17 @@ public class BufferToken {
 		this.isActive = false;
 	}
 
+	public BufferToken(BufferToken token) {
+		ACKCounter = token.ACKCounter;
+		arrivalToBufferTime = token.arrivalToBufferTime;
+		initialACKsToGo = token.initialACKsToGo;
+		initialCycleDelay = token.initialCycleDelay;
+		isActive = token.isActive;
+		isFirstCycle = token.isFirstCycle;
+		steadyACKsToGo = token.steadyACKsToGo;
+		steadyCycleDelay = token.steadyCycleDelay;
+	}
+
 	public void activate(boolean isFirstCycle, float initialDelay, int initialACKsToGo, float steadyDelay,
 			int steadyACKsToGo) {
 		this.isActive = true;
@@ -9,24 +9,25 @@ public class Bufferv1 extends Buffer {
 		super(capacity, bufferPolicy);
 	}
 
-	public float enQueue(float currentTime, float segmentTransmissionDelay) {
-		float waitTime = 0;
-		float ccDelay = 0;
+	public long enQueue(long currentTime, long segmentTransmissionDelay) {
+		long waitTime = 0;
+		long ccDelay = 0;
 		if (isFull()) {
-			waitTime = Float.NEGATIVE_INFINITY;
+			waitTime = Long.MIN_VALUE;
 		} else {
 			occupancy++;
-			waitTime = Mathematics.subtractFloat(mostRecentSegmentDepartureTime, currentTime);
+			waitTime = mostRecentSegmentDepartureTime - currentTime;
 			if (waitTime <= 0) {
 				waitTime = 0;
 			}
-			if ((ccDelay = ccToken.getCongestionControlDelay(currentTime)) > 0) {
+			// The token still works in microseconds
+			if ((ccDelay = Mathematics.microToPico(
+					ccToken.getCongestionControlDelay(Mathematics.picoToMicro(currentTime)))) > 0) {
 				if (ccDelay >= waitTime) {
 					waitTime = ccDelay;
 				}
 			}
-			mostRecentSegmentDepartureTime = Mathematics.addFloat(currentTime,
-					Mathematics.addFloat(waitTime, segmentTransmissionDelay));
+			mostRecentSegmentDepartureTime = currentTime + waitTime + segmentTransmissionDelay;
 		}
 		return waitTime;
 
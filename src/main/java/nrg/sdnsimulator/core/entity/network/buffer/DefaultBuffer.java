@@ -1,7 +1,6 @@
 package nrg.sdnsimulator.core.entity.network.buffer;
 
 import nrg.sdnsimulator.core.entity.network.Buffer;
-import nrg.sdnsimulator.core.utility.Mathematics;
 
 public class DefaultBuffer extends Buffer {
 
@@ -9,18 +8,17 @@ public class DefaultBuffer extends Buffer {
 		super(capacity, bufferPolicy);
 	}
 
-	public float enQueue(float currentTime, float packetTransmissionDelay) {
-		float waitTime = 0;
+	public long enQueue(long currentTime, long packetTransmissionDelay) {
+		long waitTime = 0;
 		if (isFull()) {
-			waitTime = Float.NEGATIVE_INFINITY;
+			waitTime = Long.MIN_VALUE;
 		} else {
 			occupancy++;
-			waitTime = Mathematics.subtractFloat(mostRecentSegmentDepartureTime, currentTime);
+			waitTime = mostRecentSegmentDepartureTime - currentTime;
 			if (waitTime <= 0) {
 				waitTime = 0;
 			}
-			mostRecentSegmentDepartureTime = Mathematics.addFloat(currentTime,
-					Mathematics.addFloat(waitTime, packetTransmissionDelay));
+			mostRecentSegmentDepartureTime = currentTime + waitTime + packetTransmissionDelay;
 		}
 		return waitTime;
 	}
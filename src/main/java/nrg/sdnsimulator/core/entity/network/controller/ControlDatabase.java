@@ -1,6 +1,7 @@
 package nrg.sdnsimulator.core.entity.network.controller;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -10,7 +11,6 @@ import nrg.sdnsimulator.core.Network;
 import nrg.sdnsimulator.core.entity.network.Link;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
 import nrg.sdnsimulator.core.utility.Keywords;
-import nrg.sdnsimulator.core.utility.Mathematics;
 
 @Getter
 @Setter
@@ -19,10 +19,10 @@ public class ControlDatabase {
 	/*----------------------------------------------------------------------------------------*/
 	/* Controller Database version 2 parameters */
 	private int accessSwitchID = -1;
-	private float maxRTT = 0;
+	private long maxRTT = 0; // picoseconds
 	private float sharedEgressLinkBw = 0;
 	private int totalNumberOfFlows = 0;
-	private HashMap<Integer, Float> maxRTTOfAccessSwitchID = new HashMap<Integer, Float>(); // TODO
+	private HashMap<Integer, Long> maxRTTOfAccessSwitchID = new HashMap<Integer, Long>(); // TODO
 																							// give
 																							// value
 																							// somewhere
@@ -31,8 +31,8 @@ public class ControlDatabase {
 	private TreeMap<Integer, TreeMap<Integer, Integer>> flowIDOfHostIDOfAccessSwitchID; // <switchID,<hostID,flowID>>
 	private HashMap<Integer, HashMap<Integer, Integer>> pathOfFlowID; // <FlowID,
 																		// Map<switchID,nextSwitchID>>
-	private HashMap<Integer, Float> RTTOfFlowID = new HashMap<Integer, Float>();
-	private HashMap<Integer, Float> SYNRTTOfFlowID = new HashMap<Integer, Float>();
+	private HashMap<Integer, Long> RTTOfFlowID = new HashMap<Integer, Long>();
+	private HashMap<Integer, Long> SYNRTTOfFlowID = new HashMap<Integer, Long>();
 	private HashMap<Integer, Integer> btlLinkIDOfFlowID = new HashMap<Integer, Integer>();
 	private HashMap<Integer, Integer> networkBtlLinkIDOfFlowID = new HashMap<Integer, Integer>();
 	private HashMap<Integer, Link> accessLinkOfFlowID = new HashMap<Integer, Link>();
@@ -63,6 +63,30 @@ public class ControlDatabase {
 
 	}
 
+	/* For the saved states of an optimistic run, the paths are shared as they never change */
+	public ControlDatabase(ControlDatabase database) {
+		accessSwitchID = database.accessSwitchID;
+		maxRTT = database.maxRTT;
+		sharedEgressLinkBw = database.sharedEgressLinkBw;
+		totalNumberOfFlows = database.totalNumberOfFlows;
+		maxRTTOfAccessSwitchID = new HashMap<Integer, Long>(database.maxRTTOfAccessSwitchID);
+		flowIDOfHostID = new HashMap<Integer, Integer>(database.flowIDOfHostID);
+		flowIDOfHostIDOfAccessSwitchID = new TreeMap<Integer, TreeMap<Integer, Integer>>();
+		for (Map.Entry<Integer, TreeMap<Integer, Integer>> entry : database.flowIDOfHostIDOfAccessSwitchID
+				.entrySet()) {
+			flowIDOfHostIDOfAccessSwitchID.put(entry.getKey(), new TreeMap<Integer, Integer>(entry.getValue()));
+		}
+		pathOfFlowID = new HashMap<Integer, HashMap<Integer, Integer>>(database.pathOfFlowID);
+		RTTOfFlowID = new HashMap<Integer, Long>(database.RTTOfFlowID);
+		SYNRTTOfFlowID = new HashMap<Integer, Long>(database.SYNRTTOfFlowID);
+		btlLinkIDOfFlowID = new HashMap<Integer, Integer>(database.btlLinkIDOfFlowID);
+		networkBtlLinkIDOfFlowID = new HashMap<Integer, Integer>(database.networkBtlLinkIDOfFlowID);
+		accessLinkOfFlowID = new HashMap<Integer, Link>(database.accessLinkOfFlowID);
+		bottleneckLinkID = database.bottleneckLinkID;
+		btlBwOfFlowID = new HashMap<Integer, Float>(database.btlBwOfFlowID);
+		rttOfFlowID = new HashMap<Integer, Float>(database.rttOfFlowID);
+	}
+
 	public void addFlow(int accessSwitchID, int srcHostID, int flowID) {
 		if (!flowIDOfHostIDOfAccessSwitchID.containsKey(accessSwitchID)) {
 			flowIDOfHostIDOfAccessSwitchID.put(accessSwitchID, new TreeMap<Integer, Integer>());
@@ -113,6 +137,8 @@ public class ControlDatabase {
 		pathOfFlowID.remove(flowID);
 		RTTOfFlowID.remove(flowID);
 		btlLinkIDOfFlowID.remove(flowID);
+		networkBtlLinkIDOfFlowID.remove(flowID);
+		SYNRTTOfFlowID.remove(flowID);
 		accessLinkOfFlowID.remove(flowID);
 		updateMaxRTTOfAccessSwitch(accessSwitchID);
 		totalNumberOfFlows++;
@@ -136,13 +162,13 @@ public class ControlDatabase {
 	}
 
 	public void updateRTTOfFlowID(Network net, Segment segment) {
-		float rtt = 0;
-		float synRtt = 0;
-		Link senderAccessLink = net.getLinks().get(net.getHosts().get(segment.getSrcHostID()).getAccessLinkID());
-		Link receiverAccessLink = net.getLinks().get(net.getHosts().get(segment.getDstHostID()).getAccessLinkID());
+		long rtt = 0;
+		long synRtt = 0;
+		Link senderAccessLink = net.getLink(net.getHost(segment.getSrcHostID()).getAccessLinkID());
+		Link receiverAccessLink = net.getLink(net.getHost(segment.getDstHostID()).getAccessLinkID());
 		// The rtt has a slight overestimation for using data segment size for both ways
 		float minBand = Float.MAX_VALUE;
-		rtt = Mathematics.addFloat(rtt, senderAccessLink.getTotalDelay(Keywords.Segments.Sizes.DataSegSize));
+		rtt += senderAccessLink.getTotalDelayPs(Keywords.Segments.Sizes.DataSegSize);
 		if (senderAccessLink.getBandwidth() < minBand) {
 			minBand = senderAccessLink.getBandwidth();
 			btlLinkIDOfFlowID.put(segment.getFlowID(), senderAccessLink.getID());
@@ -151,22 +177,20 @@ public class ControlDatabase {
 			minBand = receiverAccessLink.getBandwidth();
 			btlLinkIDOfFlowID.put(segment.getFlowID(), receiverAccessLink.getID());
 		}
-		rtt = Mathematics.addFloat(rtt, senderAccessLink.getTotalDelay(Keywords.Segments.Sizes.ACKSegSize));
-		rtt = Mathematics.addFloat(rtt, receiverAccessLink.getTotalDelay(Keywords.Segments.Sizes.DataSegSize));
-		rtt = Mathematics.addFloat(rtt, receiverAccessLink.getTotalDelay(Keywords.Segments.Sizes.ACKSegSize));
+		rtt += senderAccessLink.getTotalDelayPs(Keywords.Segments.Sizes.ACKSegSize);
+		rtt += receiverAccessLink.getTotalDelayPs(Keywords.Segments.Sizes.DataSegSize);
+		rtt += receiverAccessLink.getTotalDelayPs(Keywords.Segments.Sizes.ACKSegSize);
 
-		synRtt = Mathematics.multiplyFloat(2, senderAccessLink.getTotalDelay(Keywords.Segments.Sizes.ACKSegSize));
-		synRtt = Mathematics.addFloat(synRtt,
-				Mathematics.multiplyFloat(2, receiverAccessLink.getTotalDelay(Keywords.Segments.Sizes.ACKSegSize)));
+		synRtt = 2 * senderAccessLink.getTotalDelayPs(Keywords.Segments.Sizes.ACKSegSize);
+		synRtt += 2 * receiverAccessLink.getTotalDelayPs(Keywords.Segments.Sizes.ACKSegSize);
 		float networkMinBand = Float.MAX_VALUE;
 		for (int srcSwitchID : pathOfFlowID.get(segment.getFlowID()).keySet()) {
 			int dstSwitchID = pathOfFlowID.get(segment.getFlowID()).get(srcSwitchID);
-			int linkID = net.getSwitches().get(srcSwitchID).getNetworkLinksIDs().get(dstSwitchID);
-			Link link = net.getLinks().get(linkID);
-			rtt = Mathematics.addFloat(rtt, link.getTotalDelay(Keywords.Segments.Sizes.DataSegSize));
-			rtt = Mathematics.addFloat(rtt, link.getTotalDelay(Keywords.Segments.Sizes.ACKSegSize));
-			synRtt = Mathematics.addFloat(synRtt,
-					Mathematics.multiplyFloat(2, link.getTotalDelay(Keywords.Segments.Sizes.ACKSegSize)));
+			int linkID = net.getSwitch(srcSwitchID).getNetworkLinksIDs().get(dstSwitchID);
+			Link link = net.getLink(linkID);
+			rtt += link.getTotalDelayPs(Keywords.Segments.Sizes.DataSegSize);
+			rtt += link.getTotalDelayPs(Keywords.Segments.Sizes.ACKSegSize);
+			synRtt += 2 * link.getTotalDelayPs(Keywords.Segments.Sizes.ACKSegSize);
 			if (link.getBandwidth() < minBand) {
 				minBand = link.getBandwidth();
 				btlLinkIDOfFlowID.put(segment.getFlowID(), link.getID());
@@ -193,7 +217,7 @@ public class ControlDatabase {
 	}
 
 	public void updateMaxRTTOfAccessSwitch(int accessSwitchID) {
-		float maxRTT = 0;
+		long maxRTT = 0;
 		for (int hostID : flowIDOfHostIDOfAccessSwitchID.get(accessSwitchID).keySet()) {
 			int flowID = flowIDOfHostIDOfAccessSwitchID.get(accessSwitchID).get(hostID);
 			if (RTTOfFlowID.get(flowID) > maxRTT) {
@@ -5,9 +5,11 @@ import java.util.HashMap;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.entity.network.Controller;
 import nrg.sdnsimulator.core.entity.network.CtrlMessage;
 import nrg.sdnsimulator.core.entity.network.buffer.BufferToken;
+import nrg.sdnsimulator.core.entity.traffic.ControlPayload;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
 import nrg.sdnsimulator.core.utility.Keywords;
@@ -34,6 +36,30 @@ public class Controllerv1 extends Controller {
 
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(bigRTT);
+		state.add(currentSwitchID);
+		state.add(interFlowDelayConstant);
+		state.add(interSegmentDelay);
+		state.add(previousBigRTT);
+		state.add(previousSWnd);
+		state.add(sWnd);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		bigRTT = state.next();
+		currentSwitchID = state.next();
+		interFlowDelayConstant = state.next();
+		interSegmentDelay = state.next();
+		previousBigRTT = state.next();
+		previousSWnd = state.next();
+		sWnd = state.next();
+	}
+
 	/* =========================================== */
 	/* ========== Congestion Control ============= */
 	/* =========================================== */
@@ -63,10 +89,12 @@ public class Controllerv1 extends Controller {
 		Segment segmentToHosts = new Segment(Keywords.ControllerFLowID, Keywords.Segments.Types.CTRL,
 				Keywords.Segments.SpecialSequenceNumbers.CTRLSeqNum, Keywords.Segments.Sizes.CTRLSegSize, this.getID(),
 				Keywords.BroadcastDestination);
-		segmentToHosts.setBigRTT_(this.bigRTT);
-		segmentToHosts.setsWnd_(this.sWnd);
-		segmentToHosts.setInterSegmentDelay_(this.interSegmentDelay);
-		sendPacketToSwitch(net, this.currentSwitchID, new Packet(segmentToHosts, null));
+		ControlPayload payload = new ControlPayload();
+		payload.setBigRTT_(this.bigRTT);
+		payload.setSWnd_(this.sWnd);
+		payload.setInterSegmentDelay_(this.interSegmentDelay);
+		segmentToHosts.setControlPayload(payload);
+		sendPacketToSwitch(net, this.currentSwitchID, net.getEventPool().acquirePacket(segmentToHosts, null));
 	}
 
 	private HashMap<Integer, CtrlMessage> prepareMessage(Network net) {
@@ -127,7 +155,7 @@ public class Controllerv1 extends Controller {
 			break;
 		}
 		handleCongestionControl(net);
-		sendPacketToSwitch(net, switchID, new Packet(recvdSegment, null));
+		sendPacketToSwitch(net, switchID, packet);
 	}
 
 	private void updateBigRTT() {
@@ -3,9 +3,11 @@ package nrg.sdnsimulator.core.entity.network.controller;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.EntityState;
 import nrg.sdnsimulator.core.Simulator;
 import nrg.sdnsimulator.core.entity.network.Controller;
 import nrg.sdnsimulator.core.entity.network.Link;
+import nrg.sdnsimulator.core.entity.traffic.ControlPayload;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
 import nrg.sdnsimulator.core.entity.traffic.Segment;
 import nrg.sdnsimulator.core.utility.Keywords;
@@ -18,7 +20,7 @@ public class Controllerv2 extends Controller {
 	private float alpha; // sWnd
 	private float beta; // SYNACKDelay
 	private float gamma; // sInterval
-	private float mostRecentCycleStartTime = 0;
+	private long mostRecentCycleStartTime = 0; // picoseconds
 	private boolean validationReport = false;
 	private int sCycleIndex = -1;
 
@@ -29,6 +31,20 @@ public class Controllerv2 extends Controller {
 		this.gamma = gamma;
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(mostRecentCycleStartTime);
+		state.add(sCycleIndex);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		mostRecentCycleStartTime = state.next();
+		sCycleIndex = state.next();
+	}
+
 	@Override
 	public void recvPacket(Network net, int switchID, Packet packet) {
 		currentNetwork = net;
@@ -51,101 +67,100 @@ public class Controllerv2 extends Controller {
 		default:
 			break;
 		}
-		sendPacketToSwitch(net, switchID, new Packet(recvdSegment, null));
+		sendPacketToSwitch(net, switchID, packet);
 	}
 
 	private void handleCongestionControl(Network net, Segment recvdSegment) {
 		sCycleIndex++;
-		Link controlLink = net.getLinks().get(controlLinksIDs.get(database.getAccessSwitchID()));
-		float sCycleStartDelay = calculateSCycleStartDelay(net, controlLink);
-		float sInterval = calculateSInterval();
+		Link controlLink = net.getLink(controlLinksIDs.get(database.getAccessSwitchID()));
+		long sCycleStartDelay = calculateSCycleStartDelay(net, controlLink);
+		long sInterval = calculateSInterval();
 		int interFlowIndex = 0;
-		float accessLinkDelay_0 = 0;
+		long accessLinkDelay_0 = 0;
 		for (int hostID : database.getFlowIDOfHostIDOfAccessSwitchID().get(database.getAccessSwitchID()).keySet()) {
 			int flowID = database.getFlowIDOfHostIDOfAccessSwitchID().get(database.getAccessSwitchID()).get(hostID);
-			float accessLinkDelay_i = database.getAccessLinkOfFlowID().get(flowID)
-					.getTotalDelay(Keywords.Segments.Sizes.DataSegSize);
+			long accessLinkDelay_i = database.getAccessLinkOfFlowID().get(flowID)
+					.getTotalDelayPs(Keywords.Segments.Sizes.DataSegSize);
 			if (interFlowIndex == 0) {
 				accessLinkDelay_0 = accessLinkDelay_i;
 			}
 			Segment segment = new Segment(Simulator.reverseFlowStreamID(flowID), Keywords.Segments.Types.CTRL,
 					Keywords.Segments.SpecialSequenceNumbers.CTRLSeqNum, Keywords.Segments.Sizes.CTRLSegSize, this.ID,
 					hostID);
+			ControlPayload payload = new ControlPayload();
+			segment.setControlPayload(payload);
 			// -------------------------------------
 			// Calculate sWnd
-			segment.setsWnd(calculateFlowSWnd(sInterval,
-					net.getLinks().get(database.getBtlLinkIDOfFlowID().get(flowID)).getBandwidth()));
+			payload.setSWnd(calculateFlowSWnd(sInterval,
+					net.getLink(database.getBtlLinkIDOfFlowID().get(flowID)).getBandwidth()));
 
 			// -------------------------------------
 			// Calculate sInterSegmentDelay = transmissionDelay for flowBtlBw
-			segment.setsInterSegmentDelay(net.getLinks().get(database.getBtlLinkIDOfFlowID().get(flowID))
-					.getTransmissionDelay(Keywords.Segments.Sizes.DataSegSize));
+			payload.setSInterSegmentDelay(net.getLink(database.getBtlLinkIDOfFlowID().get(flowID))
+					.getTransmissionDelayPs(Keywords.Segments.Sizes.DataSegSize));
 			// -------------------------------------
 			// Calculate delayToNextCycle_i
-			float CTRLDelay_i = calculateCTRLDelayOfFlowID(net, controlLink, flowID, interFlowIndex);
-			float delayToNextCycle_i = Mathematics.subtractFloat(sCycleStartDelay, CTRLDelay_i);
-			segment.setTimeToNextCycle(delayToNextCycle_i);
+			long CTRLDelay_i = calculateCTRLDelayOfFlowID(net, controlLink, flowID, interFlowIndex);
+			long delayToNextCycle_i = sCycleStartDelay - CTRLDelay_i;
+			payload.setTimeToNextCycle(delayToNextCycle_i);
 			// -------------------------------------
 			// Calculate sInitialDelay
-			float numi = Mathematics.multiplyFloat(interFlowIndex, sInterval);
-			float initialDelay_i = Mathematics.divideFloat(numi, database.getFlowIDOfHostID().size());
+			long initialDelay_i = Math
+					.round((double) (interFlowIndex * sInterval) / database.getFlowIDOfHostID().size());
 			if (interFlowIndex > 0) {
-				initialDelay_i = Mathematics.addFloat(initialDelay_i,
-						Mathematics.subtractFloat(accessLinkDelay_0, accessLinkDelay_i));
+				initialDelay_i += accessLinkDelay_0 - accessLinkDelay_i;
 			}
-			segment.setsInitialDelay(initialDelay_i);
+			payload.setSInitialDelay(initialDelay_i);
 			// -------------------------------------
-			segment.setsInterval(sInterval);
+			payload.setSInterval(sInterval);
 			interFlowIndex++;
-			sendPacketToSwitch(net, database.getAccessSwitchID(), new Packet(segment, null));
+			sendPacketToSwitch(net, database.getAccessSwitchID(), net.getEventPool().acquirePacket(segment, null));
 
 		}
 	}
 
-	private float calculateSCycleStartDelay(Network net, Link controlLink) {
-		float sCycleStartDelay = 0;
+	private long calculateSCycleStartDelay(Network net, Link controlLink) {
+		long sCycleStartDelay = 0;
 		switch (recvdSegment.getType()) {
 		case Keywords.Segments.Types.SYN:
 			sCycleStartDelay = calculateSYNACKDelay(net,
-					controlLink.getTransmissionDelay(Keywords.Segments.Sizes.CTRLSegSize),
-					controlLink.getPropagationDelay(), database.getAccessLinkOfFlowID().get(recvdSegment.getFlowID())
-							.getTotalDelay(Keywords.Segments.Sizes.CTRLSegSize));
+					controlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.CTRLSegSize),
+					controlLink.getPropagationDelayPs(), database.getAccessLinkOfFlowID().get(recvdSegment.getFlowID())
+							.getTotalDelayPs(Keywords.Segments.Sizes.CTRLSegSize));
 			break;
 		case Keywords.Segments.Types.UncontrolledFIN:
 			sCycleStartDelay = calclateMaxCTRLDelay(
-					controlLink.getTransmissionDelay(Keywords.Segments.Sizes.CTRLSegSize),
-					controlLink.getPropagationDelay());
+					controlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.CTRLSegSize),
+					controlLink.getPropagationDelayPs());
 			break;
 		default:
 			break;
 		}
-		sCycleStartDelay = Mathematics.addFloat(sCycleStartDelay,
-				calclateMaxCTRLDelay(controlLink.getTransmissionDelay(Keywords.Segments.Sizes.CTRLSegSize),
-						controlLink.getPropagationDelay()));
-		float sCycleStartTime = Mathematics.addFloat(net.getCurrentTime(), sCycleStartDelay);
+		sCycleStartDelay += calclateMaxCTRLDelay(
+				controlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.CTRLSegSize),
+				controlLink.getPropagationDelayPs());
+		long sCycleStartTime = net.getCurrentTimePs() + sCycleStartDelay;
 		if (mostRecentCycleStartTime > sCycleStartTime) {
 			sCycleStartTime = mostRecentCycleStartTime;
-			sCycleStartDelay = Mathematics.subtractFloat(mostRecentCycleStartTime, net.getCurrentTime());
+			sCycleStartDelay = mostRecentCycleStartTime - net.getCurrentTimePs();
 		} else {
 			mostRecentCycleStartTime = sCycleStartTime;
 		}
 		return sCycleStartDelay;
 	}
 
-	private float calclateMaxCTRLDelay(float controlLinkTransDelayCTRLSize, float controlLinkPropagationDelay) {
-		float maxCTRLDelay = -1;
+	private long calclateMaxCTRLDelay(long controlLinkTransDelayCTRLSize, long controlLinkPropagationDelay) {
+		long maxCTRLDelay = -1;
 		int flowIndex = 0;
 		for (int hostID : database.getFlowIDOfHostIDOfAccessSwitchID().get(database.getAccessSwitchID()).keySet()) {
 			int flowID = database.getFlowIDOfHostID().get(hostID);
-			float CTRLDelay = 0;
+			long CTRLDelay = 0;
 			Link accessLink = database.getAccessLinkOfFlowID().get(flowID);
-			float accessTotalDelay = accessLink.getTotalDelay(Keywords.Segments.Sizes.CTRLSegSize);
-			accessTotalDelay = Mathematics.addFloat(accessTotalDelay,
-					accessLink.getTransmissionDelay(Keywords.Segments.Sizes.ACKSegSize));
-			float CLQDelay = Mathematics.multiplyFloat(flowIndex, controlLinkTransDelayCTRLSize);
-			float CLTotalDelay = Mathematics.addFloat(CLQDelay,
-					Mathematics.addFloat(controlLinkTransDelayCTRLSize, controlLinkPropagationDelay));
-			CTRLDelay = Mathematics.addFloat(accessTotalDelay, CLTotalDelay);
+			long accessTotalDelay = accessLink.getTotalDelayPs(Keywords.Segments.Sizes.CTRLSegSize);
+			accessTotalDelay += accessLink.getTransmissionDelayPs(Keywords.Segments.Sizes.ACKSegSize);
+			long CLQDelay = flowIndex * controlLinkTransDelayCTRLSize;
+			long CLTotalDelay = CLQDelay + controlLinkTransDelayCTRLSize + controlLinkPropagationDelay;
+			CTRLDelay = accessTotalDelay + CLTotalDelay;
 			if (CTRLDelay > maxCTRLDelay) {
 				maxCTRLDelay = CTRLDelay;
 			}
@@ -153,12 +168,12 @@ public class Controllerv2 extends Controller {
 		}
 
 		maxCTRLDelay = -1;
-		float ctrlDelay = 0;
+		long ctrlDelay = 0;
 		flowIndex = 0;
 		for (int hostID : database.getFlowIDOfHostIDOfAccessSwitchID().get(database.getAccessSwitchID()).keySet()) {
 			int flowID = database.getFlowIDOfHostID().get(hostID);
 			ctrlDelay = calculateCTRLDelayOfFlowID(currentNetwork,
-					currentNetwork.getLinks().get(controlLinksIDs.get(database.getAccessSwitchID())), flowID,
+					currentNetwork.getLink(controlLinksIDs.get(database.getAccessSwitchID())), flowID,
 					flowIndex);
 			if (ctrlDelay > maxCTRLDelay) {
 				maxCTRLDelay = ctrlDelay;
@@ -168,58 +183,55 @@ public class Controllerv2 extends Controller {
 		return maxCTRLDelay;
 	}
 
-	private float calculateCTRLDelayOfFlowID(Network net, Link controlLink, int flowID, int flowIndex) {
-		float CLTotalDelay = controlLink.getTotalDelay(Keywords.Segments.Sizes.CTRLSegSize);
-		float CLQDelay = 0;
+	private long calculateCTRLDelayOfFlowID(Network net, Link controlLink, int flowID, int flowIndex) {
+		long CLTotalDelay = controlLink.getTotalDelayPs(Keywords.Segments.Sizes.CTRLSegSize);
+		long CLQDelay = 0;
 		if (recvdSegment.getType() == Keywords.Segments.Types.SYN) {
-			CLQDelay = Mathematics.addFloat(controlLink.getTransmissionDelay(Keywords.Segments.Sizes.CtrlMessageSize),
-					Mathematics.multiplyFloat(flowIndex,
-							controlLink.getTransmissionDelay(Keywords.Segments.Sizes.CTRLSegSize)));
+			CLQDelay = controlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.CtrlMessageSize)
+					+ flowIndex * controlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.CTRLSegSize);
 		} else {
-			CLQDelay = Mathematics.multiplyFloat(flowIndex,
-					controlLink.getTransmissionDelay(Keywords.Segments.Sizes.CTRLSegSize));
+			CLQDelay = flowIndex * controlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.CTRLSegSize);
 		}
-		CLTotalDelay = Mathematics.addFloat(CLTotalDelay, CLQDelay);
-		float ALTotalDelay = database.getAccessLinkOfFlowID().get(flowID)
-				.getTotalDelay(Keywords.Segments.Sizes.CTRLSegSize);
-		float ALQDelay = database.getAccessLinkOfFlowID().get(flowID)
-				.getTransmissionDelay(Keywords.Segments.Sizes.ACKSegSize);
-		ALTotalDelay = Mathematics.addFloat(ALTotalDelay, ALQDelay);
-		float CTRLDelay = Mathematics.addFloat(CLTotalDelay, ALTotalDelay);
+		CLTotalDelay += CLQDelay;
+		long ALTotalDelay = database.getAccessLinkOfFlowID().get(flowID)
+				.getTotalDelayPs(Keywords.Segments.Sizes.CTRLSegSize);
+		long ALQDelay = database.getAccessLinkOfFlowID().get(flowID)
+				.getTransmissionDelayPs(Keywords.Segments.Sizes.ACKSegSize);
+		ALTotalDelay += ALQDelay;
+		long CTRLDelay = CLTotalDelay + ALTotalDelay;
 		return CTRLDelay;
 	}
 
-	private float calculateSInterval() {
-		float maxRTT = Mathematics.multiplyFloat(gamma,
-				database.getMaxRTTOfAccessSwitchID().get(database.getAccessSwitchID()));
+	private long calculateSInterval() {
+		long maxRTT = Math
+				.round(gamma * (double) database.getMaxRTTOfAccessSwitchID().get(database.getAccessSwitchID()));
 		return maxRTT;
 	}
 
-	private float calculateSYNACKDelay(Network net, float CLTransDelayCTRLSize, float CLPropDelay,
-			float accessLinkTotalDelaySYNSize) {
-		Link networkBtlLink = net.getLinks().get(database.getNetworkBtlLinkIDOfFlowID().get(recvdSegment.getFlowID()));
-		float networkBtlTransDelay_Data = networkBtlLink.getTransmissionDelay(Keywords.Segments.Sizes.DataSegSize);
-		float networkBtlTransDelay_ACK = networkBtlLink.getTransmissionDelay(Keywords.Segments.Sizes.ACKSegSize);
+	private long calculateSYNACKDelay(Network net, long CLTransDelayCTRLSize, long CLPropDelay,
+			long accessLinkTotalDelaySYNSize) {
+		Link networkBtlLink = net.getLink(database.getNetworkBtlLinkIDOfFlowID().get(recvdSegment.getFlowID()));
+		long networkBtlTransDelay_Data = networkBtlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.DataSegSize);
+		long networkBtlTransDelay_ACK = networkBtlLink.getTransmissionDelayPs(Keywords.Segments.Sizes.ACKSegSize);
 		int numberOfFlwos = database.getNumberOfFlowsForAccessSwitch(database.getAccessSwitchID());
 
-		float CLQDelay_i = Mathematics.multiplyFloat(numberOfFlwos + 1, CLTransDelayCTRLSize);
-		CLQDelay_i = Mathematics.multiplyFloat(numberOfFlwos, CLQDelay_i);
-		float CLTotalDelay = Mathematics.addFloat(CLQDelay_i, Mathematics.addFloat(CLTransDelayCTRLSize, CLPropDelay));
-		float synRtt_i = database.getSYNRTTOfFlowID().get(recvdSegment.getFlowID());
-		float synRtt_Queue = Mathematics.addFloat(networkBtlTransDelay_Data, networkBtlTransDelay_ACK);
-		synRtt_i = Mathematics.addFloat(synRtt_i, synRtt_Queue);
-		float SYNACKDelay = Mathematics.addFloat(synRtt_i, CLTotalDelay);
-		SYNACKDelay = Mathematics.multiplyFloat(beta, SYNACKDelay);
-		SYNACKDelay = Mathematics.subtractFloat(SYNACKDelay, accessLinkTotalDelaySYNSize);
+		long CLQDelay_i = (numberOfFlwos + 1) * CLTransDelayCTRLSize;
+		CLQDelay_i = numberOfFlwos * CLQDelay_i;
+		long CLTotalDelay = CLQDelay_i + CLTransDelayCTRLSize + CLPropDelay;
+		long synRtt_i = database.getSYNRTTOfFlowID().get(recvdSegment.getFlowID());
+		long synRtt_Queue = networkBtlTransDelay_Data + networkBtlTransDelay_ACK;
+		synRtt_i += synRtt_Queue;
+		long SYNACKDelay = synRtt_i + CLTotalDelay;
+		SYNACKDelay = Math.round(beta * (double) SYNACKDelay);
+		SYNACKDelay -= accessLinkTotalDelaySYNSize;
 		return SYNACKDelay;
 	}
 
-	private int calculateFlowSWnd(float sInterval, float flowBtlBw) {
-		float numinator = Mathematics.multiplyFloat(sInterval, flowBtlBw);
-		float denuminator = Mathematics.multiplyFloat(Keywords.Segments.Sizes.DataSegSize,
-				database.getNumberOfFlowsForAccessSwitch(database.getAccessSwitchID()));
-		int flowSWnd = (int) Math
-				.floor((Mathematics.multiplyFloat(alpha, Mathematics.divideFloat(numinator, denuminator)))) - 1;
+	private int calculateFlowSWnd(long sInterval, float flowBtlBw) {
+		double numinator = Mathematics.picoToMicro(sInterval) * (double) flowBtlBw;
+		double denuminator = (double) Keywords.Segments.Sizes.DataSegSize
+				* database.getNumberOfFlowsForAccessSwitch(database.getAccessSwitchID());
+		int flowSWnd = (int) Math.floor(alpha * (numinator / denuminator)) - 1;
 		if (flowSWnd < 1) {
 			flowSWnd = 1;
 		}
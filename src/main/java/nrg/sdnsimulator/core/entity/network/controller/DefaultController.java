@@ -23,13 +23,15 @@ public class DefaultController extends Controller {
 			database.addFlow(switchID, segment.getSrcHostID(), segment.getFlowID());
 
 			handleRouting(net, switchID, getAccessSwitchID(net, recvdSegment.getDstHostID()));
-			sendPacketToSwitch(net, switchID, new Packet(recvdSegment, null));
+			sendPacketToSwitch(net, switchID, packet);
 			break;
 		case Keywords.Segments.Types.FIN:
 			database.removeFlow(switchID, segment.getSrcHostID(), segment.getFlowID());
-			sendPacketToSwitch(net, switchID, new Packet(recvdSegment, null));
+			sendPacketToSwitch(net, switchID, packet);
 			break;
 		default:
+			// The packet ends here
+			net.getEventPool().release(packet);
 			break;
 		}
 	}
@@ -4,6 +4,7 @@
 package nrg.sdnsimulator.core.entity.network.controller.router;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -16,7 +17,7 @@ import nrg.sdnsimulator.core.utility.Keywords;
 public class Dijkstra extends Router {
 
 	private HashMap<Integer, Float> distance; // <SwitchID, PropagationDelay>
-	private HashMap<Integer, SDNSwitch> nodes;
+	private Map<Integer, SDNSwitch> nodes;
 	private HashMap<Integer, Integer> previous; // <SwitchID, SwitchID>
 	private HashMap<Integer, Integer> unvisited; // <SwitchID, sameSwitchID>
 	private HashMap<Integer, Integer> result; // <SwitchID, SwitchID>
@@ -30,7 +31,7 @@ public class Dijkstra extends Router {
 
 	}
 
-	public void setNodeInformation(HashMap<Integer, SDNSwitch> nodes) {
+	public void setNodeInformation(Map<Integer, SDNSwitch> nodes) {
 		this.nodes = nodes;
 	}
 
@@ -63,7 +64,7 @@ public class Dijkstra extends Router {
 
 			for (int n : nodes.get(minNodeID).getNetworkLinksIDs().keySet()) { // For each neighbor n of minNode
 				float alt = distance.get(minNodeID)
-						+ net.getLinks().get(nodes.get(minNodeID).getNetworkLinksIDs().get(n))
+						+ net.getLink(nodes.get(minNodeID).getNetworkLinksIDs().get(n))
 								.getTotalDelay(Keywords.Segments.Sizes.DataSegSize);
 
 				if (alt < distance.get(n)) {
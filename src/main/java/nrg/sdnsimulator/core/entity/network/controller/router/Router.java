@@ -1,6 +1,7 @@
 package nrg.sdnsimulator.core.entity.network.controller.router;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import nrg.sdnsimulator.core.Network;
 import nrg.sdnsimulator.core.entity.network.SDNSwitch;
@@ -10,7 +11,7 @@ public abstract class Router {
 	public Router() {
 	}
 
-	public abstract void setNodeInformation(HashMap<Integer, SDNSwitch> nodes);
+	public abstract void setNodeInformation(Map<Integer, SDNSwitch> nodes);
 
 	public abstract HashMap<Integer, Integer> run(Network net, int srcID, int targetID);
 
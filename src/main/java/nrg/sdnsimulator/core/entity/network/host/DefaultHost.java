@@ -3,7 +3,7 @@ package nrg.sdnsimulator.core.entity.network.host;
 import nrg.sdnsimulator.core.Network;
 import nrg.sdnsimulator.core.entity.network.Host;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
-import nrg.sdnsimulator.core.event.ArrivalToNode;
+import nrg.sdnsimulator.core.entity.traffic.Segment;
 
 public class DefaultHost extends Host {
 
@@ -13,18 +13,34 @@ public class DefaultHost extends Host {
 
 	public void initialize(Network net) {
 		transportAgent.sendFirst(net);
-		net.getEventList().addEvent(new ArrivalToNode(transportAgent.getFlow().getArrivalTime(), -1,
-				this.ID, new Packet(transportAgent.getSegmentsToSend().get(0), null)));
+		net.addEvent(net.getEventPool().acquireArrivalToNode(
+				transportAgent.getFlow().getArrivalTimePs(), -1, this,
+				net.getEventPool().acquirePacket(transportAgent.getSegmentsToSend().get(0), null)), this);
 		transportAgent.getSegmentsToSend().clear();
 	}
 
 	public void recvPacket(Network net, int srcNodeID, Packet packet) {
-		transportAgent.recvSegment(net, packet.getSegment());
+		Segment segment = packet.getSegment();
+		net.getEventPool().release(packet);
+		if (isRetired) {
+			net.getEventPool().release(segment);
+			return;
+		}
+		boolean isLastSegment = transportAgent.isLastSegment(segment);
+		transportAgent.recvSegment(net, segment);
 		sendSegments(net);
+		// The agents only keep a segment they send again, see EventPool.storePacket
+		net.getEventPool().release(segment);
+		if (isLastSegment) {
+			net.flowFinished(transportAgent);
+		}
 	}
 
 	@Override
 	public void executeTimeOut(Network net, int timerID) {
+		if (isRetired) {
+			return;
+		}
 		// The host must pass the timeout notification to the agent
 		transportAgent.timeout(net, timerID);
 		sendSegments(net);
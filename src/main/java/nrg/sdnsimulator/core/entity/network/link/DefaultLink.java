@@ -1,15 +1,13 @@
 package nrg.sdnsimulator.core.entity.network.link;
 
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.network.Host;
 import nrg.sdnsimulator.core.entity.network.Link;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
-import nrg.sdnsimulator.core.event.ArrivalToNode;
-import nrg.sdnsimulator.core.event.DepartureFromNode;
-import nrg.sdnsimulator.core.utility.Mathematics;
 
 public class DefaultLink extends Link {
 
-	public DefaultLink(int ID, int sourceID, int destinationID, float propagationDelay, float band,
+	public DefaultLink(int ID, int sourceID, int destinationID, long propagationDelay, float band,
 			short bufferType, int bufferSize, int bufferPolicy) {
 		super(ID, sourceID, destinationID, propagationDelay, band, bufferType, bufferSize,
 				bufferPolicy);
@@ -17,46 +15,60 @@ public class DefaultLink extends Link {
 
 	public void bufferPacket(Network net, Packet packet) {
 
-		if (packet.getSegment() != null) {
-			updateSegementArrivalToLinkCounters(net.getCurrentTime(),
-					packet.getSegment().getFlowID());
+		if (packet.getSegment() != null && isMonitored) {
+			float arrivalTime = net.getCurrentTime();
+			int flowID = packet.getSegment().getFlowID();
+			net.updateStatistics(() -> updateSegementArrivalToLinkCounters(arrivalTime, flowID));
 		}
 
-		float bufferTime = buffer.enQueue(net.getCurrentTime(),
-				getTransmissionDelay(packet.getSize()));
+		long transmissionDelay = getTransmissionDelayPs(packet.getSize());
+		long bufferTime = buffer.enQueue(net.getCurrentTimePs(), transmissionDelay);
 		if (bufferTime >= 0) {
-			float transmissionDelay = getTransmissionDelay(packet.getSize());
-			float nextTime = Mathematics.addFloat(net.getCurrentTime(), bufferTime);
-			nextTime = Mathematics.addFloat(nextTime, transmissionDelay);
-			net.getEventList().addEvent(new DepartureFromNode(nextTime, this.ID, packet));
-
 			/** ===== Statistical Counters ===== **/
+			net.updateStatistics(() -> updateQueueingDelayCounter(bufferTime));
 			if (isMonitored) {
 				if (packet.getSegment() != null) {
-					net.getHosts().get(packet.getSegment().getSrcHostID())
-							.updateFlowTotalBufferTime(bufferTime);
-					net.getHosts().get(packet.getSegment().getSrcHostID())
-							.updateDataSegmentsDepartures(packet.getSegment().getSeqNum(),
-									net.getCurrentTime());
-					updateUtilizationCounters(net.getCurrentTime(), packet.getSegment().getFlowID(),
-							transmissionDelay);
-					updateQueueLenghtCounter(net.getCurrentTime(), buffer.getOccupancy());
+					// The host and the link may be in different partitions of an optimistic run
+					Host srcHost = net.getHost(packet.getSegment().getSrcHostID());
+					int seqNum = packet.getSegment().getSeqNum();
+					int flowID = packet.getSegment().getFlowID();
+					long currentTimePs = net.getCurrentTimePs();
+					float currentTime = net.getCurrentTime();
+					int occupancy = buffer.getOccupancy();
+					net.updateStatistics(() -> {
+						// Gone when the flow has finished and its hosts were retired
+						if (srcHost != null) {
+							srcHost.updateFlowTotalBufferTime(bufferTime);
+							srcHost.updateDataSegmentsDepartures(seqNum, currentTime);
+						}
+						updateUtilizationCounters(currentTimePs, flowID, transmissionDelay);
+						updateQueueLenghtCounter(currentTimePs, occupancy);
+					});
 				}
 
 			}
 			/** ================================ **/
+			// Last, with a PacketStore the packet is recycled once its segment is stored
+			long nextTime = net.getCurrentTimePs() + bufferTime + transmissionDelay;
+			net.addEvent(net.getEventPool().acquireDepartureFromNode(nextTime, this, packet), this);
 		} else {
-			// Packet Drop happens here
+			// Packet Drop happens here, the packet belongs to this link alone (see SDNSwitch.broadcastToHosts)
+			net.getEventPool().release(packet);
 		}
 	}
 
 	public void transmitPacket(Network net, Packet packet) {
 		buffer.deQueue();
-		float nextTime = Mathematics.addFloat(net.getCurrentTime(), getPropagationDelay());
-		net.getEventList().addEvent(new ArrivalToNode(nextTime, srcNodeID, dstNodeID, packet));
+		long nextTime = net.getCurrentTimePs() + propagationDelayPs;
+		net.addEvent(net.getEventPool().acquireArrivalToNode(nextTime, srcNodeID, dstNode, packet), this,
+				dstNodeID);
 		/** ===== Statistical Counters ===== **/
-		updateQueueLenghtCounter(net.getCurrentTime(), buffer.getOccupancy());
-		updateMaxQueueLengthCounter(buffer.getOccupancy());
+		long currentTimePs = net.getCurrentTimePs();
+		int occupancy = buffer.getOccupancy();
+		net.updateStatistics(() -> {
+			updateQueueLenghtCounter(currentTimePs, occupancy);
+			updateMaxQueueLengthCounter(occupancy);
+		});
 		/** ================================ **/
 	}
 }
@@ -51,6 +51,12 @@ public class DefaultSDNSwitch extends SDNSwitch {
 				forwardToHost(net, packet.getSegment().getDstHostID(), packet);
 			}
 			/* ================================================ */
+			/* ========== Packet to a retired host ============ */
+			/* ================================================ */
+			else if (net.isRetiredHost(packet.getSegment().getDstHostID())) {
+				net.getEventPool().release(packet);
+			}
+			/* ================================================ */
 			/* ========== Packet to next switch =============== */
 			/* ================================================ */
 			else if (hasFlowEntry(packet.getSegment().getFlowID())) {
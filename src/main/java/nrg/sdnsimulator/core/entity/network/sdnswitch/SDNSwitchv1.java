@@ -16,7 +16,7 @@ public class SDNSwitchv1 extends SDNSwitch {
 		switch (message.getType()) {
 		case Keywords.SDNMessages.Types.BufferTokenUpdate:
 			for (int hostID : message.getCcTokenOfHostID().keySet()) {
-				net.getLinks().get(accessLinksIDs.get(hostID)).getBuffer().updateCCToken(
+				net.getLink(accessLinksIDs.get(hostID)).getBuffer().updateCCToken(
 						net.getCurrentTime(), message.getCcTokenOfHostID().get(hostID));
 			}
 			break;
@@ -54,6 +54,12 @@ public class SDNSwitchv1 extends SDNSwitch {
 				forwardToHost(net, packet.getSegment().getDstHostID(), packet);
 			}
 			/* ================================================ */
+			/* ========== Packet to a retired host ============ */
+			/* ================================================ */
+			else if (net.isRetiredHost(packet.getSegment().getDstHostID())) {
+				net.getEventPool().release(packet);
+			}
+			/* ================================================ */
 			/* ========== Packet to next switch =============== */
 			/* ================================================ */
 			else if (hasFlowEntry(packet.getSegment().getFlowID())) {
@@ -0,0 +1,26 @@
+package nrg.sdnsimulator.core.entity.traffic;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/*
+ * Congestion control parameters a controller sends to a host in a CTRL
+ * segment. Only CTRL segments carry one, DATA and ACK segments leave it null.
+ */
+@Getter
+@Setter
+public class ControlPayload {
+
+	/* Controllerv2 */
+	private int sWnd = 0;
+	// Sending cycle parameters in picoseconds
+	private long timeToNextCycle = 0;
+	private long sInitialDelay = 0;
+	private long sInterval = 0;
+	private long sInterSegmentDelay = 0;
+	/* Controllerv1 */
+	private int sWnd_ = 0;
+	private int bigRTT_ = 0;
+	private float interSegmentDelay_ = 0;
+
+}
@@ -1,10 +1,15 @@
 package nrg.sdnsimulator.core.entity.traffic;
 
-import java.util.TreeMap;
-
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.entity.Entity;
+import nrg.sdnsimulator.core.entity.EntityState;
+import nrg.sdnsimulator.core.entity.NotSaved;
+import nrg.sdnsimulator.core.utility.Mathematics;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.datastructure.SeqNumTimeSeries;
+import nrg.sdnsimulator.core.utility.metric.P2Quantile;
+import nrg.sdnsimulator.core.utility.metric.RunningStatistic;
 
 @Getter
 @Setter
@@ -17,38 +22,81 @@ public class Flow extends Entity {
 	/** ========== Statistical Counters ========== **/
 	private float FINSendingTime;
 	private float dataSendingStartTime; // in Sender Agent
-	private TreeMap<Float, Float> dataSeqNumSendingTimes; // <SeqNum, Time>
-	private TreeMap<Float, Float> ackSeqNumArrivalTimes; // <SeqNum, Time>
-	private float totalBufferTime; // in Buffer (when getting bufferTime)
+	@NotSaved
+	private SeqNumTimeSeries dataSeqNumSendingTimes; // <SeqNum, Time>
+	@NotSaved
+	private SeqNumTimeSeries ackSeqNumArrivalTimes; // <SeqNum, Time>
+	// Off when only the summary statistics are needed, the time series stay empty
+	private boolean seqNumRecording;
+	private long totalBufferTimePs; // in Buffer (when getting bufferTime)
+	// Buffer time (ps) of each segment at the monitored link, without keeping them
+	@NotSaved
+	private RunningStatistic bufferTimeStatistic;
+	@NotSaved
+	private P2Quantile bufferTimeTailQuantile;
 	private int totalDroppedSegments; // in Buffer
 	private int totalSentSegments; // in Sender Agent
-	private float totalTransmissionTime;
+	private long totalTransmissionTimePs;
 	private float arrivalTime; // in Simulator
+	private long arrivalTimePs; // in Simulator, exact
 	private float completionTime; // in Receiver Agent
 
 	/** ========================================== **/
 
 	public Flow(int ID, int srcHostID, int dstHostID, int size, float arrivalTime) {
+		this(ID, srcHostID, dstHostID, size, arrivalTime, Mathematics.microToPico(arrivalTime));
+	}
+
+	/* The float arrival time is for the statistics, the flow starts at arrivalTimePs */
+	public Flow(int ID, int srcHostID, int dstHostID, int size, float arrivalTime, long arrivalTimePs) {
 		super(ID);
 		this.srcHostID = srcHostID;
 		this.dstHostID = dstHostID;
 		this.size = size;
 		this.arrivalTime = arrivalTime;
+		this.arrivalTimePs = arrivalTimePs;
 
 		/** ========== Statistical Counters Initialization ========== **/
 		dataSendingStartTime = 0;
 		completionTime = 0;
 		totalDroppedSegments = 0;
 		totalSentSegments = 0;
-		totalBufferTime = 0;
+		totalBufferTimePs = 0;
 		FINSendingTime = 0;
-		totalTransmissionTime = 0;
+		totalTransmissionTimePs = 0;
+		bufferTimeStatistic = new RunningStatistic();
+		bufferTimeTailQuantile = new P2Quantile(Keywords.Metrics.TailQuantile);
 
-		dataSeqNumSendingTimes = new TreeMap<Float, Float>();
-		ackSeqNumArrivalTimes = new TreeMap<Float, Float>();
+		dataSeqNumSendingTimes = new SeqNumTimeSeries();
+		ackSeqNumArrivalTimes = new SeqNumTimeSeries();
+		seqNumRecording = true;
 		/** ========================================================= **/
 	}
 
+	@Override
+	public void saveState(EntityState state) {
+		super.saveState(state);
+		state.add(FINSendingTime);
+		state.add(dataSendingStartTime);
+		state.add(totalBufferTimePs);
+		state.add(totalDroppedSegments);
+		state.add(totalSentSegments);
+		state.add(totalTransmissionTimePs);
+		state.add(completionTime);
+	}
+
+	@Override
+	public void restoreState(EntityState state) {
+		super.restoreState(state);
+		FINSendingTime = state.next();
+		dataSendingStartTime = state.next();
+		totalBufferTimePs = state.next();
+		totalDroppedSegments = state.next();
+		totalSentSegments = state.next();
+		totalTransmissionTimePs = state.next();
+		completionTime = state.next();
+	}
+
 	public void updateCompletionTime(float completionTime) {
 		this.completionTime = completionTime;
 	}
@@ -58,4 +106,34 @@ public class Flow extends Entity {
 		dataSendingStartTime = startTime;
 	}
 
+	public void updateTotalBufferTime(long bufferTime) {
+		totalBufferTimePs += bufferTime;
+		bufferTimeStatistic.add(bufferTime);
+		bufferTimeTailQuantile.add(bufferTime);
+	}
+
+	public void updateTotalTransmissionTime(long transmissionTime) {
+		totalTransmissionTimePs += transmissionTime;
+	}
+
+	public void updateDataSeqNumSendingTime(int seqNum, float sendingTime) {
+		if (seqNumRecording) {
+			dataSeqNumSendingTimes.put(seqNum, sendingTime);
+		}
+	}
+
+	public void updateAckSeqNumArrivalTime(int seqNum, float arrivalTime) {
+		if (seqNumRecording) {
+			ackSeqNumArrivalTimes.put(seqNum, arrivalTime);
+		}
+	}
+
+	public float getTotalBufferTime() {
+		return Mathematics.picoToMicro(totalBufferTimePs);
+	}
+
+	public float getTotalTransmissionTime() {
+		return Mathematics.picoToMicro(totalTransmissionTimePs);
+	}
+
 }
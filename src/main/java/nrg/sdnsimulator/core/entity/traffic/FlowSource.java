@@ -0,0 +1,27 @@
+package nrg.sdnsimulator.core.entity.traffic;
+
+import nrg.sdnsimulator.core.utility.Mathematics;
+
+/*
+ * Flows handed to the Simulator one at a time in the order of their arrival,
+ * so a run only holds the flows that have arrived and not finished yet (see
+ * Simulator.setFlowSource). The source is a cursor: nextFlow moves it and the
+ * getters read the flow it is on.
+ */
+public interface FlowSource {
+
+	/* Moves to the next flow, false once every flow has been handed out */
+	boolean nextFlow();
+
+	int getFlowIndex();
+
+	float getArrivalTime(); // microseconds
+
+	/* Picoseconds, like the clock; sources that keep exact arrivals return them here */
+	default long getArrivalTimePs() {
+		return Mathematics.microToPico(getArrivalTime());
+	}
+
+	int getSize(); // segments
+
+}
@@ -15,14 +15,25 @@ public class Packet {
 	private int type;
 
 	public Packet(Segment segment, CtrlMessage controlMessage) {
+		reset(segment, controlMessage);
+	}
+
+	/* A copy of the packet as it is, the events that receive it may change it */
+	public Packet(Packet packet) {
+		reset(packet.segment == null ? null : new Segment(packet.segment),
+				packet.controlMessage == null ? null : new CtrlMessage(packet.controlMessage));
+	}
+
+	/* Reuses a released packet, see EventPool.acquirePacket */
+	public void reset(Segment segment, CtrlMessage controlMessage) {
+		this.segment = segment;
+		this.controlMessage = controlMessage;
 		if (segment != null) {
 			size = segment.getSize();
 			type = Keywords.Packets.Types.Segment;
-			this.segment = segment;
 		} else if (controlMessage != null) {
 			size = controlMessage.getSize();
 			type = Keywords.Packets.Types.SDNControl;
-			this.controlMessage = controlMessage;
 		} else {
 		}
 	}
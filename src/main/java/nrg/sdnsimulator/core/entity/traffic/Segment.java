@@ -7,79 +7,41 @@ import lombok.Setter;
 @Setter
 public class Segment {
 
-	private int sWnd = 0;
-	private float timeToNextCycle = 0;
-	private float sInitialDelay = 0;
-	private float sInterval = 0;
-	private float sInterSegmentDelay = 0;
-	private int bigRTT_;
 	private int dstHostID;
 	private int flowID;
-	private float interSegmentDelay_;
-	private float rtt_;
 	private int seqNum;
 	private int size; // in bits
 	private int srcHostID;
-	private int sWnd_;
 	private int type;
+	// Null unless the segment is CTRL
+	private ControlPayload controlPayload;
+	// Owned by the EventPool, recycled once it is stored again or delivered
+	private boolean isPooled;
 
 	public Segment(int flowID, int type, int seqNum, int size, int srcHostID, int dstHostID) {
+		reset(flowID, type, seqNum, size, srcHostID, dstHostID);
+	}
+
+	/* The control payload is shared, it does not change once the segment is sent */
+	public Segment(Segment segment) {
+		reset(segment.flowID, segment.type, segment.seqNum, segment.size, segment.srcHostID, segment.dstHostID);
+		controlPayload = segment.controlPayload;
+	}
+
+	/* Reuses a segment of the pool, see EventPool.acquireSegment and loadPacket */
+	public void reset(int flowID, int type, int seqNum, int size, int srcHostID, int dstHostID) {
 		this.flowID = flowID;
-		sWnd_ = 0;
-		rtt_ = 0;
-		bigRTT_ = 0;
 		this.type = type;
 		this.seqNum = seqNum;
 		this.size = size;
 		this.srcHostID = srcHostID;
 		this.dstHostID = dstHostID;
-
+		controlPayload = null;
+		isPooled = false;
 	}
 
 	public void changeType(int newType) {
 		type = newType;
 	}
 
-	
-	//TODO: resolve the conflict
-	public int getsWnd() {
-		return sWnd;
-	}
-
-	public void setsWnd(int sWnd) {
-		this.sWnd = sWnd;
-	}
-
-	public float getsInitialDelay() {
-		return sInitialDelay;
-	}
-
-	public void setsInitialDelay(float sInitialDelay) {
-		this.sInitialDelay = sInitialDelay;
-	}
-
-	public float getsInterval() {
-		return sInterval;
-	}
-
-	public void setsInterval(float sInterval) {
-		this.sInterval = sInterval;
-	}
-
-	public float getsInterSegmentDelay() {
-		return sInterSegmentDelay;
-	}
-
-	public void setsInterSegmentDelay(float sInterSegmentDelay) {
-		this.sInterSegmentDelay = sInterSegmentDelay;
-	}
-
-	public int getsWnd_() {
-		return sWnd_;
-	}
-
-	public void setsWnd_(int sWnd_) {
-		this.sWnd_ = sWnd_;
-	}
-
 }
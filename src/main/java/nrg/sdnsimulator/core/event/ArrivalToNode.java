@@ -3,7 +3,7 @@ package nrg.sdnsimulator.core.event;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
-import nrg.sdnsimulator.core.Simulator;
+import nrg.sdnsimulator.core.entity.network.Node;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
 import nrg.sdnsimulator.core.utility.Keywords;
 
@@ -11,32 +11,36 @@ import nrg.sdnsimulator.core.utility.Keywords;
 @Setter
 public class ArrivalToNode extends PacketEvent {
 
-	private int nodeID;
+	// Resolved when the event is created, so executing it is a single virtual call
+	private Node node;
 	private int srcNodeID;
 
-	public ArrivalToNode(float eventTime, int srcNodeID, int nodeID, Packet packet) {
+	public ArrivalToNode(long eventTime, int srcNodeID, Node node, Packet packet) {
 		super(eventTime, packet);
-		this.nodeID = nodeID;
+		this.node = node;
 		this.srcNodeID = srcNodeID;
 	}
 
+	void reset(long eventTime, int srcNodeID, Node node, Packet packet) {
+		this.eventTime = eventTime;
+		this.packet = packet;
+		this.node = node;
+		this.srcNodeID = srcNodeID;
+	}
+
+	public int getNodeID() {
+		return node.getID();
+	}
+
+	@Override
+	public short getPriorityClass() {
+		return Keywords.Events.Priorities.Arrival;
+	}
+
 	@Override
 	public void execute(Network net) {
 		net.updateTime(eventTime);
-		short nodeType = Simulator.getNodeType(nodeID);
-		switch (nodeType) {
-		case Keywords.Entities.Nodes.Types.Controller:
-			net.getControllers().get(nodeID).recvPacket(net, srcNodeID, packet);
-			break;
-		case Keywords.Entities.Nodes.Types.SDNSwitch:
-			net.getSwitches().get(nodeID).recvPacket(net, srcNodeID, packet);
-			break;
-		case Keywords.Entities.Nodes.Types.Host:
-			net.getHosts().get(nodeID).recvPacket(net, srcNodeID, packet);
-			break;
-		default:
-			break;
-		}
+		node.recvPacket(net, srcNodeID, net.getEventPool().loadPacket(this));
 	}
 
 }
@@ -3,23 +3,40 @@ package nrg.sdnsimulator.core.event;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.entity.network.Link;
 import nrg.sdnsimulator.core.entity.traffic.Packet;
+import nrg.sdnsimulator.core.utility.Keywords;
 
 @Getter
 @Setter
 public class DepartureFromNode extends PacketEvent {
 
-	private int linkID;
+	private Link link;
 
-	public DepartureFromNode(float eventTime, int linkID, Packet packet) {
+	public DepartureFromNode(long eventTime, Link link, Packet packet) {
 		super(eventTime, packet);
-		this.linkID = linkID;
+		this.link = link;
+	}
+
+	void reset(long eventTime, Link link, Packet packet) {
+		this.eventTime = eventTime;
+		this.packet = packet;
+		this.link = link;
+	}
+
+	public int getLinkID() {
+		return link.getID();
+	}
+
+	@Override
+	public short getPriorityClass() {
+		return Keywords.Events.Priorities.Departure;
 	}
 
 	@Override
 	public void execute(Network net) {
 		net.updateTime(eventTime);
-		net.getLinks().get(linkID).transmitPacket(net, packet);
+		link.transmitPacket(net, net.getEventPool().loadPacket(this));
 	}
 
 }
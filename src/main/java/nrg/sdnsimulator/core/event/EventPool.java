@@ -0,0 +1,246 @@
+package nrg.sdnsimulator.core.event;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.Setter;
+import nrg.sdnsimulator.core.Event;
+import nrg.sdnsimulator.core.entity.network.CtrlMessage;
+import nrg.sdnsimulator.core.entity.network.Link;
+import nrg.sdnsimulator.core.entity.network.Node;
+import nrg.sdnsimulator.core.entity.traffic.Packet;
+import nrg.sdnsimulator.core.entity.traffic.Segment;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.datastructure.PacketStore;
+
+/*
+ * Recycles the events created on every packet hop and sender timer. The
+ * Simulator releases each event right after executing it, so a released
+ * event must not be referenced by any entity. Packets are recycled when they
+ * leave the network: delivered to a host or dropped by a buffer. The DATA and
+ * ACK segments the agents send are recycled once delivered. With a
+ * PacketStore, the segments of the pending packet events are kept off-heap
+ * and the events hold their handles. Pooling is off unless the Testbed turns
+ * it on (setEventPooling). Whether pooling is on or not, the pool counts the
+ * segments in the network from and to each host, so that a lazy run hands the
+ * ID of a retired host out again only once none is left (hasPacketsOf).
+ */
+@Getter
+@Setter
+public class EventPool {
+
+	private boolean isEnabled;
+	private ArrayDeque<ArrivalToNode> arrivals;
+	private ArrayDeque<DepartureFromNode> departures;
+	private ArrayDeque<TimeoutEvent> timeouts;
+	private ArrayDeque<Packet> packets;
+	// DATA and ACK segments, and those rebuilt from the PacketStore
+	private ArrayDeque<Segment> segments;
+	// Null unless segments in flight are stored off-heap
+	private PacketStore packetStore;
+	// Segments in the network from or to each host, at (ID - HostNodeIDOffset)
+	private int[] hostPackets;
+
+	/** ========== Statistical Counters ========== **/
+	private long allocatedEvents;
+	private long recycledEvents;
+	private long allocatedPackets;
+	private long recycledPackets;
+	private long allocatedSegments;
+	private long recycledSegments;
+
+	/** ========================================== **/
+
+	public EventPool(boolean isEnabled) {
+		this.isEnabled = isEnabled;
+		arrivals = new ArrayDeque<ArrivalToNode>();
+		departures = new ArrayDeque<DepartureFromNode>();
+		timeouts = new ArrayDeque<TimeoutEvent>();
+		packets = new ArrayDeque<Packet>();
+		segments = new ArrayDeque<Segment>();
+		packetStore = null;
+		hostPackets = new int[16];
+		allocatedEvents = 0;
+		recycledEvents = 0;
+		allocatedPackets = 0;
+		recycledPackets = 0;
+		allocatedSegments = 0;
+		recycledSegments = 0;
+	}
+
+	public ArrivalToNode acquireArrivalToNode(long eventTime, int srcNodeID, Node node, Packet packet) {
+		ArrivalToNode event = arrivals.pollLast();
+		if (event == null) {
+			allocatedEvents++;
+			event = new ArrivalToNode(eventTime, srcNodeID, node, packet);
+		} else {
+			recycledEvents++;
+			event.reset(eventTime, srcNodeID, node, packet);
+		}
+		storePacket(event);
+		return event;
+	}
+
+	public DepartureFromNode acquireDepartureFromNode(long eventTime, Link link, Packet packet) {
+		DepartureFromNode event = departures.pollLast();
+		if (event == null) {
+			allocatedEvents++;
+			event = new DepartureFromNode(eventTime, link, packet);
+		} else {
+			recycledEvents++;
+			event.reset(eventTime, link, packet);
+		}
+		storePacket(event);
+		return event;
+	}
+
+	public TimeoutEvent acquireTimeoutEvent(long eventTime, Node node, int timerID) {
+		TimeoutEvent event = timeouts.pollLast();
+		if (event == null) {
+			allocatedEvents++;
+			return new TimeoutEvent(eventTime, node, timerID);
+		}
+		recycledEvents++;
+		event.reset(eventTime, node, timerID);
+		return event;
+	}
+
+	/* A packet entering the network, it leaves it through release */
+	public Packet acquirePacket(Segment segment, CtrlMessage controlMessage) {
+		if (segment != null) {
+			countHostPacket(segment.getSrcHostID(), 1);
+			countHostPacket(segment.getDstHostID(), 1);
+		}
+		return obtainPacket(segment, controlMessage);
+	}
+
+	private Packet obtainPacket(Segment segment, CtrlMessage controlMessage) {
+		Packet packet = packets.pollLast();
+		if (packet == null) {
+			allocatedPackets++;
+			return new Packet(segment, controlMessage);
+		}
+		recycledPackets++;
+		packet.reset(segment, controlMessage);
+		return packet;
+	}
+
+	/*
+	 * A DATA or ACK segment to send, recycled once the host it is sent to is
+	 * done with it (see DefaultHost). The agents do not send these again, a
+	 * segment an agent sends again must be created with new.
+	 */
+	public Segment acquireSegment(int flowID, int type, int seqNum, int size, int srcHostID, int dstHostID) {
+		if (!isEnabled) {
+			return new Segment(flowID, type, seqNum, size, srcHostID, dstHostID);
+		}
+		Segment segment = segments.pollLast();
+		if (segment == null) {
+			allocatedSegments++;
+			segment = new Segment(flowID, type, seqNum, size, srcHostID, dstHostID);
+		} else {
+			recycledSegments++;
+			segment.reset(flowID, type, seqNum, size, srcHostID, dstHostID);
+		}
+		segment.setPooled(true);
+		return segment;
+	}
+
+	public void release(Packet packet) {
+		if (packet.getSegment() != null) {
+			countHostPacket(packet.getSegment().getSrcHostID(), -1);
+			countHostPacket(packet.getSegment().getDstHostID(), -1);
+		}
+		if (!isEnabled) {
+			return;
+		}
+		packet.setSegment(null);
+		packet.setControlMessage(null);
+		packets.addLast(packet);
+	}
+
+	/*
+	 * Moves the segment of a DATA or ACK packet to the store, CTRL segments keep
+	 * their payload on the heap. The packet is recycled whether pooling is on or
+	 * not, so the caller must not read it afterwards, and so is the segment if
+	 * it is pooled.
+	 */
+	private void storePacket(PacketEvent event) {
+		event.packetHandle = -1;
+		Packet packet = event.packet;
+		if (packetStore == null || packet.getSegment() == null || packet.getSegment().getControlPayload() != null) {
+			return;
+		}
+		Segment segment = packet.getSegment();
+		event.packetHandle = packetStore.add(segment);
+		event.packet = null;
+		release(segment);
+		packet.setSegment(null);
+		packets.addLast(packet);
+	}
+
+	/* Recycles a pooled segment once it is stored again or its agent is done with it */
+	public void release(Segment segment) {
+		if (segment.isPooled()) {
+			segment.setPooled(false);
+			segments.addLast(segment);
+		}
+	}
+
+	/* The packet of the event, taken out of the store when it is executed */
+	public Packet loadPacket(PacketEvent event) {
+		if (event.packetHandle < 0) {
+			return event.packet;
+		}
+		Segment segment = segments.pollLast();
+		if (segment == null) {
+			allocatedSegments++;
+			segment = new Segment(0, 0, 0, 0, 0, 0);
+		} else {
+			recycledSegments++;
+		}
+		packetStore.remove(event.packetHandle, segment);
+		segment.setPooled(true);
+		event.packetHandle = -1;
+		// Still in the network, counted when it was acquired
+		event.packet = obtainPacket(segment, null);
+		return event.packet;
+	}
+
+	/* Other IDs, the controller and the broadcast destination, are not counted */
+	private void countHostPacket(int hostID, int count) {
+		int index = hostID - Keywords.HostNodeIDOffset;
+		if (index < 0) {
+			return;
+		}
+		if (index >= hostPackets.length) {
+			hostPackets = Arrays.copyOf(hostPackets, Math.max(index + 1, 2 * hostPackets.length));
+		}
+		hostPackets[index] += count;
+	}
+
+	/* Whether a segment from or to the host is still in the network */
+	public boolean hasPacketsOf(int hostID) {
+		int index = hostID - Keywords.HostNodeIDOffset;
+		return index >= 0 && index < hostPackets.length && hostPackets[index] != 0;
+	}
+
+	public void release(Event event) {
+		if (!isEnabled) {
+			return;
+		}
+		if (event instanceof ArrivalToNode) {
+			ArrivalToNode arrival = (ArrivalToNode) event;
+			arrival.setPacket(null);
+			arrivals.addLast(arrival);
+		} else if (event instanceof DepartureFromNode) {
+			DepartureFromNode departure = (DepartureFromNode) event;
+			departure.setPacket(null);
+			departures.addLast(departure);
+		} else if (event instanceof TimeoutEvent) {
+			timeouts.addLast((TimeoutEvent) event);
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package nrg.sdnsimulator.core.event;
+
+import nrg.sdnsimulator.core.Event;
+import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.Simulator;
+
+/*
+ * Arrival of the next flow of the FlowSource of a lazy run. The Simulator
+ * builds the flow when it executes and schedules the same event again for the
+ * flow after it, so only one arrival is ever queued.
+ */
+public class FlowArrival extends Event {
+
+	private final Simulator simulator;
+
+	public FlowArrival(long eventTime, Simulator simulator) {
+		super(eventTime);
+		this.simulator = simulator;
+	}
+
+	public void reset(long eventTime) {
+		this.eventTime = eventTime;
+	}
+
+	@Override
+	public void execute(Network net) {
+		net.updateTime(eventTime);
+		simulator.injectFlow(this);
+	}
+
+}
@@ -10,10 +10,13 @@ import nrg.sdnsimulator.core.entity.traffic.Packet;
 public abstract class PacketEvent extends Event {
 
 	protected Packet packet;
+	// Row of the segment in the PacketStore of the network, -1 when the event holds the packet
+	protected int packetHandle;
 
-	public PacketEvent(float eventTime, Packet packet) {
+	public PacketEvent(long eventTime, Packet packet) {
 		super(eventTime);
 		this.packet = packet;
+		packetHandle = -1;
 	}
 
 }
@@ -4,39 +4,41 @@ import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.Event;
 import nrg.sdnsimulator.core.Network;
-import nrg.sdnsimulator.core.Simulator;
+import nrg.sdnsimulator.core.entity.network.Node;
 import nrg.sdnsimulator.core.utility.Keywords;
 
 @Getter
 @Setter
 public class TimeoutEvent extends Event {
-	private int nodeID;
+	private Node node;
 	private int timerID;
 
-	public TimeoutEvent(float eventTime, int nodeID, int timerID) {
+	public TimeoutEvent(long eventTime, Node node, int timerID) {
 		super(eventTime);
-		this.nodeID = nodeID;
+		this.node = node;
 		this.timerID = timerID;
 	}
 
+	void reset(long eventTime, Node node, int timerID) {
+		this.eventTime = eventTime;
+		this.node = node;
+		this.timerID = timerID;
+	}
+
+	public int getNodeID() {
+		return node.getID();
+	}
+
+	@Override
+	public short getPriorityClass() {
+		return Keywords.Events.Priorities.Timeout;
+	}
+
 	@Override
 	public void execute(Network net) {
 		// Debugger.debugEvent("TimeOut", eventTime, null);
 		net.updateTime(eventTime);
-		short nodeType = Simulator.getNodeType(nodeID);
-		switch (nodeType) {
-		case Keywords.Entities.Nodes.Types.Controller:
-			net.getControllers().get(nodeID).executeTimeOut(net, timerID);
-			break;
-		case Keywords.Entities.Nodes.Types.SDNSwitch:
-			net.getSwitches().get(nodeID).executeTimeOut(net, timerID);
-			break;
-		case Keywords.Entities.Nodes.Types.Host:
-			net.getHosts().get(nodeID).executeTimeOut(net, timerID);
-			break;
-		default:
-			break;
-		}
+		node.executeTimeOut(net, timerID);
 	}
 
 }
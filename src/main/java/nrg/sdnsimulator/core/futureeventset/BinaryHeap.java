@@ -0,0 +1,9 @@
+package nrg.sdnsimulator.core.futureeventset;
+
+public class BinaryHeap extends DAryHeap {
+
+	public BinaryHeap() {
+		super(2);
+	}
+
+}
@@ -0,0 +1,266 @@
+package nrg.sdnsimulator.core.futureeventset;
+
+import java.util.Arrays;
+
+import nrg.sdnsimulator.core.Event;
+import nrg.sdnsimulator.core.FutureEventSet;
+
+/*
+ * Calendar queue (R. Brown, 1988) with O(1) amortized insert and poll. Each
+ * bucket holds the events of one "day" (bucket width) of every "year" in
+ * time order. The number of buckets follows the queue size and the bucket
+ * width is re-estimated from the observed gaps between dequeued events.
+ */
+public class CalendarQueue extends FutureEventSet {
+
+	private static final int MinBuckets = 2;
+	private static final int InitialBucketCapacity = 4;
+	private static final int GapSamples = 32;
+	private static final int WidthCheckInterval = 4096;
+
+	private Event[][] bucketEvents;
+	private int[] bucketStart;
+	private int[] bucketEnd;
+	private int numberOfBuckets;
+	private long bucketWidth; // picoseconds
+	// Index of the current bucket counted from time zero (not wrapped)
+	private long currentVirtualBucket;
+	private int size;
+
+	/* ========== Bucket width estimation ========== */
+	private long[] dequeueGaps;
+	private int dequeueGapIndex;
+	private int dequeueGapCount;
+	private long lastDequeuedTime;
+	private int dequeuesSinceWidthCheck;
+
+	public CalendarQueue() {
+		size = 0;
+		dequeueGaps = new long[GapSamples];
+		dequeueGapIndex = 0;
+		dequeueGapCount = 0;
+		lastDequeuedTime = 0;
+		dequeuesSinceWidthCheck = 0;
+		allocateBuckets(MinBuckets, 1, 0);
+	}
+
+	@Override
+	public void insert(Event event) {
+		long virtualBucket = virtualBucketOf(event.getEventTime());
+		if (size == 0 || virtualBucket < currentVirtualBucket) {
+			currentVirtualBucket = virtualBucket;
+		}
+		insertIntoBucket(event, virtualBucket);
+		size++;
+		if (size > 2 * numberOfBuckets) {
+			resize(2 * numberOfBuckets, estimateBucketWidth());
+		}
+	}
+
+	@Override
+	public Event peek() {
+		if (size == 0) {
+			return null;
+		}
+		int bucket = findFirstBucket();
+		return bucketEvents[bucket][bucketStart[bucket]];
+	}
+
+	@Override
+	public Event poll() {
+		if (size == 0) {
+			return null;
+		}
+		int bucket = findFirstBucket();
+		int start = bucketStart[bucket];
+		Event first = bucketEvents[bucket][start];
+		bucketEvents[bucket][start] = null;
+		bucketStart[bucket] = start + 1;
+		if (bucketStart[bucket] == bucketEnd[bucket]) {
+			bucketStart[bucket] = 0;
+			bucketEnd[bucket] = 0;
+		}
+		size--;
+		recordDequeue(first.getEventTime());
+		if (shouldShrink()) {
+			resize(numberOfBuckets / 2, estimateBucketWidth());
+		} else if (++dequeuesSinceWidthCheck >= WidthCheckInterval) {
+			dequeuesSinceWidthCheck = 0;
+			long estimatedWidth = estimateBucketWidth();
+			if (estimatedWidth > 2 * bucketWidth || estimatedWidth < bucketWidth / 2) {
+				resize(numberOfBuckets, estimatedWidth);
+			}
+		}
+		return first;
+	}
+
+	@Override
+	public boolean remove(Event event) {
+		int bucket = (int) Math.floorMod(virtualBucketOf(event.getEventTime()), (long) numberOfBuckets);
+		Event[] events = bucketEvents[bucket];
+		int end = bucketEnd[bucket];
+		for (int i = bucketStart[bucket]; i < end; i++) {
+			if (events[i] == event) {
+				System.arraycopy(events, i + 1, events, i, end - i - 1);
+				events[end - 1] = null;
+				bucketEnd[bucket] = end - 1;
+				if (bucketStart[bucket] == bucketEnd[bucket]) {
+					bucketStart[bucket] = 0;
+					bucketEnd[bucket] = 0;
+				}
+				size--;
+				if (shouldShrink()) {
+					resize(numberOfBuckets / 2, estimateBucketWidth());
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public int getNumberOfBuckets() {
+		return numberOfBuckets;
+	}
+
+	public long getBucketWidth() {
+		return bucketWidth;
+	}
+
+	private boolean shouldShrink() {
+		return size < numberOfBuckets / 2 && numberOfBuckets > MinBuckets;
+	}
+
+	/* Moves currentVirtualBucket to the bucket holding the earliest event */
+	private int findFirstBucket() {
+		for (int scanned = 0; scanned < numberOfBuckets; scanned++) {
+			int bucket = (int) Math.floorMod(currentVirtualBucket, (long) numberOfBuckets);
+			if (bucketStart[bucket] < bucketEnd[bucket] && virtualBucketOf(
+					bucketEvents[bucket][bucketStart[bucket]].getEventTime()) <= currentVirtualBucket) {
+				return bucket;
+			}
+			currentVirtualBucket++;
+		}
+		// A whole year is empty: jump directly to the earliest event
+		int firstBucket = -1;
+		for (int bucket = 0; bucket < numberOfBuckets; bucket++) {
+			if (bucketStart[bucket] < bucketEnd[bucket] && (firstBucket == -1 || bucketEvents[bucket][bucketStart[bucket]]
+					.isBefore(bucketEvents[firstBucket][bucketStart[firstBucket]]))) {
+				firstBucket = bucket;
+			}
+		}
+		currentVirtualBucket = virtualBucketOf(bucketEvents[firstBucket][bucketStart[firstBucket]].getEventTime());
+		return firstBucket;
+	}
+
+	private void insertIntoBucket(Event event, long virtualBucket) {
+		int bucket = (int) Math.floorMod(virtualBucket, (long) numberOfBuckets);
+		Event[] events = bucketEvents[bucket];
+		int start = bucketStart[bucket];
+		int end = bucketEnd[bucket];
+		if (end == events.length) {
+			int count = end - start;
+			if (start > count) {
+				// Reclaim the slots of already polled events
+				System.arraycopy(events, start, events, 0, count);
+				Arrays.fill(events, count, end, null);
+			} else {
+				events = Arrays.copyOf(events, events.length * 2);
+				System.arraycopy(events, start, events, 0, count);
+				Arrays.fill(events, count, end, null);
+				bucketEvents[bucket] = events;
+			}
+			start = 0;
+			end = count;
+			bucketStart[bucket] = start;
+		}
+		// Most events are scheduled after the ones already in their bucket
+		int position = end;
+		while (position > start && event.isBefore(events[position - 1])) {
+			events[position] = events[position - 1];
+			position--;
+		}
+		events[position] = event;
+		bucketEnd[bucket] = end + 1;
+	}
+
+	private void resize(int newNumberOfBuckets, long newBucketWidth) {
+		Event[][] oldEvents = bucketEvents;
+		int[] oldStart = bucketStart;
+		int[] oldEnd = bucketEnd;
+		long firstTime = size > 0 ? peek().getEventTime() : lastDequeuedTime;
+		if (dequeueGapCount < 2 && size > 1) {
+			// Nothing dequeued yet: spread the pending events over the new buckets
+			long lastTime = firstTime;
+			for (int bucket = 0; bucket < oldEvents.length; bucket++) {
+				if (oldStart[bucket] < oldEnd[bucket]) {
+					lastTime = Math.max(lastTime, oldEvents[bucket][oldEnd[bucket] - 1].getEventTime());
+				}
+			}
+			if (lastTime > firstTime) {
+				newBucketWidth = Math.max(1, 3 * (lastTime - firstTime) / size);
+			}
+		}
+		allocateBuckets(newNumberOfBuckets, newBucketWidth, firstTime);
+		for (int bucket = 0; bucket < oldEvents.length; bucket++) {
+			for (int i = oldStart[bucket]; i < oldEnd[bucket]; i++) {
+				Event event = oldEvents[bucket][i];
+				insertIntoBucket(event, virtualBucketOf(event.getEventTime()));
+			}
+		}
+	}
+
+	private void allocateBuckets(int newNumberOfBuckets, long newBucketWidth, long firstTime) {
+		numberOfBuckets = newNumberOfBuckets;
+		bucketWidth = newBucketWidth;
+		bucketEvents = new Event[numberOfBuckets][InitialBucketCapacity];
+		bucketStart = new int[numberOfBuckets];
+		bucketEnd = new int[numberOfBuckets];
+		currentVirtualBucket = virtualBucketOf(firstTime);
+	}
+
+	private void recordDequeue(long eventTime) {
+		dequeueGaps[dequeueGapIndex] = eventTime - lastDequeuedTime;
+		dequeueGapIndex = (dequeueGapIndex + 1) % GapSamples;
+		if (dequeueGapCount < GapSamples) {
+			dequeueGapCount++;
+		}
+		lastDequeuedTime = eventTime;
+	}
+
+	/*
+	 * Brown's estimate: three times the average gap between consecutive events,
+	 * ignoring gaps larger than twice the plain average.
+	 */
+	private long estimateBucketWidth() {
+		if (dequeueGapCount < 2) {
+			return bucketWidth;
+		}
+		double sum = 0;
+		for (int i = 0; i < dequeueGapCount; i++) {
+			sum += dequeueGaps[i];
+		}
+		double average = sum / dequeueGapCount;
+		double trimmedSum = 0;
+		int trimmedCount = 0;
+		for (int i = 0; i < dequeueGapCount; i++) {
+			if (dequeueGaps[i] <= 2 * average) {
+				trimmedSum += dequeueGaps[i];
+				trimmedCount++;
+			}
+		}
+		if (trimmedSum <= 0) {
+			return bucketWidth;
+		}
+		return Math.max(1, Math.round(3 * trimmedSum / trimmedCount));
+	}
+
+	private long virtualBucketOf(long eventTime) {
+		return Math.floorDiv(eventTime, bucketWidth);
+	}
+
+}
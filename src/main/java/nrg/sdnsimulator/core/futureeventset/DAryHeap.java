@@ -0,0 +1,119 @@
+package nrg.sdnsimulator.core.futureeventset;
+
+import java.util.Arrays;
+
+import nrg.sdnsimulator.core.Event;
+import nrg.sdnsimulator.core.FutureEventSet;
+
+/* Array-backed d-ary min-heap with O(log n) insert, poll and remove */
+public abstract class DAryHeap extends FutureEventSet {
+
+	private static final int InitialCapacity = 64;
+
+	private final int arity;
+	private Event[] events;
+	private int size;
+
+	public DAryHeap(int arity) {
+		this.arity = arity;
+		events = new Event[InitialCapacity];
+		size = 0;
+	}
+
+	@Override
+	public void insert(Event event) {
+		if (size == events.length) {
+			events = Arrays.copyOf(events, size * 2);
+		}
+		siftUp(size, event);
+		size++;
+	}
+
+	@Override
+	public Event peek() {
+		if (size == 0) {
+			return null;
+		}
+		return events[0];
+	}
+
+	@Override
+	public Event poll() {
+		if (size == 0) {
+			return null;
+		}
+		Event first = events[0];
+		first.setPosition(-1);
+		size--;
+		Event last = events[size];
+		events[size] = null;
+		if (size > 0) {
+			siftDown(0, last);
+		}
+		return first;
+	}
+
+	@Override
+	public boolean remove(Event event) {
+		int index = event.getPosition();
+		if (index < 0 || index >= size || events[index] != event) {
+			return false;
+		}
+		event.setPosition(-1);
+		size--;
+		Event last = events[size];
+		events[size] = null;
+		if (index < size) {
+			if (index > 0 && last.isBefore(events[(index - 1) / arity])) {
+				siftUp(index, last);
+			} else {
+				siftDown(index, last);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void siftUp(int index, Event event) {
+		while (index > 0) {
+			int parent = (index - 1) / arity;
+			if (!event.isBefore(events[parent])) {
+				break;
+			}
+			events[index] = events[parent];
+			events[index].setPosition(index);
+			index = parent;
+		}
+		events[index] = event;
+		event.setPosition(index);
+	}
+
+	private void siftDown(int index, Event event) {
+		while (true) {
+			int firstChild = index * arity + 1;
+			if (firstChild >= size) {
+				break;
+			}
+			int lastChild = Math.min(firstChild + arity, size);
+			int minChild = firstChild;
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				if (events[child].isBefore(events[minChild])) {
+					minChild = child;
+				}
+			}
+			if (!events[minChild].isBefore(event)) {
+				break;
+			}
+			events[index] = events[minChild];
+			events[index].setPosition(index);
+			index = minChild;
+		}
+		events[index] = event;
+		event.setPosition(index);
+	}
+
+}
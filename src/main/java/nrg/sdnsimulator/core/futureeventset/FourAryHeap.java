@@ -0,0 +1,10 @@
+package nrg.sdnsimulator.core.futureeventset;
+
+/* Shallower than the binary heap, so fewer cache misses on large event sets */
+public class FourAryHeap extends DAryHeap {
+
+	public FourAryHeap() {
+		super(4);
+	}
+
+}
@@ -0,0 +1,96 @@
+package nrg.sdnsimulator.core.system;
+
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import nrg.sdnsimulator.core.Event;
+import nrg.sdnsimulator.core.EventList;
+import nrg.sdnsimulator.core.Network;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.Mathematics;
+import nrg.sdnsimulator.topology.Dumbbell;
+import nrg.sdnsimulator.topology.Testbed;
+
+/*
+ * Compares the future event set implementations on the event pattern of the
+ * Dumbbell testbed. Every flow keeps one packet in flight that alternates
+ * between a departure (transmission delay of a DATA segment) and an arrival
+ * (propagation delay of the link), so the event list holds one event per flow.
+ */
+public class EventListBenchmark {
+
+	private static final int[] NumberOfFlows = { 1000, 10000, 100000 };
+	private static final int EventsPerRun = 5000000;
+
+	private static class HopEvent extends Event {
+
+		private boolean isDeparture;
+
+		public HopEvent(long eventTime) {
+			super(eventTime);
+			isDeparture = true;
+		}
+
+		@Override
+		public void execute(Network net) {
+		}
+
+		public void hop(long transmissionDelay, long propagationDelay) {
+			if (isDeparture) {
+				eventTime += propagationDelay;
+			} else {
+				eventTime += transmissionDelay;
+			}
+			isDeparture = !isDeparture;
+		}
+
+	}
+
+	public static void main(String[] args) {
+		short networkType = Keywords.Testbeds.Types.LAN;
+		if (args.length > 0 && args[0].equals("WAN")) {
+			networkType = Keywords.Testbeds.Types.WAN;
+		}
+		Testbed dumbbell = new Dumbbell(networkType);
+		long transmissionDelay = Mathematics.microToPico(Keywords.Segments.Sizes.DataSegSize
+				/ Mathematics.bitPerSecondTobitPerMicroSecond(dumbbell.getAccessLinkBandwidth()));
+		long propagationDelay = Mathematics
+				.microToPico(Mathematics.baseToMicro(dumbbell.getNetworkLinkPropagationDelay()));
+
+		LinkedHashMap<String, Short> eventListTypes = new LinkedHashMap<String, Short>();
+		eventListTypes.put("BinaryHeap", Keywords.EventLists.Types.BinaryHeap);
+		eventListTypes.put("FourAryHeap", Keywords.EventLists.Types.FourAryHeap);
+		eventListTypes.put("CalendarQueue", Keywords.EventLists.Types.CalendarQueue);
+
+		// Warm up the JIT before measuring
+		for (short eventListType : eventListTypes.values()) {
+			run(eventListType, NumberOfFlows[0], transmissionDelay, propagationDelay);
+		}
+		for (int numberOfFlows : NumberOfFlows) {
+			for (String name : eventListTypes.keySet()) {
+				double nanosPerEvent = run(eventListTypes.get(name), numberOfFlows, transmissionDelay,
+						propagationDelay);
+				System.out.println("Flows: " + numberOfFlows + ", " + name + ": "
+						+ String.format("%.1f", nanosPerEvent) + " ns/event");
+			}
+		}
+	}
+
+	private static double run(short eventListType, int numberOfFlows, long transmissionDelay,
+			long propagationDelay) {
+		EventList eventList = new EventList(eventListType);
+		Random rand = new Random(Keywords.RandomVariableGenerator.StartingSeeds.InterArrivalTimeStartingSeed);
+		// Flows start within one round trip of each other
+		for (int flowIndex = 0; flowIndex < numberOfFlows; flowIndex++) {
+			eventList.addEvent(new HopEvent((long) (rand.nextDouble() * 2 * propagationDelay)));
+		}
+		long startTime = System.nanoTime();
+		for (int eventIndex = 0; eventIndex < EventsPerRun; eventIndex++) {
+			HopEvent event = (HopEvent) eventList.removeEvent();
+			event.hop(transmissionDelay, propagationDelay);
+			eventList.addEvent(event);
+		}
+		return (System.nanoTime() - startTime) / (double) EventsPerRun;
+	}
+
+}
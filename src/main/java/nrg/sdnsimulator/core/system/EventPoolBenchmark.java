@@ -0,0 +1,56 @@
+package nrg.sdnsimulator.core.system;
+
+import java.lang.management.ManagementFactory;
+
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.topology.Dumbbell2;
+import nrg.sdnsimulator.topology.Testbed;
+import nrg.sdnsimulator.trafficgenerator.Traffic;
+import nrg.sdnsimulator.trafficgenerator.TrafficGenerator;
+
+/*
+ * Measures the heap allocation rate of a Dumbbell2 simulation with event
+ * pooling turned on and off. Relies on the HotSpot per-thread allocation
+ * counter (com.sun.management.ThreadMXBean).
+ */
+public class EventPoolBenchmark {
+
+	private static final int NumberOfFlows = 40;
+	private static final int FlowSize = 2000;
+	private static final int Repetitions = 3;
+
+	public static void main(String[] args) {
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadID = Thread.currentThread().getId();
+		// Warm up the JIT before measuring
+		run(true);
+		run(false);
+		for (int repetition = 0; repetition < Repetitions; repetition++) {
+			for (boolean eventPooling : new boolean[] { true, false }) {
+				long startBytes = threadBean.getThreadAllocatedBytes(threadID);
+				long startTime = System.nanoTime();
+				run(eventPooling);
+				double seconds = (System.nanoTime() - startTime) / 1e9;
+				double megaBytes = (threadBean.getThreadAllocatedBytes(threadID) - startBytes) / 1e6;
+				System.out.println("Pooling: " + (eventPooling ? "on" : "off") + ", allocated: "
+						+ String.format("%.0f", megaBytes) + " MB, rate: " + String.format("%.0f", megaBytes / seconds)
+						+ " MB/s, time: " + String.format("%.2f", seconds) + " s");
+			}
+		}
+	}
+
+	private static void run(boolean eventPooling) {
+		TrafficGenerator trafficGenerator = new TrafficGenerator(Keywords.Traffics.Types.GeneralTraffic, 0);
+		trafficGenerator.setNumberOfFlowsProperties(Keywords.RandomVariableGenerator.Distributions.Constant,
+				NumberOfFlows, 0);
+		trafficGenerator.setFlowSizeProperties(Keywords.RandomVariableGenerator.Distributions.Constant, FlowSize, 0);
+		trafficGenerator.setFlowInterArrivalTimeProperties(Keywords.RandomVariableGenerator.Distributions.Exponential,
+				1000, 0);
+		Traffic traffic = trafficGenerator.generateTraffic();
+		Testbed testbed = new Dumbbell2(Keywords.Testbeds.Types.LAN);
+		testbed.setEventPooling(eventPooling);
+		testbed.executeSimulation(traffic);
+	}
+
+}
@@ -0,0 +1,102 @@
+package nrg.sdnsimulator.core.utility;
+
+import nrg.sdnsimulator.core.entity.traffic.Flow;
+import nrg.sdnsimulator.core.utility.metric.RunningStatistic;
+
+/*
+ * The per-flow metrics of Statistics folded one flow at a time, so a lazy run
+ * drops the flows it retires instead of keeping them until the end. The sums
+ * use the same float arithmetic as the Statistics computed from the flows.
+ */
+public class FlowMetrics {
+
+	private int numberOfFlows;
+	private float completionTimeSum; // us
+	private float startupDelaySum; // us
+	private float throughputSum;
+	private float squaredThroughputSum;
+	private RunningStatistic completionTimes; // us
+	private RunningStatistic completionTimesOverSize;
+	private RunningStatistic tailBufferTimes; // ps
+
+	public FlowMetrics() {
+		numberOfFlows = 0;
+		completionTimeSum = 0;
+		startupDelaySum = 0;
+		throughputSum = 0;
+		squaredThroughputSum = 0;
+		completionTimes = new RunningStatistic();
+		completionTimesOverSize = new RunningStatistic();
+		tailBufferTimes = new RunningStatistic();
+	}
+
+	public void add(Flow flow) {
+		numberOfFlows++;
+		completionTimeSum = Mathematics.addFloat(completionTimeSum,
+				Mathematics.subtractFloat(flow.getFINSendingTime(), flow.getArrivalTime()));
+		startupDelaySum = Mathematics.addFloat(startupDelaySum,
+				Mathematics.subtractFloat(flow.getDataSendingStartTime(), flow.getArrivalTime()));
+		float throughput = calculateFlowThroughput(flow);
+		throughputSum = Mathematics.addFloat(throughputSum, throughput);
+		squaredThroughputSum = Mathematics.addFloat(squaredThroughputSum,
+				Mathematics.multiplyFloat(throughput, throughput));
+		completionTimes.add(flow.getFINSendingTime() - flow.getArrivalTime());
+		completionTimesOverSize.add((flow.getFINSendingTime() - flow.getArrivalTime()) / flow.getSize());
+		if (flow.getBufferTimeTailQuantile().getCount() > 0) {
+			tailBufferTimes.add(flow.getBufferTimeTailQuantile().getQuantile());
+		}
+	}
+
+	public void merge(FlowMetrics other) {
+		numberOfFlows += other.numberOfFlows;
+		completionTimeSum = Mathematics.addFloat(completionTimeSum, other.completionTimeSum);
+		startupDelaySum = Mathematics.addFloat(startupDelaySum, other.startupDelaySum);
+		throughputSum = Mathematics.addFloat(throughputSum, other.throughputSum);
+		squaredThroughputSum = Mathematics.addFloat(squaredThroughputSum, other.squaredThroughputSum);
+		completionTimes.merge(other.completionTimes);
+		completionTimesOverSize.merge(other.completionTimesOverSize);
+		tailBufferTimes.merge(other.tailBufferTimes);
+	}
+
+	/* Share of the flow's completion time spent transmitting, 0 before it has lasted */
+	private static float calculateFlowThroughput(Flow flow) {
+		float completionTime = Mathematics.subtractFloat(flow.getFINSendingTime(), flow.getArrivalTime());
+		if (completionTime == 0) {
+			return 0;
+		}
+		return Mathematics.divideFloat(flow.getTotalTransmissionTime(), completionTime);
+	}
+
+	public int getNumberOfFlows() {
+		return numberOfFlows;
+	}
+
+	public float getCompletionTimeSum() {
+		return completionTimeSum;
+	}
+
+	public float getStartupDelaySum() {
+		return startupDelaySum;
+	}
+
+	public float getThroughputSum() {
+		return throughputSum;
+	}
+
+	public float getSquaredThroughputSum() {
+		return squaredThroughputSum;
+	}
+
+	public RunningStatistic getCompletionTimes() {
+		return completionTimes;
+	}
+
+	public RunningStatistic getCompletionTimesOverSize() {
+		return completionTimesOverSize;
+	}
+
+	public RunningStatistic getTailBufferTimes() {
+		return tailBufferTimes;
+	}
+
+}
@@ -140,7 +140,85 @@ public interface Keywords {
 		float FirstFlowArrival = 0;
 	}
 
+	interface EventLists {
+		interface Types {
+			short Default = 0;
+			short BinaryHeap = 1;
+			short FourAryHeap = 2;
+			short CalendarQueue = 3;
+		}
+	}
+
+	interface TimeWarp {
+		/* Events a partition runs optimistically between two GVT computations */
+		int EventsPerRound = 4096;
+		/* Executed events per checkpoint interval of the state saving */
+		int CheckpointInterval = 64;
+		/* How far past the GVT a partition may run, in lookaheads */
+		int WindowLookaheads = 32;
+	}
+
+	interface PacketStore {
+		/* Segments in flight the store holds before it doubles */
+		int InitialCapacity = 1 << 16;
+	}
+
+	interface Excel {
+		/* Rows of a streamed sheet kept in memory, the older ones are flushed to disk */
+		int StreamingRowWindow = 1000;
+		/* Sheets longer than this are streamed, without charts */
+		int StreamingRowThreshold = 1 << 16;
+		/* Rows per series of the summary sheet that carries the chart of a streamed sheet */
+		int SummaryRows = 1000;
+		/* Width of the columns of a streamed sheet, in characters */
+		int ColumnWidth = 14;
+		/* Rows of a sheet in Excel 2007 and later, a longer table goes on to another sheet */
+		int MaxRows = 1 << 20;
+	}
+
+	interface Columnar {
+		int Magic = 0x53444E43; // "SDNC"
+		short Version = 1;
+		/* Direct buffer the writer fills before each write to the channel */
+		int BufferSize = 1 << 20;
+
+		interface Types {
+			byte Int = 0;
+			byte Long = 1;
+			byte Float = 2;
+			byte Double = 3;
+		}
+
+		interface Encodings {
+			byte Plain = 0;
+			/* Zig-zag varint of the difference to the previous value */
+			byte DeltaVarint = 1;
+		}
+	}
+
+	interface FlowTrace {
+		int Magic = 0x53444E54; // "SDNT"
+		/* 2: arrival times in picoseconds instead of float microseconds */
+		short Version = 2;
+		/* Magic, version, unused, number of flows */
+		int HeaderSize = 16;
+		/* Arrival time (long, picoseconds), source, destination, size (segments) */
+		int RecordSize = 20;
+		/* Records mapped at a time when replaying, 80 MB */
+		int RecordsPerWindow = 1 << 22;
+		/* Direct buffer the writer fills before each write to the channel */
+		int BufferSize = 1 << 20;
+	}
+
 	interface Events {
+		/* Order of simultaneous events when priorities are enabled, lowest first */
+		interface Priorities {
+			short Default = 0;
+			short Timeout = 1;
+			short Departure = 2;
+			short Arrival = 3;
+		}
+
 		interface Names {
 			interface Arrivals {
 				String ArrivalToController = "Arrival to Controller";
@@ -168,8 +246,19 @@ public interface Keywords {
 			String AvgBtlQueueLength = "Avg Bottleneck Queue Length (Segments)";
 			String VarBtlUtilizationShareOverFlowSize = "Var (Flow Btl Util Share / Flow Size)";
 			String VarFlowCompletionTimeOverFlowSize = "Var (Flow Completion Time / Flow Size)";
+			String P99FlowCompletionTime = "P99 Flow Completion Time (us)";
+			String P999FlowCompletionTime = "P99.9 Flow Completion Time (us)";
+			String P99QueueingDelay = "P99 Per-Hop Queueing Delay (us)";
 
 		}
+
+		interface Percentiles {
+			double P99 = 99;
+			double P999 = 99.9;
+		}
+
+		/* Quantile of the streaming tail estimators */
+		double TailQuantile = 0.99;
 	}
 
 	interface Nodes {
@@ -193,6 +282,7 @@ public interface Keywords {
 			short Gamma = 5;
 			short Guassian = 3;
 			short LogNormal = 4;
+			short Pareto = 6;
 			short Uniform = 1;
 
 		}
@@ -203,6 +293,17 @@ public interface Keywords {
 			short InterArrivalTimeStartingSeed = 1000;
 			short NumberOfFLowsStartingSeed = 4000;
 		}
+
+		/* What a stream of RandomStreams is drawn for */
+		interface Purposes {
+			short InterArrivalTime = 0;
+			short FlowSize = 1;
+			short NumberOfFlows = 2;
+			short AccessLinkPropagationDelay = 3;
+		}
+
+		/* Root seed of the streams of a study */
+		long StudySeed = 0x5DEECE66DL;
 	}
 
 	interface RoutingAlgorithms {
@@ -280,7 +381,8 @@ public interface Keywords {
 		}
 	}
 
-	short ACKStreamIDOffSet = 10000;
+	// Above any flow ID, so a lazy run can go beyond the node ID offsets
+	int ACKStreamIDOffSet = 1 << 30;
 
 	short ControllerNodeIDOffset = 10000;
 	short SwitchNodeIDOffset = 20000;
@@ -296,4 +398,7 @@ public interface Keywords {
 
 	short ReverseLinkIDOffSet = 10000;
 
+	/* Keeps the scheduling keys of links apart from the node IDs */
+	int LinkSchedulingKeyOffset = 1 << 22;
+
 }
@@ -142,6 +142,15 @@ public class Mathematics {
 		return num * Math.pow(10, 6);
 	}
 
+	/* The simulation clock counts whole picoseconds */
+	public static long microToPico(double num) {
+		return Math.round(num * 1000000);
+	}
+
+	public static float picoToMicro(long num) {
+		return (float) (num / 1000000.0);
+	}
+
 	public static double microToMilli(double num) {
 		return num / Math.pow(10, 3);
 	}
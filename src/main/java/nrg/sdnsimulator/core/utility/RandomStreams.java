@@ -0,0 +1,40 @@
+package nrg.sdnsimulator.core.utility;
+
+import lombok.Getter;
+
+/*
+ * Independent random streams of a study. The seed of the stream of a (run,
+ * replication, purpose) is a hash (the SplitMix64 finalizer) of the study
+ * seed and the three indices, so it does not depend on which runs were
+ * created before it or on the thread that creates it: a parallel sweep draws
+ * the same numbers as a sequential one. Each stream is a SplittableRandom of
+ * its own generator, nothing is shared between runs.
+ */
+@Getter
+public class RandomStreams {
+
+	private final long studySeed;
+
+	public RandomStreams(long studySeed) {
+		this.studySeed = studySeed;
+	}
+
+	public long getStreamSeed(int run, int replication, short purpose) {
+		long seed = mix64(studySeed);
+		seed = mix64(seed ^ run);
+		seed = mix64(seed ^ replication);
+		return mix64(seed ^ purpose);
+	}
+
+	public RandomVariableGenerator createGenerator(int run, int replication, short purpose) {
+		return RandomVariableGenerator.ofStream(getStreamSeed(run, replication, purpose));
+	}
+
+	private static long mix64(long z) {
+		z += 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -1,9 +1,11 @@
 package nrg.sdnsimulator.core.utility;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import lombok.Getter;
 import lombok.Setter;
+import nrg.sdnsimulator.core.utility.variate.VariateGenerator;
 
 @Getter
 @Setter
@@ -12,39 +14,55 @@ public class RandomVariableGenerator extends Random {
 	private final int MAXINT = Integer.MAX_VALUE;
 	private Random rand;
 	private int seed;
+	// Draws replace rand when the generator is a stream of RandomStreams
+	private VariateGenerator variates;
 
 	public RandomVariableGenerator(int seed) {
 		this.seed = seed;
 		rand = new Random(seed);
+		variates = null;
+	}
+
+	public static RandomVariableGenerator ofStream(long streamSeed) {
+		RandomVariableGenerator generator = new RandomVariableGenerator(0);
+		generator.rand = null;
+		generator.variates = new VariateGenerator(streamSeed);
+		return generator;
 	}
 
 	public void changeRngSeed(int newSeed) {
 		this.seed = newSeed;
 		rand = new Random(seed);
+		variates = null;
+	}
+
+	/*
+	 * A stream draws its variates from VariateGenerator (ziggurat). A seeded
+	 * generator keeps drawing from java.util.Random by inversion, as it always
+	 * did, so the studies of a starting seed are reproduced.
+	 */
+	public boolean isStream() {
+		return variates != null;
 	}
 
 	/**********************************************************************/
 	/** Generating a RANDOM Double NUMBER uniformly from (0,1) ************/
 	/**********************************************************************/
 	private double equalLikly() {
-		double randnum;
-		randnum = rand.nextInt(MAXINT - 1) + 1;
-		if (randnum == MAXINT) {
-			System.out.print("The MAXINT is generated!: " + randnum + "\n");
-			randnum = rand.nextInt(MAXINT - 1) + 1;
-		} else if (randnum == 0) {
-			System.out.print("Zero is generated!:" + randnum + "\n");
-			randnum = rand.nextInt(MAXINT - 1) + 1;
+		if (isStream()) {
+			return variates.nextDouble();
 		}
-
-		randnum = randnum / (double) MAXINT;
-		return randnum;
+		// In [1, MAXINT - 1], neither 0 nor 1 can come out
+		return (rand.nextInt(MAXINT - 1) + 1) / (double) MAXINT;
 	}
 
 	/***********************************************************************/
 	/** Generating an Exponential RANDOM Double NUMBER with mean = lambda **/
 	/***********************************************************************/
 	private double getNextExponential(double mean) {
+		if (isStream()) {
+			return variates.nextExponential(mean);
+		}
 		double lambda = 1 / mean;
 		return ((-1) * (1 / lambda)) * Math.log(1.0 - equalLikly());
 	}
@@ -53,13 +71,61 @@ public class RandomVariableGenerator extends Random {
 	/** Generating a Gamma double NUMBER with mean = mean and std = alpha **/
 	/***********************************************************************/
 	private double getNextGamma(double mean, double std) {
-		return 0;
+		if (std <= 0) {
+			return mean;
+		}
+		double shape = (mean / std) * (mean / std);
+		double scale = std * std / mean;
+		if (isStream()) {
+			return variates.nextGamma(shape, scale);
+		}
+		return getNextStandardGamma(shape) * scale;
+	}
+
+	/* Marsaglia and Tsang (2000), boosted by U^(1 / shape) below a shape of 1 */
+	private double getNextStandardGamma(double shape) {
+		if (shape < 1) {
+			return getNextStandardGamma(shape + 1) * Math.pow(equalLikly(), 1 / shape);
+		}
+		double d = shape - 1.0 / 3;
+		double c = 1 / Math.sqrt(9 * d);
+		while (true) {
+			double x, v;
+			do {
+				x = rand.nextGaussian();
+				v = 1 + c * x;
+			} while (v <= 0);
+			v = v * v * v;
+			double u = equalLikly();
+			if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) {
+				return d * v;
+			}
+		}
+	}
+
+	/***********************************************************************/
+	/** Generating a Pareto double NUMBER with mean = mean and std = alpha **/
+	/***********************************************************************/
+	/* The shape follows from the coefficient of variation, 1 / (shape (shape - 2)) */
+	private double getNextPareto(double mean, double std) {
+		if (std <= 0) {
+			return mean;
+		}
+		double shape = 1 + Math.sqrt(1 + (mean / std) * (mean / std));
+		double scale = mean * (shape - 1) / shape;
+		if (isStream()) {
+			return variates.nextPareto(shape, scale);
+		}
+		return scale * Math.pow(equalLikly(), -1 / shape);
 	}
 
 	/**************************************************************************/
 	/** Generating a Gaussian double NUMBER with mean = mean and std = alpha **/
 	/**************************************************************************/
 	private double getNextGaussian(double mean, double std) {
+		if (isStream()) {
+			return variates.nextGaussian(mean, std);
+		}
 		return (rand.nextGaussian() * std) + mean;
 	}
 
@@ -84,7 +150,7 @@ public class RandomVariableGenerator extends Random {
 	/**********************************************************************/
 	public double getNextUniform(double lower, double upper) {
 		double randnum;
-		randnum = lower + equalLikly() * (upper - lower + 1);
+		randnum = lower + equalLikly() * (upper - lower);
 		return randnum;
 	}
 
@@ -93,7 +159,6 @@ public class RandomVariableGenerator extends Random {
 		case Keywords.RandomVariableGenerator.Distributions.Constant:
 			return mean;
 		case Keywords.RandomVariableGenerator.Distributions.Uniform:
-			// TODO the formula must be corrected
 			return getNextUniform(mean - standardDeviation, mean + standardDeviation);
 		case Keywords.RandomVariableGenerator.Distributions.Exponential:
 			return getNextExponential(mean);
@@ -103,14 +168,73 @@ public class RandomVariableGenerator extends Random {
 			return getNextLogNormal(mean, standardDeviation);
 		case Keywords.RandomVariableGenerator.Distributions.Gamma:
 			return getNextGamma(mean, standardDeviation);
+		case Keywords.RandomVariableGenerator.Distributions.Pareto:
+			return getNextPareto(mean, standardDeviation);
 		default:
 			break;
 		}
 		return 0;
 	}
 
+	/* A variate in [min, max), drawing again while it is outside */
+	public double getNextValue(int distribution, double mean, double standardDeviation, double min, double max) {
+		double value;
+		do {
+			value = getNextValue(distribution, mean, standardDeviation);
+		} while (!(value >= min && value < max));
+		return value;
+	}
+
+	/*
+	 * Fills values with count variates in [min, max), drawing again for the ones
+	 * outside. A seeded generator draws them one by one, in the order
+	 * getNextValue would; a stream fills the whole batch at once.
+	 */
+	public void fillNextValues(int distribution, double mean, double standardDeviation, double min, double max,
+			double[] values, int count) {
+		if (isStream() && fillStreamValues(distribution, mean, standardDeviation, values, count)) {
+			for (int i = 0; i < count; i++) {
+				while (!(values[i] >= min && values[i] < max)) {
+					values[i] = getNextValue(distribution, mean, standardDeviation);
+				}
+			}
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			values[i] = getNextValue(distribution, mean, standardDeviation, min, max);
+		}
+	}
+
+	private boolean fillStreamValues(int distribution, double mean, double standardDeviation, double[] values,
+			int count) {
+		switch (distribution) {
+		case Keywords.RandomVariableGenerator.Distributions.Constant:
+			Arrays.fill(values, 0, count, mean);
+			return true;
+		case Keywords.RandomVariableGenerator.Distributions.Uniform:
+			variates.fillUniform(values, count, mean - standardDeviation, mean + standardDeviation);
+			return true;
+		case Keywords.RandomVariableGenerator.Distributions.Exponential:
+			variates.fillExponential(values, count, mean);
+			return true;
+		case Keywords.RandomVariableGenerator.Distributions.Guassian:
+			variates.fillGaussian(values, count, mean, standardDeviation);
+			return true;
+		case Keywords.RandomVariableGenerator.Distributions.LogNormal:
+			variates.fillLogNormal(values, count, Math.log(mean), Math.log(standardDeviation));
+			return true;
+		default:
+			break;
+		}
+		return false;
+	}
+
 	public void resetRng() {
-		rand = new Random(seed);
+		if (isStream()) {
+			variates.reset();
+		} else {
+			rand = new Random(seed);
+		}
 	}
 
 }
@@ -1,7 +1,7 @@
 package nrg.sdnsimulator.core.utility;
 
 import java.util.HashMap;
-import java.util.TreeMap;
+import java.util.Map;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -10,77 +10,89 @@ import nrg.sdnsimulator.core.entity.network.Controller;
 import nrg.sdnsimulator.core.entity.network.Host;
 import nrg.sdnsimulator.core.entity.network.Link;
 import nrg.sdnsimulator.core.entity.network.SDNSwitch;
+import nrg.sdnsimulator.core.entity.network.agent.Senderv2;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
+import nrg.sdnsimulator.core.utility.metric.LogHistogram;
+import nrg.sdnsimulator.core.utility.metric.RunningStatistic;
 
 @Getter
 @Setter
 public class Statistics {
 
 	private Link bottleneckLink;
+	// The flows still in the network, a lazy run retires the finished ones (see FlowMetrics)
 	private HashMap<Integer, Flow> flows;
-	private HashMap<Integer, Link> links;
-	private HashMap<Integer, Controller> controllers;
-	private HashMap<Integer, SDNSwitch> switches;
+	private FlowMetrics flowMetrics;
+	private Map<Integer, Link> links;
+	private Map<Integer, Controller> controllers;
+	private Map<Integer, SDNSwitch> switches;
+	private long firedTimers;
+	private long cancelledTimers;
+	// ps, mergeable with the histograms of other replications
+	private LogHistogram flowCompletionTimes;
+	private LogHistogram queueingDelays;
+	// Of an optimistic run, 0 otherwise; the rolled back events ran again later
+	private long committedEvents;
+	private long rollbacks;
+	private long rolledBackEvents;
+	private long timeWarpMessages;
 
 	public Statistics(Network net, int btlLinkID) {
-		links = new HashMap<Integer, Link>();
-		switches = new HashMap<Integer, SDNSwitch>();
 		flows = new HashMap<Integer, Flow>();
-		controllers = new HashMap<Integer, Controller>();
 		this.controllers = net.getControllers();
 		this.switches = net.getSwitches();
 		this.links = net.getLinks();
 		for (Host host : net.getHosts().values()) {
-			if (host.getTransportAgent().getFlow().getID() < 10000) {
+			if (host.getTransportAgent().getFlow().getID() < Keywords.ACKStreamIDOffSet) {
 				this.flows.put(host.getTransportAgent().getFlow().getID(), host.getTransportAgent().getFlow());
 			}
+			if (host.getTransportAgent() instanceof Senderv2) {
+				firedTimers += ((Senderv2) host.getTransportAgent()).getFiredTimers();
+				cancelledTimers += ((Senderv2) host.getTransportAgent()).getCancelledTimers();
+			}
+		}
+		// With the flows whose hosts were retired during a lazy run
+		flowMetrics = new FlowMetrics();
+		flowMetrics.merge(net.getRetiredFlowMetrics());
+		for (Flow flow : flows.values()) {
+			flowMetrics.add(flow);
 		}
+		firedTimers += net.getRetiredFiredTimers();
+		cancelledTimers += net.getRetiredCancelledTimers();
+		flowCompletionTimes = new LogHistogram();
+		flowCompletionTimes.merge(net.getFlowCompletionTimes());
+		queueingDelays = new LogHistogram();
 		for (Link link : links.values()) {
 			if (link.isMonitored()) {
 				bottleneckLink = link;
 			}
+			queueingDelays.merge(link.getQueueingDelay());
 		}
+		queueingDelays.merge(net.getRetiredQueueingDelays());
+		committedEvents = net.getCommittedEvents();
+		rollbacks = net.getRollbacks();
+		rolledBackEvents = net.getRolledBackEvents();
+		timeWarpMessages = net.getTimeWarpMessages();
 
 	}
 
 	public float getAvgFlowCompletionTime() {
-		float sum = 0;
-		for (Flow flow : flows.values()) {
-			sum = Mathematics.addFloat(sum, Mathematics.subtractFloat(flow.getFINSendingTime(), flow.getArrivalTime()));
-		}
-		return sum / (float) flows.size();
+		return flowMetrics.getCompletionTimeSum() / (float) flowMetrics.getNumberOfFlows();
 	}
 
 	public float getAvgFlowThroughput() {
-		float sum = 0;
-		for (Flow flow : flows.values()) {
-			sum = Mathematics.addFloat(sum, calculateFlowThroughput(flow));
-		}
-		return 100 * (sum / (float) flows.size());
+		return 100 * (flowMetrics.getThroughputSum() / (float) flowMetrics.getNumberOfFlows());
 	}
 
 	public float getAvgStartupDelay() {
-		float sum = 0;
-		for (Flow flow : flows.values()) {
-			float startupDelay = (Mathematics.subtractFloat(flow.getDataSendingStartTime(), flow.getArrivalTime()));
-			sum = Mathematics.addFloat(sum, startupDelay);
-		}
-		return Mathematics.divideFloat(sum, (float) flows.size());
+		return Mathematics.divideFloat(flowMetrics.getStartupDelaySum(), (float) flowMetrics.getNumberOfFlows());
 	}
 
 	public float getFairnessIndex() {
-		float f = 0;
-		float numinator = 0;
-		float denuminator = 0;
-		for (Flow flow : flows.values()) {
-			float flowThroughput = calculateFlowThroughput(flow);
-			numinator = Mathematics.addFloat(numinator, flowThroughput);
-			denuminator = Mathematics.addFloat(denuminator, Mathematics.multiplyFloat(flowThroughput, flowThroughput));
-		}
-		numinator = Mathematics.multiplyFloat(numinator, numinator);
-		denuminator = Mathematics.multiplyFloat(flows.size(), denuminator);
-		f = Mathematics.divideFloat(numinator, denuminator);
-		return f;
+		float numinator = Mathematics.multiplyFloat(flowMetrics.getThroughputSum(), flowMetrics.getThroughputSum());
+		float denuminator = Mathematics.multiplyFloat(flowMetrics.getNumberOfFlows(),
+				flowMetrics.getSquaredThroughputSum());
+		return Mathematics.divideFloat(numinator, denuminator);
 	}
 
 	public float getBottleneckUtilization() {
@@ -93,34 +105,61 @@ public class Statistics {
 		return utilization;
 	}
 
+	/* Time-weighted, accumulated by the link while the simulation runs */
 	public float getBtlAvgQueueLength() {
-		TreeMap<Float, Float> queueTimeSeries = bottleneckLink.getQueueLength();
-		float avgQueuelength = 0;
-		int n = queueTimeSeries.size();
-		float numinator = 0;
-		float denuminator = Mathematics.subtractFloat(queueTimeSeries.lastKey(), queueTimeSeries.firstKey());
-		for (int i = 0; i < n - 1; i++) {
-			float lenght = queueTimeSeries.get(queueTimeSeries.firstKey());
-			float tNow = queueTimeSeries.firstKey();
-			float tNext = queueTimeSeries.higherKey(tNow);
-			queueTimeSeries.remove(tNow);
-			numinator = Mathematics.addFloat(numinator,
-					Mathematics.multiplyFloat(lenght, Mathematics.subtractFloat(tNext, tNow)));
-		}
-		if (denuminator > 0) {
-			avgQueuelength = Mathematics.divideFloat(numinator, denuminator);
-		}
-		return avgQueuelength;
+		return bottleneckLink.getQueueLength().getAverage();
 	}
 
 	public float getBtlMaxQueueLength() {
 		return bottleneckLink.getMaxQeueLength();
 	}
 
-	private float calculateFlowThroughput(Flow flow) {
-		float throughput = Mathematics.divideFloat(flow.getTotalTransmissionTime(),
-				Mathematics.subtractFloat(flow.getFINSendingTime(), flow.getArrivalTime()));
-		return throughput;
+	/* ========== Streaming metrics ========== */
+	/* Completion times (us) of the flows */
+	public RunningStatistic getFlowCompletionTimeStatistic() {
+		RunningStatistic completionTimes = new RunningStatistic();
+		completionTimes.merge(flowMetrics.getCompletionTimes());
+		return completionTimes;
+	}
+
+	public float getVarFlowCompletionTimeOverFlowSize() {
+		return (float) flowMetrics.getCompletionTimesOverSize().getVariance();
+	}
+
+	/* Share of the bottleneck transmission time used by each flow, over its size */
+	public float getVarBtlUtilizationShareOverFlowSize() {
+		RunningStatistic ratios = new RunningStatistic();
+		long totalTransmissionTimePs = bottleneckLink.getTotalTransmissionTimePs();
+		if (totalTransmissionTimePs > 0) {
+			for (Flow flow : flows.values()) {
+				long utilizationTimePs = bottleneckLink.getUtilizationTimePerFlowID().getOrDefault(flow.getID(), 0L);
+				ratios.add((double) utilizationTimePs / totalTransmissionTimePs / flow.getSize());
+			}
+			RunningStatistic retiredRatios = new RunningStatistic();
+			retiredRatios.merge(bottleneckLink.getRetiredUtilizationTimeOverSize());
+			retiredRatios.scale(1.0 / totalTransmissionTimePs);
+			ratios.merge(retiredRatios);
+		}
+		return (float) ratios.getVariance();
+	}
+
+	public float getFlowCompletionTimePercentile(double percentile) {
+		return Mathematics.picoToMicro(flowCompletionTimes.getValueAtPercentile(percentile));
+	}
+
+	/* Buffer time (us) of the packets at every hop */
+	public float getQueueingDelayPercentile(double percentile) {
+		return Mathematics.picoToMicro(queueingDelays.getValueAtPercentile(percentile));
+	}
+
+	/* Buffer time (us) of the packets at the bottleneck link */
+	public float getBtlQueueingDelayPercentile(double percentile) {
+		return Mathematics.picoToMicro(bottleneckLink.getQueueingDelay().getValueAtPercentile(percentile));
+	}
+
+	/* Average over the flows of their tail segment buffer time (us), see Keywords.Metrics.TailQuantile */
+	public float getAvgFlowTailBufferTime() {
+		return Mathematics.picoToMicro(Math.round(flowMetrics.getTailBufferTimes().getMean()));
 	}
 
 }
@@ -0,0 +1,26 @@
+package nrg.sdnsimulator.core.utility.columnar;
+
+import lombok.Getter;
+
+/* Entry of the schema of a columnar file, see Keywords.Columnar */
+@Getter
+public class ColumnDescriptor {
+
+	private final String name;
+	private final byte type;
+	private final byte encoding;
+	private final int rowCount;
+	// Bytes of the column in the file
+	private final long position;
+	private final long length;
+
+	public ColumnDescriptor(String name, byte type, byte encoding, int rowCount, long position, long length) {
+		this.name = name;
+		this.type = type;
+		this.encoding = encoding;
+		this.rowCount = rowCount;
+		this.position = position;
+		this.length = length;
+	}
+
+}
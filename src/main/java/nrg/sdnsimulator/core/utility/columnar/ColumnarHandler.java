@@ -0,0 +1,174 @@
+package nrg.sdnsimulator.core.utility.columnar;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import org.apache.commons.math3.util.Pair;
+
+import nrg.sdnsimulator.core.entity.network.Link;
+import nrg.sdnsimulator.core.entity.traffic.Flow;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.Mathematics;
+import nrg.sdnsimulator.core.utility.Statistics;
+import nrg.sdnsimulator.core.utility.datastructure.SeqNumTimeSeries;
+import nrg.sdnsimulator.core.utility.excel.datastructure.NumericFactorOutputData;
+import nrg.sdnsimulator.core.utility.excel.datastructure.NumericFactorScatterTableData;
+
+/* Counterpart of ExcelHandler that writes the results as columnar files (.col) */
+public class ColumnarHandler {
+
+	public static final String FileExtension = ".col";
+
+	/* One row per flow, in flow ID order */
+	public static void createFlowOutput(String outputPath, String fileName, Statistics stat) throws IOException {
+		ArrayList<Flow> flows = new ArrayList<Flow>(new TreeMap<Integer, Flow>(stat.getFlows()).values());
+		int count = flows.size();
+		int[] flowIDs = new int[count];
+		int[] srcHostIDs = new int[count];
+		int[] dstHostIDs = new int[count];
+		int[] sizes = new int[count];
+		float[] arrivalTimes = new float[count];
+		float[] dataSendingStartTimes = new float[count];
+		float[] FINSendingTimes = new float[count];
+		float[] completionTimes = new float[count];
+		int[] sentSegments = new int[count];
+		int[] droppedSegments = new int[count];
+		long[] bufferTimes = new long[count];
+		for (int i = 0; i < count; i++) {
+			Flow flow = flows.get(i);
+			flowIDs[i] = flow.getID();
+			srcHostIDs[i] = flow.getSrcHostID();
+			dstHostIDs[i] = flow.getDstHostID();
+			sizes[i] = flow.getSize();
+			arrivalTimes[i] = flow.getArrivalTime();
+			dataSendingStartTimes[i] = flow.getDataSendingStartTime();
+			FINSendingTimes[i] = flow.getFINSendingTime();
+			completionTimes[i] = flow.getCompletionTime();
+			sentSegments[i] = flow.getTotalSentSegments();
+			droppedSegments[i] = flow.getTotalDroppedSegments();
+			bufferTimes[i] = flow.getTotalBufferTimePs();
+		}
+		try (ColumnarWriter writer = new ColumnarWriter(outputPath + fileName + FileExtension)) {
+			writer.writeIntColumn("FlowID", flowIDs, count, true);
+			writer.writeIntColumn("SrcHostID", srcHostIDs, count, false);
+			writer.writeIntColumn("DstHostID", dstHostIDs, count, false);
+			writer.writeIntColumn("Size", sizes, count, false);
+			writer.writeFloatColumn("ArrivalTime", arrivalTimes, count);
+			writer.writeFloatColumn("DataSendingStartTime", dataSendingStartTimes, count);
+			writer.writeFloatColumn("FINSendingTime", FINSendingTimes, count);
+			writer.writeFloatColumn("CompletionTime", completionTimes, count);
+			writer.writeIntColumn("SentSegments", sentSegments, count, false);
+			writer.writeIntColumn("DroppedSegments", droppedSegments, count, false);
+			writer.writeLongColumn("TotalBufferTimePs", bufferTimes, count, false);
+		}
+	}
+
+	/* One row per link, in link ID order */
+	public static void createLinkOutput(String outputPath, String fileName, Statistics stat) throws IOException {
+		ArrayList<Link> links = new ArrayList<Link>(new TreeMap<Integer, Link>(stat.getLinks()).values());
+		int count = links.size();
+		int[] linkIDs = new int[count];
+		int[] srcNodeIDs = new int[count];
+		int[] dstNodeIDs = new int[count];
+		float[] bandwidths = new float[count];
+		float[] utilizations = new float[count];
+		float[] avgQueueLengths = new float[count];
+		float[] maxQueueLengths = new float[count];
+		float[] p99QueueingDelays = new float[count];
+		for (int i = 0; i < count; i++) {
+			Link link = links.get(i);
+			linkIDs[i] = link.getID();
+			srcNodeIDs[i] = link.getSrcNodeID();
+			dstNodeIDs[i] = link.getDstNodeID();
+			bandwidths[i] = link.getBandwidth();
+			float totalUpTime = link.getLastSegmentTransmittedTime() - link.getFirstSegmentArrivalTime();
+			utilizations[i] = totalUpTime > 0 ? link.getTotalTransmissionTime() / totalUpTime : 0;
+			avgQueueLengths[i] = link.getQueueLength().getAverage();
+			maxQueueLengths[i] = link.getMaxQeueLength();
+			p99QueueingDelays[i] = Mathematics.picoToMicro(
+					link.getQueueingDelay().getValueAtPercentile(Keywords.Metrics.Percentiles.P99));
+		}
+		try (ColumnarWriter writer = new ColumnarWriter(outputPath + fileName + FileExtension)) {
+			writer.writeIntColumn("LinkID", linkIDs, count, true);
+			writer.writeIntColumn("SrcNodeID", srcNodeIDs, count, false);
+			writer.writeIntColumn("DstNodeID", dstNodeIDs, count, false);
+			writer.writeFloatColumn("Bandwidth", bandwidths, count);
+			writer.writeFloatColumn("Utilization", utilizations, count);
+			writer.writeFloatColumn("AvgQueueLength", avgQueueLengths, count);
+			writer.writeFloatColumn("MaxQueueLength", maxQueueLengths, count);
+			writer.writeFloatColumn("P99QueueingDelay", p99QueueingDelays, count);
+		}
+	}
+
+	/*
+	 * The data segments sent and the ACKs received by every flow, as
+	 * (FlowID, SeqNum, TimePs) rows ordered by flow and sequence number. All three
+	 * columns are delta encoded.
+	 */
+	public static void createSeqNumOutput(String outputPath, String fileName, Statistics stat) throws IOException {
+		ArrayList<Flow> flows = new ArrayList<Flow>(new TreeMap<Integer, Flow>(stat.getFlows()).values());
+		try (ColumnarWriter writer = new ColumnarWriter(outputPath + fileName + FileExtension)) {
+			ArrayList<SeqNumTimeSeries> sendingTimes = new ArrayList<SeqNumTimeSeries>();
+			ArrayList<SeqNumTimeSeries> arrivalTimes = new ArrayList<SeqNumTimeSeries>();
+			for (Flow flow : flows) {
+				sendingTimes.add(flow.getDataSeqNumSendingTimes());
+				arrivalTimes.add(flow.getAckSeqNumArrivalTimes());
+			}
+			writeSeqNumColumns(writer, "Data", flows, sendingTimes);
+			writeSeqNumColumns(writer, "ACK", flows, arrivalTimes);
+		}
+	}
+
+	private static void writeSeqNumColumns(ColumnarWriter writer, String prefix, ArrayList<Flow> flows,
+			ArrayList<SeqNumTimeSeries> timeSeries) throws IOException {
+		int count = 0;
+		for (SeqNumTimeSeries times : timeSeries) {
+			count += times.size();
+		}
+		int[] flowIDs = new int[count];
+		int[] seqNums = new int[count];
+		long[] timesPs = new long[count];
+		int row = 0;
+		for (int i = 0; i < flows.size(); i++) {
+			SeqNumTimeSeries times = timeSeries.get(i);
+			for (int seqNum = 0; seqNum < times.getEnd(); seqNum++) {
+				if (times.contains(seqNum)) {
+					flowIDs[row] = flows.get(i).getID();
+					seqNums[row] = seqNum;
+					timesPs[row] = Mathematics.microToPico(times.get(seqNum));
+					row++;
+				}
+			}
+		}
+		writer.writeIntColumn(prefix + ".FlowID", flowIDs, count, true);
+		writer.writeIntColumn(prefix + ".SeqNum", seqNums, count, true);
+		writer.writeLongColumn(prefix + ".TimePs", timesPs, count, true);
+	}
+
+	/*
+	 * Every sheet of the Excel study output, as a factor and a metric column per
+	 * series named <sheet>/<series>/Factor and <sheet>/<series>/Metric.
+	 */
+	public static void createNumericFactorStudyOutput(String outputPath, String fileName,
+			NumericFactorOutputData outputData) throws IOException {
+		try (ColumnarWriter writer = new ColumnarWriter(outputPath + fileName + FileExtension)) {
+			for (String sheetName : outputData.getOutputSheets().keySet()) {
+				NumericFactorScatterTableData table = outputData.getOutputSheets().get(sheetName);
+				for (String seriesTitle : table.getData().keySet()) {
+					ArrayList<Pair<Float, Float>> series = table.getData().get(seriesTitle);
+					float[] factors = new float[series.size()];
+					float[] metrics = new float[series.size()];
+					for (int i = 0; i < series.size(); i++) {
+						factors[i] = series.get(i).getFirst();
+						metrics[i] = series.get(i).getSecond();
+					}
+					String columnPrefix = sheetName + "/" + seriesTitle + "/";
+					writer.writeFloatColumn(columnPrefix + "Factor", factors, factors.length);
+					writer.writeFloatColumn(columnPrefix + "Metric", metrics, metrics.length);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,161 @@
+package nrg.sdnsimulator.core.utility.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+import nrg.sdnsimulator.core.utility.Keywords;
+
+/*
+ * Reads the files of ColumnarWriter. Only the header and the schema are read
+ * when the file is opened; reading a column maps its byte range and decodes
+ * that column alone.
+ */
+public class ColumnarReader implements Closeable {
+
+	private final FileChannel channel;
+	private final LinkedHashMap<String, ColumnDescriptor> columns;
+
+	public ColumnarReader(String filePath) throws IOException {
+		channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+		columns = new LinkedHashMap<String, ColumnDescriptor>();
+		try {
+			readSchema();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void readSchema() throws IOException {
+		if (channel.size() < ColumnarWriter.HeaderSize) {
+			throw new IOException("Not a columnar result file");
+		}
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ColumnarWriter.HeaderSize);
+		if (header.getInt() != Keywords.Columnar.Magic) {
+			throw new IOException("Not a columnar result file");
+		}
+		short version = header.getShort();
+		if (version != Keywords.Columnar.Version) {
+			throw new IOException("Unsupported columnar result version " + version);
+		}
+		long schemaPosition = header.getLong(ColumnarWriter.SchemaPositionOffset);
+		if (schemaPosition < ColumnarWriter.HeaderSize || schemaPosition >= channel.size()) {
+			throw new IOException("Columnar result file without a schema, it was not closed");
+		}
+		MappedByteBuffer schema = channel.map(FileChannel.MapMode.READ_ONLY, schemaPosition,
+				channel.size() - schemaPosition);
+		int columnCount = schema.getInt();
+		for (int i = 0; i < columnCount; i++) {
+			byte[] name = new byte[schema.getShort()];
+			schema.get(name);
+			ColumnDescriptor column = new ColumnDescriptor(new String(name, StandardCharsets.UTF_8), schema.get(),
+					schema.get(), schema.getInt(), schema.getLong(), schema.getLong());
+			columns.put(column.getName(), column);
+		}
+	}
+
+	public Set<String> getColumnNames() {
+		return columns.keySet();
+	}
+
+	public ColumnDescriptor getColumn(String name) {
+		ColumnDescriptor column = columns.get(name);
+		if (column == null) {
+			throw new IllegalArgumentException("No column " + name);
+		}
+		return column;
+	}
+
+	public int getRowCount(String name) {
+		return getColumn(name).getRowCount();
+	}
+
+	/* ========== Columns ========== */
+	public int[] readIntColumn(String name) throws IOException {
+		ColumnDescriptor column = getColumn(name, Keywords.Columnar.Types.Int);
+		ByteBuffer data = map(column);
+		int[] values = new int[column.getRowCount()];
+		if (column.getEncoding() == Keywords.Columnar.Encodings.DeltaVarint) {
+			long previous = 0;
+			for (int i = 0; i < values.length; i++) {
+				previous += unZigZag(getVarint(data));
+				values[i] = (int) previous;
+			}
+		} else {
+			data.asIntBuffer().get(values);
+		}
+		return values;
+	}
+
+	public long[] readLongColumn(String name) throws IOException {
+		ColumnDescriptor column = getColumn(name, Keywords.Columnar.Types.Long);
+		ByteBuffer data = map(column);
+		long[] values = new long[column.getRowCount()];
+		if (column.getEncoding() == Keywords.Columnar.Encodings.DeltaVarint) {
+			long previous = 0;
+			for (int i = 0; i < values.length; i++) {
+				previous += unZigZag(getVarint(data));
+				values[i] = previous;
+			}
+		} else {
+			data.asLongBuffer().get(values);
+		}
+		return values;
+	}
+
+	public float[] readFloatColumn(String name) throws IOException {
+		ColumnDescriptor column = getColumn(name, Keywords.Columnar.Types.Float);
+		float[] values = new float[column.getRowCount()];
+		map(column).asFloatBuffer().get(values);
+		return values;
+	}
+
+	public double[] readDoubleColumn(String name) throws IOException {
+		ColumnDescriptor column = getColumn(name, Keywords.Columnar.Types.Double);
+		double[] values = new double[column.getRowCount()];
+		map(column).asDoubleBuffer().get(values);
+		return values;
+	}
+
+	private ColumnDescriptor getColumn(String name, byte type) {
+		ColumnDescriptor column = getColumn(name);
+		if (column.getType() != type) {
+			throw new IllegalArgumentException("Column " + name + " is of type " + column.getType());
+		}
+		return column;
+	}
+
+	private ByteBuffer map(ColumnDescriptor column) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, column.getPosition(), column.getLength());
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static long getVarint(ByteBuffer data) {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = data.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+}
@@ -0,0 +1,167 @@
+package nrg.sdnsimulator.core.utility.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import nrg.sdnsimulator.core.utility.Keywords;
+
+/*
+ * Writes typed primitive columns one after the other through a direct buffer.
+ * The file starts with a header (magic, version, position of the schema); the
+ * schema lists the name, type, encoding, row count and byte range of every
+ * column and is written after them on close, once their sizes are known. Int
+ * and long columns of timestamps or sequence numbers can be delta encoded as
+ * zig-zag varints, which takes a byte or two per row for increasing values.
+ */
+public class ColumnarWriter implements Closeable {
+
+	// Magic, version, unused, schema position
+	static final int HeaderSize = 16;
+	static final int SchemaPositionOffset = 8;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	// Bytes already written to the channel
+	private long written;
+	private final ArrayList<ColumnDescriptor> columns;
+
+	public ColumnarWriter(String filePath) throws IOException {
+		channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(Keywords.Columnar.BufferSize);
+		written = 0;
+		columns = new ArrayList<ColumnDescriptor>();
+		buffer.putInt(Keywords.Columnar.Magic);
+		buffer.putShort(Keywords.Columnar.Version);
+		buffer.putShort((short) 0);
+		buffer.putLong(0);
+	}
+
+	/* ========== Columns ========== */
+	public void writeIntColumn(String name, int[] values, int count, boolean deltaEncoded) throws IOException {
+		long start = getPosition();
+		if (deltaEncoded) {
+			long previous = 0;
+			for (int i = 0; i < count; i++) {
+				ensureRemaining(10);
+				putVarint(zigZag(values[i] - previous));
+				previous = values[i];
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				ensureRemaining(Integer.BYTES);
+				buffer.putInt(values[i]);
+			}
+		}
+		addColumn(name, Keywords.Columnar.Types.Int, deltaEncoded, count, start);
+	}
+
+	public void writeLongColumn(String name, long[] values, int count, boolean deltaEncoded) throws IOException {
+		long start = getPosition();
+		if (deltaEncoded) {
+			long previous = 0;
+			for (int i = 0; i < count; i++) {
+				ensureRemaining(10);
+				putVarint(zigZag(values[i] - previous));
+				previous = values[i];
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				ensureRemaining(Long.BYTES);
+				buffer.putLong(values[i]);
+			}
+		}
+		addColumn(name, Keywords.Columnar.Types.Long, deltaEncoded, count, start);
+	}
+
+	public void writeFloatColumn(String name, float[] values, int count) throws IOException {
+		long start = getPosition();
+		for (int i = 0; i < count; i++) {
+			ensureRemaining(Float.BYTES);
+			buffer.putFloat(values[i]);
+		}
+		addColumn(name, Keywords.Columnar.Types.Float, false, count, start);
+	}
+
+	public void writeDoubleColumn(String name, double[] values, int count) throws IOException {
+		long start = getPosition();
+		for (int i = 0; i < count; i++) {
+			ensureRemaining(Double.BYTES);
+			buffer.putDouble(values[i]);
+		}
+		addColumn(name, Keywords.Columnar.Types.Double, false, count, start);
+	}
+
+	private void addColumn(String name, byte type, boolean deltaEncoded, int count, long start) {
+		byte encoding = deltaEncoded ? Keywords.Columnar.Encodings.DeltaVarint : Keywords.Columnar.Encodings.Plain;
+		columns.add(new ColumnDescriptor(name, type, encoding, count, start, getPosition() - start));
+	}
+
+	/* ========== Schema ========== */
+	@Override
+	public void close() throws IOException {
+		long schemaPosition = getPosition();
+		ensureRemaining(Integer.BYTES);
+		buffer.putInt(columns.size());
+		for (ColumnDescriptor column : columns) {
+			byte[] name = column.getName().getBytes(StandardCharsets.UTF_8);
+			if (name.length > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("Column name too long: " + column.getName());
+			}
+			ensureRemaining(Short.BYTES + name.length + 2 + Integer.BYTES + 2 * Long.BYTES);
+			buffer.putShort((short) name.length);
+			buffer.put(name);
+			buffer.put(column.getType());
+			buffer.put(column.getEncoding());
+			buffer.putInt(column.getRowCount());
+			buffer.putLong(column.getPosition());
+			buffer.putLong(column.getLength());
+		}
+		flush();
+		ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+		header.putLong(schemaPosition);
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header, SchemaPositionOffset + header.position());
+		}
+		channel.close();
+	}
+
+	/* ========== Buffer ========== */
+	private long getPosition() {
+		return written + buffer.position();
+	}
+
+	private void ensureRemaining(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			written += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void putVarint(long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+}
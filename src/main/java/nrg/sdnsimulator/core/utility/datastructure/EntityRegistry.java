@@ -0,0 +1,132 @@
+package nrg.sdnsimulator.core.utility.datastructure;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import nrg.sdnsimulator.core.entity.Entity;
+
+/*
+ * Entities of one type stored at (ID - idOffset) in an array. The IDs of each
+ * type are handed out densely from their offset, so a lookup is a bounds check
+ * and an array read without boxing. As a Map the registry is read-only and
+ * iterates in ID order; entities are added with register and removed with
+ * unregister.
+ */
+public class EntityRegistry<T extends Entity> extends AbstractMap<Integer, T> {
+
+	private static final int InitialCapacity = 16;
+
+	private final int idOffset;
+	private Entity[] entities;
+	private int size;
+	private final EntrySet entrySet;
+
+	public EntityRegistry(int idOffset) {
+		this.idOffset = idOffset;
+		entities = new Entity[InitialCapacity];
+		size = 0;
+		entrySet = new EntrySet();
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int id) {
+		int index = id - idOffset;
+		if (index < 0 || index >= entities.length) {
+			return null;
+		}
+		return (T) entities[index];
+	}
+
+	public void register(T entity) {
+		int index = entity.getID() - idOffset;
+		if (index < 0) {
+			throw new IllegalArgumentException("Entity ID " + entity.getID() + " is below the offset " + idOffset);
+		}
+		if (index >= entities.length) {
+			entities = Arrays.copyOf(entities, Math.max(index + 1, 2 * entities.length));
+		}
+		if (entities[index] == null) {
+			size++;
+		}
+		entities[index] = entity;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T unregister(int id) {
+		int index = id - idOffset;
+		if (index < 0 || index >= entities.length || entities[index] == null) {
+			return null;
+		}
+		T entity = (T) entities[index];
+		entities[index] = null;
+		size--;
+		return entity;
+	}
+
+	/* ========== Map view ========== */
+	@Override
+	public T get(Object key) {
+		return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Set<Entry<Integer, T>> entrySet() {
+		return entrySet;
+	}
+
+	private class EntrySet extends AbstractSet<Entry<Integer, T>> {
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<Entry<Integer, T>> iterator() {
+			return new Iterator<Entry<Integer, T>>() {
+
+				private int next = advance(0);
+
+				private int advance(int index) {
+					while (index < entities.length && entities[index] == null) {
+						index++;
+					}
+					return index;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next < entities.length;
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public Entry<Integer, T> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					T entity = (T) entities[next];
+					next = advance(next + 1);
+					return new SimpleImmutableEntry<Integer, T>(entity.getID(), entity);
+				}
+
+			};
+		}
+
+	}
+
+}
@@ -39,4 +39,11 @@ public class OneToOneMap {
 		this.valueToKey.put(value, key);
 	}
 
+	public void remove(int key) {
+		String value = this.keyToValue.remove(key);
+		if (value != null) {
+			this.valueToKey.remove(value);
+		}
+	}
+
 }
@@ -0,0 +1,132 @@
+package nrg.sdnsimulator.core.utility.datastructure;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import nrg.sdnsimulator.core.entity.traffic.Segment;
+
+/*
+ * Off-heap storage of the segments in flight. Each field is a column of ints
+ * in direct memory and a segment is the index of its row, its handle. Rows of
+ * removed segments are reused from a free list, so the store grows to the peak
+ * number of segments in flight and the heap only holds the handles.
+ */
+public class PacketStore {
+
+	private static final int Columns = 6;
+	private static final int FlowID = 0;
+	private static final int Type = 1;
+	private static final int SeqNum = 2;
+	private static final int Size = 3;
+	private static final int SrcHostID = 4;
+	private static final int DstHostID = 5;
+
+	private IntBuffer[] columns;
+	private int capacity;
+	// Rows never used start at nextRow, removed rows are on the free list
+	private int nextRow;
+	private int[] freeRows;
+	private int freeCount;
+
+	/** ========== Statistical Counters ========== **/
+	private int storedSegments;
+	private int maxStoredSegments;
+
+	/** ========================================== **/
+
+	public PacketStore(int initialCapacity) {
+		capacity = Math.max(1, initialCapacity);
+		columns = new IntBuffer[Columns];
+		for (int column = 0; column < Columns; column++) {
+			columns[column] = allocateColumn(capacity);
+		}
+		nextRow = 0;
+		freeRows = new int[capacity];
+		freeCount = 0;
+		storedSegments = 0;
+		maxStoredSegments = 0;
+	}
+
+	public int add(Segment segment) {
+		int row;
+		if (freeCount > 0) {
+			row = freeRows[--freeCount];
+		} else {
+			if (nextRow == capacity) {
+				grow();
+			}
+			row = nextRow++;
+		}
+		columns[FlowID].put(row, segment.getFlowID());
+		columns[Type].put(row, segment.getType());
+		columns[SeqNum].put(row, segment.getSeqNum());
+		columns[Size].put(row, segment.getSize());
+		columns[SrcHostID].put(row, segment.getSrcHostID());
+		columns[DstHostID].put(row, segment.getDstHostID());
+		storedSegments++;
+		maxStoredSegments = Math.max(maxStoredSegments, storedSegments);
+		return row;
+	}
+
+	/* Rebuilds the segment of the handle in the given one and frees its row */
+	public Segment remove(int handle, Segment segment) {
+		segment.reset(getFlowID(handle), getType(handle), getSeqNum(handle), getSize(handle), getSrcHostID(handle),
+				getDstHostID(handle));
+		if (freeCount == freeRows.length) {
+			freeRows = Arrays.copyOf(freeRows, 2 * freeRows.length);
+		}
+		freeRows[freeCount++] = handle;
+		storedSegments--;
+		return segment;
+	}
+
+	public int getFlowID(int handle) {
+		return columns[FlowID].get(handle);
+	}
+
+	public int getType(int handle) {
+		return columns[Type].get(handle);
+	}
+
+	public int getSeqNum(int handle) {
+		return columns[SeqNum].get(handle);
+	}
+
+	public int getSize(int handle) {
+		return columns[Size].get(handle);
+	}
+
+	public int getSrcHostID(int handle) {
+		return columns[SrcHostID].get(handle);
+	}
+
+	public int getDstHostID(int handle) {
+		return columns[DstHostID].get(handle);
+	}
+
+	public int getStoredSegments() {
+		return storedSegments;
+	}
+
+	public int getMaxStoredSegments() {
+		return maxStoredSegments;
+	}
+
+	private void grow() {
+		int newCapacity = 2 * capacity;
+		for (int column = 0; column < Columns; column++) {
+			IntBuffer newColumn = allocateColumn(newCapacity);
+			columns[column].rewind();
+			newColumn.put(columns[column]);
+			columns[column] = newColumn;
+		}
+		capacity = newCapacity;
+	}
+
+	private static IntBuffer allocateColumn(int capacity) {
+		return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+}
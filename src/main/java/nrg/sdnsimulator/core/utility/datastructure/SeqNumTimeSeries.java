@@ -0,0 +1,74 @@
+package nrg.sdnsimulator.core.utility.datastructure;
+
+import java.util.Arrays;
+
+/*
+ * Times of a flow's segments indexed by sequence number, a primitive
+ * replacement for TreeMap<Float, Float>. Sequence numbers are dense from 0, so
+ * the times are a float array that grows by doubling; NaN marks a sequence
+ * number without a time. Recording a sequence number again overwrites it.
+ */
+public class SeqNumTimeSeries {
+
+	private static final int InitialCapacity = 16;
+
+	private float[] times;
+	// One past the highest recorded sequence number
+	private int end;
+	private int size;
+
+	public SeqNumTimeSeries() {
+		times = new float[0];
+		end = 0;
+		size = 0;
+	}
+
+	public void put(int seqNum, float time) {
+		if (seqNum < 0) {
+			throw new IllegalArgumentException("Negative sequence number " + seqNum);
+		}
+		if (seqNum >= times.length) {
+			int oldLength = times.length;
+			times = Arrays.copyOf(times, Math.max(seqNum + 1, Math.max(InitialCapacity, 2 * oldLength)));
+			Arrays.fill(times, oldLength, times.length, Float.NaN);
+		}
+		if (Float.isNaN(times[seqNum])) {
+			size++;
+		}
+		times[seqNum] = time;
+		end = Math.max(end, seqNum + 1);
+	}
+
+	public boolean contains(int seqNum) {
+		return seqNum >= 0 && seqNum < end && !Float.isNaN(times[seqNum]);
+	}
+
+	/* NaN if the sequence number has no time */
+	public float get(int seqNum) {
+		return contains(seqNum) ? times[seqNum] : Float.NaN;
+	}
+
+	/* The first recorded sequence number from seqNum on, -1 if there is none */
+	public int next(int seqNum) {
+		for (int i = Math.max(seqNum, 0); i < end; i++) {
+			if (!Float.isNaN(times[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/* The recorded sequence numbers are below getEnd() */
+	public int getEnd() {
+		return end;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+}
@@ -0,0 +1,130 @@
+package nrg.sdnsimulator.core.utility.datastructure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.math3.util.Pair;
+
+import nrg.sdnsimulator.core.utility.Mathematics;
+
+/*
+ * Time-weighted statistics of a piecewise constant integer value, such as the
+ * length of a queue, updated in O(1) at every change. Each value holds from
+ * its update to the next one. The area under the value, its maximum and the
+ * time spent at each value are kept online. The optional trace records the
+ * value at most once per sampling interval, so its memory is bounded by the
+ * length of the run rather than by the number of changes.
+ */
+public class TimeWeightedStatistic {
+
+	private static final int InitialCapacity = 16;
+
+	private long firstTimePs;
+	private long lastTimePs;
+	private int lastValue;
+	private int maxValue;
+	private double area; // value * ps
+	private long[] timeAtValuePs;
+
+	/* Down-sampled trace, off while the sampling interval is 0 */
+	private long sampleIntervalPs;
+	private long nextSampleTimePs;
+	private float[] traceTimes; // microseconds
+	private int[] traceValues;
+	private int traceSize;
+
+	public TimeWeightedStatistic() {
+		firstTimePs = -1;
+		lastTimePs = -1;
+		lastValue = 0;
+		maxValue = 0;
+		area = 0;
+		timeAtValuePs = new long[InitialCapacity];
+		sampleIntervalPs = 0;
+		nextSampleTimePs = 0;
+		traceTimes = new float[0];
+		traceValues = new int[0];
+		traceSize = 0;
+	}
+
+	/* Changes are recorded in time order, a change at the time of the previous one replaces it */
+	public void update(long timePs, int value) {
+		if (firstTimePs < 0) {
+			firstTimePs = timePs;
+		} else if (timePs > lastTimePs) {
+			long duration = timePs - lastTimePs;
+			area += (double) lastValue * duration;
+			if (lastValue >= timeAtValuePs.length) {
+				timeAtValuePs = Arrays.copyOf(timeAtValuePs, Math.max(lastValue + 1, 2 * timeAtValuePs.length));
+			}
+			timeAtValuePs[lastValue] += duration;
+		}
+		lastTimePs = timePs;
+		lastValue = value;
+		maxValue = Math.max(maxValue, value);
+		if (sampleIntervalPs > 0 && timePs >= nextSampleTimePs) {
+			addSample(Mathematics.picoToMicro(timePs), value);
+			nextSampleTimePs = (timePs / sampleIntervalPs + 1) * sampleIntervalPs;
+		}
+	}
+
+	/* Average between the first and the last change */
+	public float getAverage() {
+		if (lastTimePs <= firstTimePs) {
+			return 0;
+		}
+		return (float) (area / (lastTimePs - firstTimePs));
+	}
+
+	public int getMax() {
+		return maxValue;
+	}
+
+	/* Time spent at the value between the first and the last change */
+	public float getTimeAtValue(int value) {
+		return value >= 0 && value < timeAtValuePs.length ? Mathematics.picoToMicro(timeAtValuePs[value]) : 0;
+	}
+
+	/* Fraction of the time the value was at most the given one */
+	public float getFractionAtMost(int value) {
+		long totalTimePs = lastTimePs - firstTimePs;
+		if (totalTimePs <= 0) {
+			return 0;
+		}
+		long timePs = 0;
+		for (int v = 0; v <= value && v < timeAtValuePs.length; v++) {
+			timePs += timeAtValuePs[v];
+		}
+		return (float) ((double) timePs / totalTimePs);
+	}
+
+	/* ========== Down-sampled trace ========== */
+	public void setSampleInterval(float sampleInterval) {
+		sampleIntervalPs = Mathematics.microToPico(sampleInterval);
+	}
+
+	public boolean isTraced() {
+		return sampleIntervalPs > 0;
+	}
+
+	/* <Time (us), Value> of the samples */
+	public ArrayList<Pair<Float, Float>> getTrace() {
+		ArrayList<Pair<Float, Float>> trace = new ArrayList<Pair<Float, Float>>(traceSize);
+		for (int i = 0; i < traceSize; i++) {
+			trace.add(new Pair<Float, Float>(traceTimes[i], (float) traceValues[i]));
+		}
+		return trace;
+	}
+
+	private void addSample(float time, int value) {
+		if (traceSize == traceTimes.length) {
+			int capacity = Math.max(InitialCapacity, 2 * traceSize);
+			traceTimes = Arrays.copyOf(traceTimes, capacity);
+			traceValues = Arrays.copyOf(traceValues, capacity);
+		}
+		traceTimes[traceSize] = time;
+		traceValues[traceSize] = value;
+		traceSize++;
+	}
+
+}
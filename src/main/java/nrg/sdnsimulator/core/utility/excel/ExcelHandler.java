@@ -2,6 +2,7 @@ package nrg.sdnsimulator.core.utility.excel;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 
 import org.apache.commons.math3.util.Pair;
@@ -10,6 +11,10 @@ import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellUtil;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -17,28 +22,23 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import lombok.Getter;
 import lombok.Setter;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.datastructure.SeqNumTimeSeries;
 import nrg.sdnsimulator.core.utility.excel.datastructure.CategoryFactorBarTableData;
 import nrg.sdnsimulator.core.utility.excel.datastructure.CategoryFactorOutputData;
 import nrg.sdnsimulator.core.utility.excel.datastructure.NumericFactorOutputData;
 import nrg.sdnsimulator.core.utility.excel.datastructure.NumericFactorScatterTableData;
+import nrg.sdnsimulator.core.utility.excel.datastructure.SeqNumScatterTableData;
 
+/* Cell styles belong to their workbook, so several outputs can be written at once */
 @Getter
 @Setter
 public class ExcelHandler {
 
-	private static DataFormat format;
-	private static CellStyle xAxisStyle;
-	private static CellStyle yAxisStyle;
-
 	public static void createCategoryFactorStudyOutput(String outputPath, String fileName,
 			CategoryFactorOutputData outputData) throws IOException {
 		FileOutputStream outPutStream = new FileOutputStream(outputPath + fileName + ".xlsx");
 		XSSFWorkbook workbook = new XSSFWorkbook();
-		format = workbook.createDataFormat();
-		xAxisStyle = workbook.createCellStyle();
-		xAxisStyle.setDataFormat(format.getFormat("#.####"));
-		yAxisStyle = workbook.createCellStyle();
-		yAxisStyle.setDataFormat(format.getFormat("#"));
 		for (String sheetName : outputData.getOutputSheets().keySet()) {
 			XSSFSheet sheet = workbook.createSheet(sheetName);
 			createCategoryScatterTableInSheet(sheet, outputData.getOutputSheets().get(sheetName));
@@ -103,14 +103,15 @@ public class ExcelHandler {
 			NumericFactorOutputData outputData) throws IOException {
 		FileOutputStream outPutStream = new FileOutputStream(outputPath + fileName + ".xlsx");
 		XSSFWorkbook workbook = new XSSFWorkbook();
-		format = workbook.createDataFormat();
-		xAxisStyle = workbook.createCellStyle();
+		DataFormat format = workbook.createDataFormat();
+		CellStyle xAxisStyle = workbook.createCellStyle();
 		xAxisStyle.setDataFormat(format.getFormat("#.####"));
-		yAxisStyle = workbook.createCellStyle();
+		CellStyle yAxisStyle = workbook.createCellStyle();
 		yAxisStyle.setDataFormat(format.getFormat("#.####"));
 		for (String sheetName : outputData.getOutputSheets().keySet()) {
 			XSSFSheet sheet = workbook.createSheet(sheetName);
-			createNumericScatterTableInSheet(sheet, outputData.getOutputSheets().get(sheetName));
+			createNumericScatterTableInSheet(sheet, outputData.getOutputSheets().get(sheetName), xAxisStyle,
+					yAxisStyle);
 			ChartPlotter.plotNumericalScatterChart(sheet, sheetName, outputData.getOutputSheets().get(sheetName));
 		}
 		workbook.write(outPutStream);
@@ -119,7 +120,8 @@ public class ExcelHandler {
 
 	}
 
-	private static XSSFSheet createNumericScatterTableInSheet(XSSFSheet sheet, NumericFactorScatterTableData table) {
+	private static XSSFSheet createNumericScatterTableInSheet(XSSFSheet sheet, NumericFactorScatterTableData table,
+			CellStyle xAxisStyle, CellStyle yAxisStyle) {
 		int SeriesTitleRowIndex = table.getSeriesTitleRowIndex();
 		int ColumnHeaderRowIndex = table.getColumnHeaderRowIndex();
 		int FirstDataRowIndex = table.getFirstDataRowIndex();
@@ -174,14 +176,14 @@ public class ExcelHandler {
 			LinkedHashMap<String, NumericFactorScatterTableData> outputData) throws IOException {
 		FileOutputStream outPutStream = new FileOutputStream(outputPath + fileName + ".xlsx");
 		XSSFWorkbook workbook = new XSSFWorkbook();
-		format = workbook.createDataFormat();
-		xAxisStyle = workbook.createCellStyle();
+		DataFormat format = workbook.createDataFormat();
+		CellStyle xAxisStyle = workbook.createCellStyle();
 		xAxisStyle.setDataFormat(format.getFormat("#.###"));
-		yAxisStyle = workbook.createCellStyle();
+		CellStyle yAxisStyle = workbook.createCellStyle();
 		yAxisStyle.setDataFormat(format.getFormat("#"));
 		for (String sheetName : outputData.keySet()) {
 			XSSFSheet sheet = workbook.createSheet(sheetName);
-			createNumericScatterTableInSheet(sheet, outputData.get(sheetName));
+			createNumericScatterTableInSheet(sheet, outputData.get(sheetName), xAxisStyle, yAxisStyle);
 			ChartPlotter.plotNumericalScatterChart(sheet, sheetName, outputData.get(sheetName));
 		}
 		workbook.write(outPutStream);
@@ -189,6 +191,108 @@ public class ExcelHandler {
 		outPutStream.close();
 	}
 
+	/*
+	 * Streamed version of createValidationOutput for sheets of millions of rows.
+	 * Only a window of rows is kept in memory, the rest is flushed to temporary
+	 * files, so the rows are written in order and columns have a fixed width.
+	 * The charts are drawn on a summary sheet per table that holds a sample of
+	 * its series, written before the workbook starts streaming.
+	 */
+	public static void createStreamingValidationOutput(String outputPath, String fileName,
+			LinkedHashMap<String, SeqNumScatterTableData> outputData) throws IOException {
+		FileOutputStream outPutStream = new FileOutputStream(outputPath + fileName + ".xlsx");
+		XSSFWorkbook template = new XSSFWorkbook();
+		DataFormat format = template.createDataFormat();
+		CellStyle xAxisStyle = template.createCellStyle();
+		xAxisStyle.setDataFormat(format.getFormat("#.###"));
+		CellStyle yAxisStyle = template.createCellStyle();
+		yAxisStyle.setDataFormat(format.getFormat("#"));
+		for (String sheetName : outputData.keySet()) {
+			NumericFactorScatterTableData summary = outputData.get(sheetName).getSummary(Keywords.Excel.SummaryRows);
+			XSSFSheet sheet = template.createSheet(sheetName + "_Summary");
+			createNumericScatterTableInSheet(sheet, summary, xAxisStyle, yAxisStyle);
+			ChartPlotter.plotNumericalScatterChart(sheet, sheetName, summary);
+		}
+		SXSSFWorkbook workbook = new SXSSFWorkbook(template, Keywords.Excel.StreamingRowWindow);
+		workbook.setCompressTempFiles(true);
+		for (String sheetName : outputData.keySet()) {
+			createSeqNumScatterTableInStreamingSheets(workbook, sheetName, outputData.get(sheetName), xAxisStyle,
+					yAxisStyle);
+		}
+		workbook.write(outPutStream);
+		workbook.dispose();
+		workbook.close();
+		outPutStream.close();
+	}
+
+	/*
+	 * Row by row, a flushed row cannot be written again. A table longer than a
+	 * sheet goes on over sheetName_1, sheetName_2, ..., each with its headers.
+	 */
+	private static void createSeqNumScatterTableInStreamingSheets(SXSSFWorkbook workbook, String sheetName,
+			SeqNumScatterTableData table, CellStyle xAxisStyle, CellStyle yAxisStyle) {
+		int FirstDataRowIndex = table.getFirstDataRowIndex();
+		int rowsPerSheet = Keywords.Excel.MaxRows - FirstDataRowIndex;
+		int rowCount = table.getRowCount();
+		int sheetCount = Math.max(1, (rowCount + rowsPerSheet - 1) / rowsPerSheet);
+		ArrayList<SeqNumTimeSeries> seriesData = new ArrayList<SeqNumTimeSeries>(table.getData().values());
+		// Next sequence number of each series, -1 once it is written out
+		int[] seqNums = new int[seriesData.size()];
+		for (int i = 0; i < seqNums.length; i++) {
+			seqNums[i] = seriesData.get(i).next(0);
+		}
+		for (int part = 1; part <= sheetCount; part++) {
+			SXSSFSheet sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + "_" + part);
+			createScatterTableHeadersInStreamingSheet(sheet, table);
+
+			// Putting actual data, the series side by side
+			int partRowCount = Math.min(rowsPerSheet, rowCount - (part - 1) * rowsPerSheet);
+			for (int dataRowIndex = FirstDataRowIndex; dataRowIndex < FirstDataRowIndex
+					+ partRowCount; dataRowIndex++) {
+				SXSSFRow dataRow = sheet.createRow(dataRowIndex);
+				int xColIndex = 0;
+				for (int i = 0; i < seqNums.length; i++) {
+					if (seqNums[i] >= 0) {
+						SeqNumTimeSeries series = seriesData.get(i);
+						SXSSFCell xAxisDataCell = dataRow.createCell(xColIndex);
+						xAxisDataCell.setCellValue(series.get(seqNums[i]));
+						xAxisDataCell.setCellStyle(xAxisStyle);
+						SXSSFCell yAxisDataCell = dataRow.createCell(xColIndex + 1);
+						yAxisDataCell.setCellValue(seqNums[i]);
+						yAxisDataCell.setCellStyle(yAxisStyle);
+						seqNums[i] = series.next(seqNums[i] + 1);
+					}
+					xColIndex += 2;
+				}
+			}
+		}
+	}
+
+	private static SXSSFSheet createScatterTableHeadersInStreamingSheet(SXSSFSheet sheet,
+			SeqNumScatterTableData table) {
+		int SeriesTitleRowIndex = table.getSeriesTitleRowIndex();
+		SXSSFRow seriesTitleRow = sheet.createRow(SeriesTitleRowIndex);
+		SXSSFRow colHeaderRow = sheet.createRow(table.getColumnHeaderRowIndex());
+		int xColIndex = 0;
+		for (String seriesTitle : table.getData().keySet()) {
+			int yColIndex = xColIndex + 1;
+			sheet.addMergedRegion(new CellRangeAddress(SeriesTitleRowIndex, SeriesTitleRowIndex, xColIndex, yColIndex));
+			SXSSFCell seriesTitleCell = seriesTitleRow.createCell(xColIndex);
+			CellUtil.setAlignment(seriesTitleCell, HorizontalAlignment.CENTER);
+			seriesTitleCell.setCellValue(seriesTitle);
+
+			// Going for series column headers
+			SXSSFCell xAxisColHeaderCell = colHeaderRow.createCell(xColIndex);
+			xAxisColHeaderCell.setCellValue(table.getXAxisColTitle());
+			SXSSFCell yAxisColHeaderCell = colHeaderRow.createCell(yColIndex);
+			yAxisColHeaderCell.setCellValue(table.getYAxisColTitle());
+			sheet.setColumnWidth(xColIndex, Keywords.Excel.ColumnWidth * 256);
+			sheet.setColumnWidth(yColIndex, Keywords.Excel.ColumnWidth * 256);
+			xColIndex += 2;
+		}
+		return sheet;
+	}
+
 	private static XSSFSheet mergeCells(XSSFSheet sheet, int numRow, int untilRow, int numCol, int untilCol) {
 		CellRangeAddress cellMerge = new CellRangeAddress(numRow, untilRow, numCol, untilCol);
 		sheet.addMergedRegion(cellMerge);
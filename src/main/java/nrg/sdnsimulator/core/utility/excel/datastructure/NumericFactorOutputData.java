@@ -18,6 +18,9 @@ public class NumericFactorOutputData {
 	private LinkedHashMap<String, TreeMap<Float, Float>> fairnessIndexData;
 	private LinkedHashMap<String, TreeMap<Float, Float>> btlMaxQueueLengthData;
 	private LinkedHashMap<String, TreeMap<Float, Float>> btlAvgQueueLengthData;
+	private LinkedHashMap<String, TreeMap<Float, Float>> p99CompletionTimeData;
+	private LinkedHashMap<String, TreeMap<Float, Float>> p999CompletionTimeData;
+	private LinkedHashMap<String, TreeMap<Float, Float>> p99QueueingDelayData;
 	private String mainFactorName;
 	private LinkedHashMap<String, NumericFactorScatterTableData> outputSheets;
 
@@ -32,6 +35,9 @@ public class NumericFactorOutputData {
 		btlUtilizationData = new LinkedHashMap<String, TreeMap<Float, Float>>();
 		btlMaxQueueLengthData = new LinkedHashMap<String, TreeMap<Float, Float>>();
 		btlAvgQueueLengthData = new LinkedHashMap<String, TreeMap<Float, Float>>();
+		p99CompletionTimeData = new LinkedHashMap<String, TreeMap<Float, Float>>();
+		p999CompletionTimeData = new LinkedHashMap<String, TreeMap<Float, Float>>();
+		p99QueueingDelayData = new LinkedHashMap<String, TreeMap<Float, Float>>();
 
 		for (String seriesName : result.keySet()) {
 			initializedSeriesForAllMetrics(seriesName);
@@ -120,6 +126,39 @@ public class NumericFactorOutputData {
 		outputSheets.put(sheetName, table);
 	}
 
+	private void addP99CompletionTimeData() {
+		String sheetName = "P99CompletionTime";
+		String xAxisCaption = mainFactorName;
+		String yAxisCaption = Keywords.Metrics.Names.P99FlowCompletionTime;
+		NumericFactorScatterTableData table = new NumericFactorScatterTableData(xAxisCaption, yAxisCaption);
+		for (String seriesName : p99CompletionTimeData.keySet()) {
+			table.addSeriesToTable(seriesName, p99CompletionTimeData.get(seriesName));
+		}
+		outputSheets.put(sheetName, table);
+	}
+
+	private void addP999CompletionTimeData() {
+		String sheetName = "P999CompletionTime";
+		String xAxisCaption = mainFactorName;
+		String yAxisCaption = Keywords.Metrics.Names.P999FlowCompletionTime;
+		NumericFactorScatterTableData table = new NumericFactorScatterTableData(xAxisCaption, yAxisCaption);
+		for (String seriesName : p999CompletionTimeData.keySet()) {
+			table.addSeriesToTable(seriesName, p999CompletionTimeData.get(seriesName));
+		}
+		outputSheets.put(sheetName, table);
+	}
+
+	private void addP99QueueingDelayData() {
+		String sheetName = "P99QueueingDelay";
+		String xAxisCaption = mainFactorName;
+		String yAxisCaption = Keywords.Metrics.Names.P99QueueingDelay;
+		NumericFactorScatterTableData table = new NumericFactorScatterTableData(xAxisCaption, yAxisCaption);
+		for (String seriesName : p99QueueingDelayData.keySet()) {
+			table.addSeriesToTable(seriesName, p99QueueingDelayData.get(seriesName));
+		}
+		outputSheets.put(sheetName, table);
+	}
+
 	private void initializedSeriesForAllMetrics(String seriesName) {
 		// All metric data structures must be mentioned here
 		avgCompletionTimeData.put(seriesName, new TreeMap<Float, Float>());
@@ -129,6 +168,9 @@ public class NumericFactorOutputData {
 		btlUtilizationData.put(seriesName, new TreeMap<Float, Float>());
 		btlMaxQueueLengthData.put(seriesName, new TreeMap<Float, Float>());
 		btlAvgQueueLengthData.put(seriesName, new TreeMap<Float, Float>());
+		p99CompletionTimeData.put(seriesName, new TreeMap<Float, Float>());
+		p999CompletionTimeData.put(seriesName, new TreeMap<Float, Float>());
+		p99QueueingDelayData.put(seriesName, new TreeMap<Float, Float>());
 
 	}
 
@@ -141,6 +183,12 @@ public class NumericFactorOutputData {
 		btlUtilizationData.get(seriesName).put(metricValue, stat.getBottleneckUtilization());
 		btlMaxQueueLengthData.get(seriesName).put(metricValue, stat.getBtlMaxQueueLength());
 		btlAvgQueueLengthData.get(seriesName).put(metricValue, stat.getBtlAvgQueueLength());
+		p99CompletionTimeData.get(seriesName).put(metricValue,
+				stat.getFlowCompletionTimePercentile(Keywords.Metrics.Percentiles.P99));
+		p999CompletionTimeData.get(seriesName).put(metricValue,
+				stat.getFlowCompletionTimePercentile(Keywords.Metrics.Percentiles.P999));
+		p99QueueingDelayData.get(seriesName).put(metricValue,
+				stat.getQueueingDelayPercentile(Keywords.Metrics.Percentiles.P99));
 
 	}
 
@@ -153,6 +201,9 @@ public class NumericFactorOutputData {
 		addBtlUtilizationData();
 		addBtlMaxQueueLengthData();
 		addBtlAvgQueueLengthData();
+		addP99CompletionTimeData();
+		addP999CompletionTimeData();
+		addP99QueueingDelayData();
 	}
 
 }
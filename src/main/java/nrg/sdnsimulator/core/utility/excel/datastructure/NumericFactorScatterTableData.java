@@ -38,6 +38,30 @@ public class NumericFactorScatterTableData {
 		data.put(seriesName, seriesValues);
 	}
 
+	/* Rows of the longest series */
+	public int getRowCount() {
+		int rowCount = 0;
+		for (ArrayList<Pair<Float, Float>> entryList : data.values()) {
+			rowCount = Math.max(rowCount, entryList.size());
+		}
+		return rowCount;
+	}
+
+	/* Every n-th entry of each series, so that no series has more than maxRows */
+	public NumericFactorScatterTableData getSummary(int maxRows) {
+		NumericFactorScatterTableData summary = new NumericFactorScatterTableData(xAxisColTitle, yAxisColTitle);
+		for (String seriesName : data.keySet()) {
+			ArrayList<Pair<Float, Float>> entryList = data.get(seriesName);
+			int stride = Math.max(1, (entryList.size() + maxRows - 1) / maxRows);
+			ArrayList<Pair<Float, Float>> summaryValues = new ArrayList<Pair<Float, Float>>();
+			for (int i = 0; i < entryList.size(); i += stride) {
+				summaryValues.add(entryList.get(i));
+			}
+			summary.getData().put(seriesName, summaryValues);
+		}
+		return summary;
+	}
+
 	public int getFloatOfSeries() {
 		return data.size();
 	}
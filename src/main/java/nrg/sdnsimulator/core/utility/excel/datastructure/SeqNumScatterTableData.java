@@ -0,0 +1,79 @@
+package nrg.sdnsimulator.core.utility.excel.datastructure;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+import org.apache.commons.math3.util.Pair;
+
+import lombok.Getter;
+import lombok.Setter;
+import nrg.sdnsimulator.core.utility.datastructure.SeqNumTimeSeries;
+
+/*
+ * Scatter table whose series are the (time, sequence number) entries of
+ * SeqNumTimeSeries, read in place. The streamed workbook walks the series
+ * without copying them, so a table of millions of rows takes no more memory
+ * than the time series themselves.
+ */
+@Getter
+@Setter
+public class SeqNumScatterTableData {
+
+	private int ColumnHeaderRowIndex = 1;
+	private LinkedHashMap<String, SeqNumTimeSeries> data; // <SeriesName, Series>
+	private int FirstDataRowIndex = 2;
+	private int SeriesTitleRowIndex = 0;
+	private String xAxisColTitle;
+	private String yAxisColTitle;
+
+	public SeqNumScatterTableData(String xAxisTitle, String yAxisTitle) {
+		this.xAxisColTitle = xAxisTitle;
+		this.yAxisColTitle = yAxisTitle;
+		data = new LinkedHashMap<String, SeqNumTimeSeries>();
+	}
+
+	public void addSeriesToTable(String seriesName, SeqNumTimeSeries series) {
+		data.put(seriesName, series);
+	}
+
+	/* Rows of the longest series */
+	public int getRowCount() {
+		int rowCount = 0;
+		for (SeqNumTimeSeries series : data.values()) {
+			rowCount = Math.max(rowCount, series.size());
+		}
+		return rowCount;
+	}
+
+	/* Copy of every entry, for the sheets that are small enough to chart */
+	public NumericFactorScatterTableData getScatterTableData() {
+		NumericFactorScatterTableData table = new NumericFactorScatterTableData(xAxisColTitle, yAxisColTitle);
+		for (String seriesName : data.keySet()) {
+			table.getData().put(seriesName, getEntries(data.get(seriesName), 1));
+		}
+		return table;
+	}
+
+	/* Every n-th entry of each series, so that no series has more than maxRows */
+	public NumericFactorScatterTableData getSummary(int maxRows) {
+		NumericFactorScatterTableData summary = new NumericFactorScatterTableData(xAxisColTitle, yAxisColTitle);
+		for (String seriesName : data.keySet()) {
+			SeqNumTimeSeries series = data.get(seriesName);
+			int stride = Math.max(1, (series.size() + maxRows - 1) / maxRows);
+			summary.getData().put(seriesName, getEntries(series, stride));
+		}
+		return summary;
+	}
+
+	private static ArrayList<Pair<Float, Float>> getEntries(SeqNumTimeSeries series, int stride) {
+		ArrayList<Pair<Float, Float>> entries = new ArrayList<Pair<Float, Float>>();
+		int entry = 0;
+		for (int seqNum = series.next(0); seqNum >= 0; seqNum = series.next(seqNum + 1)) {
+			if (entry++ % stride == 0) {
+				entries.add(new Pair<Float, Float>(series.get(seqNum), (float) seqNum));
+			}
+		}
+		return entries;
+	}
+
+}
@@ -0,0 +1,123 @@
+package nrg.sdnsimulator.core.utility.metric;
+
+import java.util.Arrays;
+
+/*
+ * Histogram of non-negative long values with a bounded relative error, in the
+ * manner of HdrHistogram. Values below 2^SubBucketBits have a bucket each;
+ * above, each power of two is split into 2^(SubBucketBits - 1) buckets, so a
+ * bucket is at most 1/64 of its values wide. The counts grow with the largest
+ * value, a few thousand buckets cover the whole long range. Histograms have
+ * the same buckets, so those of partitions or replications add up exactly.
+ */
+public class LogHistogram {
+
+	private static final int SubBucketBits = 7;
+	private static final int SubBucketCount = 1 << SubBucketBits;
+	private static final int SubBucketHalfCountBits = SubBucketBits - 1;
+
+	private long[] counts;
+	private long totalCount;
+	private double sum;
+	private long min;
+	private long max;
+
+	public LogHistogram() {
+		counts = new long[SubBucketCount];
+		totalCount = 0;
+		sum = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value " + value);
+		}
+		int index = indexOf(value);
+		if (index >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(index + 1, 2 * counts.length));
+		}
+		counts[index]++;
+		totalCount++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public void merge(LogHistogram other) {
+		if (other.totalCount == 0) {
+			return;
+		}
+		if (other.counts.length > counts.length) {
+			counts = Arrays.copyOf(counts, other.counts.length);
+		}
+		for (int index = 0; index < other.counts.length; index++) {
+			counts[index] += other.counts[index];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/*
+	 * Smallest recorded value such that the percentage of the values is at most
+	 * it, up to the width of its bucket. 0 when empty.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * totalCount));
+		long cumulative = 0;
+		for (int index = 0; index < counts.length; index++) {
+			cumulative += counts[index];
+			if (cumulative >= rank) {
+				return Math.max(min, Math.min(max, highestValueOf(index)));
+			}
+		}
+		return max;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public double getMean() {
+		return totalCount > 0 ? sum / totalCount : 0;
+	}
+
+	public long getMin() {
+		return totalCount > 0 ? min : 0;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	private static int indexOf(long value) {
+		if (value < SubBucketCount) {
+			return (int) value;
+		}
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SubBucketBits;
+		return (shift << SubBucketHalfCountBits) + (int) (value >>> shift);
+	}
+
+	private static long lowestValueOf(int index) {
+		if (index < SubBucketCount) {
+			return index;
+		}
+		int shift = (index >>> SubBucketHalfCountBits) - 1;
+		return (long) (index - (shift << SubBucketHalfCountBits)) << shift;
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < SubBucketCount) {
+			return index;
+		}
+		int shift = (index >>> SubBucketHalfCountBits) - 1;
+		return lowestValueOf(index) + (1L << shift) - 1;
+	}
+
+}
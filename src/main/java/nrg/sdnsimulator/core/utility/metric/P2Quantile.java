@@ -0,0 +1,112 @@
+package nrg.sdnsimulator.core.utility.metric;
+
+import java.util.Arrays;
+
+/*
+ * Estimate of one quantile of a stream of values with five markers (the P-square
+ * algorithm, Jain and Chlamtac 1985). The markers track the minimum, the
+ * quantile, the maximum and the quantiles halfway between them, and are moved
+ * by piecewise parabolic interpolation as values arrive.
+ */
+public class P2Quantile {
+
+	private static final int Markers = 5;
+
+	private final double quantile;
+	private long count;
+	private final double[] heights;
+	private final long[] positions;
+	private final double[] desiredPositions;
+	private final double[] increments;
+
+	/* quantile in (0, 1) */
+	public P2Quantile(double quantile) {
+		if (quantile <= 0 || quantile >= 1) {
+			throw new IllegalArgumentException("Quantile " + quantile + " is not in (0, 1)");
+		}
+		this.quantile = quantile;
+		count = 0;
+		heights = new double[Markers];
+		positions = new long[] { 0, 1, 2, 3, 4 };
+		desiredPositions = new double[] { 0, 2 * quantile, 4 * quantile, 2 + 2 * quantile, 4 };
+		increments = new double[] { 0, quantile / 2, quantile, (1 + quantile) / 2, 1 };
+	}
+
+	public void add(double value) {
+		if (count < Markers) {
+			heights[(int) count++] = value;
+			if (count == Markers) {
+				Arrays.sort(heights);
+			}
+			return;
+		}
+		int cell;
+		if (value < heights[0]) {
+			heights[0] = value;
+			cell = 0;
+		} else if (value >= heights[Markers - 1]) {
+			heights[Markers - 1] = value;
+			cell = Markers - 2;
+		} else {
+			cell = 0;
+			while (value >= heights[cell + 1]) {
+				cell++;
+			}
+		}
+		for (int i = cell + 1; i < Markers; i++) {
+			positions[i]++;
+		}
+		for (int i = 0; i < Markers; i++) {
+			desiredPositions[i] += increments[i];
+		}
+		for (int i = 1; i < Markers - 1; i++) {
+			double offset = desiredPositions[i] - positions[i];
+			if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+					|| (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+				int step = offset > 0 ? 1 : -1;
+				double height = parabolic(i, step);
+				if (heights[i - 1] < height && height < heights[i + 1]) {
+					heights[i] = height;
+				} else {
+					heights[i] = linear(i, step);
+				}
+				positions[i] += step;
+			}
+		}
+		count++;
+	}
+
+	/* NaN before the first value, exact while there are fewer than five */
+	public double getQuantile() {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		if (count < Markers) {
+			double[] values = Arrays.copyOf(heights, (int) count);
+			Arrays.sort(values);
+			return values[(int) Math.min(count - 1, Math.round(quantile * (count - 1)))];
+		}
+		return heights[2];
+	}
+
+	public double getQuantileLevel() {
+		return quantile;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	private double parabolic(int i, int step) {
+		double toNext = positions[i + 1] - positions[i];
+		double fromPrevious = positions[i] - positions[i - 1];
+		return heights[i] + step / (double) (positions[i + 1] - positions[i - 1])
+				* ((fromPrevious + step) * (heights[i + 1] - heights[i]) / toNext
+						+ (toNext - step) * (heights[i] - heights[i - 1]) / fromPrevious);
+	}
+
+	private double linear(int i, int step) {
+		return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+	}
+
+}
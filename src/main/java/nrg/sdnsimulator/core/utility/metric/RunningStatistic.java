@@ -0,0 +1,93 @@
+package nrg.sdnsimulator.core.utility.metric;
+
+/*
+ * Count, mean, variance, minimum and maximum of a stream of values in O(1)
+ * memory (Welford's algorithm). Two statistics of disjoint streams merge into
+ * the statistic of both (Chan et al.).
+ */
+public class RunningStatistic {
+
+	private long count;
+	private double mean;
+	private double sumOfSquaredDeviations;
+	private double min;
+	private double max;
+
+	public RunningStatistic() {
+		count = 0;
+		mean = 0;
+		sumOfSquaredDeviations = 0;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+	}
+
+	public void add(double value) {
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		sumOfSquaredDeviations += delta * (value - mean);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public void merge(RunningStatistic other) {
+		if (other.count == 0) {
+			return;
+		}
+		if (count == 0) {
+			count = other.count;
+			mean = other.mean;
+			sumOfSquaredDeviations = other.sumOfSquaredDeviations;
+			min = other.min;
+			max = other.max;
+			return;
+		}
+		long mergedCount = count + other.count;
+		double delta = other.mean - mean;
+		mean += delta * other.count / mergedCount;
+		sumOfSquaredDeviations += other.sumOfSquaredDeviations
+				+ delta * delta * ((double) count * other.count / mergedCount);
+		count = mergedCount;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/* The statistic of the same values multiplied by a positive factor */
+	public void scale(double factor) {
+		mean *= factor;
+		sumOfSquaredDeviations *= factor * factor;
+		min *= factor;
+		max *= factor;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	/* Population variance, 0 for fewer than two values */
+	public double getVariance() {
+		return count > 1 ? sumOfSquaredDeviations / count : 0;
+	}
+
+	public double getSampleVariance() {
+		return count > 1 ? sumOfSquaredDeviations / (count - 1) : 0;
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/* NaN before the first value */
+	public double getMin() {
+		return count > 0 ? min : Double.NaN;
+	}
+
+	public double getMax() {
+		return count > 0 ? max : Double.NaN;
+	}
+
+}
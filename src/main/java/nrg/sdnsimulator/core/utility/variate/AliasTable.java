@@ -0,0 +1,73 @@
+package nrg.sdnsimulator.core.utility.variate;
+
+/*
+ * Samples an index with probability proportional to its weight in constant
+ * time (Walker's alias method, built as in Vose 1991). Each column holds the
+ * probability of its own index and the alias index that fills the rest.
+ */
+public class AliasTable {
+
+	private final double[] probability;
+	private final int[] alias;
+
+	public AliasTable(double[] weights) {
+		int n = weights.length;
+		if (n == 0) {
+			throw new IllegalArgumentException("No weights");
+		}
+		double sum = 0;
+		for (double weight : weights) {
+			if (weight < 0 || Double.isNaN(weight)) {
+				throw new IllegalArgumentException("Negative weight " + weight);
+			}
+			sum += weight;
+		}
+		if (sum <= 0) {
+			throw new IllegalArgumentException("Weights sum to zero");
+		}
+		probability = new double[n];
+		alias = new int[n];
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < n; i++) {
+			scaled[i] = weights[i] * n / sum;
+			if (scaled[i] < 1) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			probability[less] = scaled[less];
+			alias[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			if (scaled[more] < 1) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+		// What is left is 1 up to rounding
+		while (largeCount > 0) {
+			probability[large[--largeCount]] = 1;
+		}
+		while (smallCount > 0) {
+			probability[small[--smallCount]] = 1;
+		}
+	}
+
+	public int sample(VariateGenerator variates) {
+		int column = variates.nextInt(probability.length);
+		return variates.nextDouble() < probability[column] ? column : alias[column];
+	}
+
+	public int size() {
+		return probability.length;
+	}
+
+}
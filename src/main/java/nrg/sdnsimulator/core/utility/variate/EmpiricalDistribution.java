@@ -0,0 +1,55 @@
+package nrg.sdnsimulator.core.utility.variate;
+
+import java.util.Arrays;
+
+/*
+ * Piecewise linear distribution of an empirical CDF, such as the flow size
+ * distributions measured in data centers. The CDF is given as increasing
+ * values and their cumulative probabilities; a draw picks a segment with an
+ * alias table and interpolates inside it, so a draw costs the same whatever
+ * the number of points.
+ */
+public class EmpiricalDistribution {
+
+	private final double[] values;
+	private final AliasTable segments;
+	private final double mean;
+
+	public EmpiricalDistribution(double[] values, double[] cumulativeProbabilities) {
+		if (values.length != cumulativeProbabilities.length || values.length < 2) {
+			throw new IllegalArgumentException("An empirical CDF needs at least two points, one probability each");
+		}
+		double[] weights = new double[values.length - 1];
+		for (int i = 1; i < values.length; i++) {
+			if (values[i] < values[i - 1] || cumulativeProbabilities[i] < cumulativeProbabilities[i - 1]) {
+				throw new IllegalArgumentException("The empirical CDF must be non-decreasing");
+			}
+			weights[i - 1] = cumulativeProbabilities[i] - cumulativeProbabilities[i - 1];
+		}
+		this.values = Arrays.copyOf(values, values.length);
+		segments = new AliasTable(weights);
+		double weightedSum = 0;
+		double totalWeight = 0;
+		for (int i = 0; i < weights.length; i++) {
+			weightedSum += weights[i] * (values[i] + values[i + 1]) / 2;
+			totalWeight += weights[i];
+		}
+		mean = weightedSum / totalWeight;
+	}
+
+	public double sample(VariateGenerator variates) {
+		int segment = segments.sample(variates);
+		return values[segment] + variates.nextDouble() * (values[segment + 1] - values[segment]);
+	}
+
+	public void fill(VariateGenerator variates, double[] samples, int count) {
+		for (int i = 0; i < count; i++) {
+			samples[i] = sample(variates);
+		}
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+}
@@ -0,0 +1,195 @@
+package nrg.sdnsimulator.core.utility.variate;
+
+import java.util.SplittableRandom;
+
+import lombok.Getter;
+
+/*
+ * Variates drawn from a SplittableRandom without allocating. Normal and
+ * exponential variates use the ziggurat tables, so most draws take one
+ * 64-bit random number and a multiplication; gamma variates use Marsaglia and
+ * Tsang (2000) on top of them. The fill methods write a batch of variates into
+ * a primitive array, for generating the traffic of large studies up front.
+ */
+@Getter
+public class VariateGenerator {
+
+	private final long seed;
+	private SplittableRandom random;
+
+	public VariateGenerator(long seed) {
+		this.seed = seed;
+		random = new SplittableRandom(seed);
+	}
+
+	/* Restarts the sequence of the seed */
+	public void reset() {
+		random = new SplittableRandom(seed);
+	}
+
+	/* ========== Uniform ========== */
+	/* Uniform on (0, 1), never 0 so it can be passed to a logarithm */
+	public double nextDouble() {
+		return ((random.nextLong() >>> 12) + 0.5) * 0x1.0p-52;
+	}
+
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	public double nextUniform(double lower, double upper) {
+		return lower + nextDouble() * (upper - lower);
+	}
+
+	/* ========== Normal ========== */
+	public double nextGaussian() {
+		while (true) {
+			long bits = random.nextLong();
+			int i = (int) bits & (Ziggurat.NormalLayers - 1);
+			// Upper 53 bits as a uniform on (-1, 1)
+			double u = ((bits >> 11) + 0.5) * 0x1.0p-52;
+			if (Math.abs(u) < Ziggurat.normalRatio[i]) {
+				return u * Ziggurat.normalX[i];
+			}
+			if (i == 0) {
+				return normalTail(u < 0);
+			}
+			double x = u * Ziggurat.normalX[i];
+			double f = Ziggurat.normalF[i + 1] + nextDouble() * (Ziggurat.normalF[i] - Ziggurat.normalF[i + 1]);
+			if (f < Math.exp(-0.5 * x * x)) {
+				return x;
+			}
+		}
+	}
+
+	/* Beyond NormalR, Marsaglia (1964) */
+	private double normalTail(boolean negative) {
+		double x, y;
+		do {
+			x = Math.log(nextDouble()) / Ziggurat.NormalR;
+			y = Math.log(nextDouble());
+		} while (-2 * y < x * x);
+		return negative ? x - Ziggurat.NormalR : Ziggurat.NormalR - x;
+	}
+
+	public double nextGaussian(double mean, double std) {
+		return mean + std * nextGaussian();
+	}
+
+	public double nextLogNormal(double mu, double sigma) {
+		return Math.exp(mu + sigma * nextGaussian());
+	}
+
+	/* ========== Exponential ========== */
+	/* Unit mean */
+	public double nextExponential() {
+		while (true) {
+			long bits = random.nextLong();
+			int i = (int) bits & (Ziggurat.ExponentialLayers - 1);
+			double u = ((bits >>> 11) + 0.5) * 0x1.0p-53;
+			if (u < Ziggurat.exponentialRatio[i]) {
+				return u * Ziggurat.exponentialX[i];
+			}
+			if (i == 0) {
+				// The tail of an exponential is an exponential shifted to R
+				return Ziggurat.ExponentialR - Math.log(nextDouble());
+			}
+			double x = u * Ziggurat.exponentialX[i];
+			double f = Ziggurat.exponentialF[i + 1]
+					+ nextDouble() * (Ziggurat.exponentialF[i] - Ziggurat.exponentialF[i + 1]);
+			if (f < Math.exp(-x)) {
+				return x;
+			}
+		}
+	}
+
+	public double nextExponential(double mean) {
+		return mean * nextExponential();
+	}
+
+	/* ========== Gamma ========== */
+	public double nextGamma(double shape, double scale) {
+		if (shape <= 0 || scale <= 0) {
+			throw new IllegalArgumentException("Gamma shape and scale must be positive");
+		}
+		if (shape < 1) {
+			// Gamma(a) = Gamma(a + 1) * U^(1 / a)
+			return nextGamma(shape + 1, scale) * Math.pow(nextDouble(), 1 / shape);
+		}
+		double d = shape - 1.0 / 3;
+		double c = 1 / Math.sqrt(9 * d);
+		while (true) {
+			double x, v;
+			do {
+				x = nextGaussian();
+				v = 1 + c * x;
+			} while (v <= 0);
+			v = v * v * v;
+			double u = nextDouble();
+			double xx = x * x;
+			if (u < 1 - 0.0331 * xx * xx || Math.log(u) < 0.5 * xx + d * (1 - v + Math.log(v))) {
+				return d * v * scale;
+			}
+		}
+	}
+
+	/* ========== Pareto ========== */
+	/* Pareto of the shape from scale upwards */
+	public double nextPareto(double shape, double scale) {
+		return scale * Math.pow(nextDouble(), -1 / shape);
+	}
+
+	/* Pareto of the shape truncated to [lower, upper] */
+	public double nextBoundedPareto(double shape, double lower, double upper) {
+		double tail = 1 - Math.pow(lower / upper, shape);
+		return lower * Math.pow(1 - nextDouble() * tail, -1 / shape);
+	}
+
+	/* ========== Bulk ========== */
+	public void fillUniform(double[] values, int count, double lower, double upper) {
+		double range = upper - lower;
+		for (int i = 0; i < count; i++) {
+			values[i] = lower + nextDouble() * range;
+		}
+	}
+
+	public void fillGaussian(double[] values, int count, double mean, double std) {
+		for (int i = 0; i < count; i++) {
+			values[i] = mean + std * nextGaussian();
+		}
+	}
+
+	public void fillLogNormal(double[] values, int count, double mu, double sigma) {
+		for (int i = 0; i < count; i++) {
+			values[i] = Math.exp(mu + sigma * nextGaussian());
+		}
+	}
+
+	public void fillExponential(double[] values, int count, double mean) {
+		for (int i = 0; i < count; i++) {
+			values[i] = mean * nextExponential();
+		}
+	}
+
+	public void fillGamma(double[] values, int count, double shape, double scale) {
+		for (int i = 0; i < count; i++) {
+			values[i] = nextGamma(shape, scale);
+		}
+	}
+
+	public void fillPareto(double[] values, int count, double shape, double scale) {
+		double exponent = -1 / shape;
+		for (int i = 0; i < count; i++) {
+			values[i] = scale * Math.pow(nextDouble(), exponent);
+		}
+	}
+
+	public void fillBoundedPareto(double[] values, int count, double shape, double lower, double upper) {
+		double tail = 1 - Math.pow(lower / upper, shape);
+		double exponent = -1 / shape;
+		for (int i = 0; i < count; i++) {
+			values[i] = lower * Math.pow(1 - nextDouble() * tail, exponent);
+		}
+	}
+
+}
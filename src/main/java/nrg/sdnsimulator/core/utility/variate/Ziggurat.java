@@ -0,0 +1,66 @@
+package nrg.sdnsimulator.core.utility.variate;
+
+/*
+ * Layer tables of the ziggurat method (Marsaglia and Tsang 2000) for the
+ * standard normal and the unit exponential, in the form of Doornik (2005):
+ * x[i] is the right edge of layer i, layer 0 being the base strip stretched to
+ * the area of the other layers, and ratio[i] = x[i + 1] / x[i] is the fraction
+ * of layer i that lies under the density. A draw under the ratio is accepted
+ * without computing the density, which is the case for ~99% of draws.
+ */
+final class Ziggurat {
+
+	/* ========== Normal, 128 layers ========== */
+	static final int NormalLayers = 128;
+	static final double NormalR = 3.442619855899;
+	private static final double NormalV = 9.91256303526217e-3;
+	static final double[] normalX = new double[NormalLayers + 1];
+	static final double[] normalRatio = new double[NormalLayers];
+	// Density exp(-x^2 / 2) at normalX
+	static final double[] normalF = new double[NormalLayers + 1];
+
+	/* ========== Exponential, 256 layers ========== */
+	static final int ExponentialLayers = 256;
+	static final double ExponentialR = 7.69711747013104972;
+	private static final double ExponentialV = 3.949659822581572e-3;
+	static final double[] exponentialX = new double[ExponentialLayers + 1];
+	static final double[] exponentialRatio = new double[ExponentialLayers];
+	// Density exp(-x) at exponentialX
+	static final double[] exponentialF = new double[ExponentialLayers + 1];
+
+	static {
+		double f = Math.exp(-0.5 * NormalR * NormalR);
+		normalX[0] = NormalV / f;
+		normalX[1] = NormalR;
+		for (int i = 2; i < NormalLayers; i++) {
+			normalX[i] = Math.sqrt(-2 * Math.log(NormalV / normalX[i - 1] + f));
+			f = Math.exp(-0.5 * normalX[i] * normalX[i]);
+		}
+		normalX[NormalLayers] = 0;
+		for (int i = 0; i <= NormalLayers; i++) {
+			normalF[i] = Math.exp(-0.5 * normalX[i] * normalX[i]);
+		}
+		for (int i = 0; i < NormalLayers; i++) {
+			normalRatio[i] = normalX[i + 1] / normalX[i];
+		}
+
+		f = Math.exp(-ExponentialR);
+		exponentialX[0] = ExponentialV / f;
+		exponentialX[1] = ExponentialR;
+		for (int i = 2; i < ExponentialLayers; i++) {
+			exponentialX[i] = -Math.log(ExponentialV / exponentialX[i - 1] + f);
+			f = Math.exp(-exponentialX[i]);
+		}
+		exponentialX[ExponentialLayers] = 0;
+		for (int i = 0; i <= ExponentialLayers; i++) {
+			exponentialF[i] = Math.exp(-exponentialX[i]);
+		}
+		for (int i = 0; i < ExponentialLayers; i++) {
+			exponentialRatio[i] = exponentialX[i + 1] / exponentialX[i];
+		}
+	}
+
+	private Ziggurat() {
+	}
+
+}
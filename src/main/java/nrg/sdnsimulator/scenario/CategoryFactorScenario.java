@@ -24,6 +24,15 @@ public abstract class CategoryFactorScenario extends Scenario {
 		secondFactorValues = new ArrayList<Float>();
 	}
 
+	protected SweepExecutor<String> createSweep() {
+		return new SweepExecutor<String>(parallelism);
+	}
+
+	/* Puts the statistics of the runs of the sweep in result */
+	protected void executeSweep(SweepExecutor<String> sweep) {
+		sweep.execute(result, LinkedHashMap<String, Statistics>::new);
+	}
+
 	protected void generateOutput() {
 		generateCategoryFactorOutput(result);
 	}
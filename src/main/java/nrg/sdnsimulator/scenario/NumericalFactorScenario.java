@@ -25,6 +25,15 @@ public abstract class NumericalFactorScenario extends Scenario {
 		secondFactorValues = new ArrayList<Float>();
 	}
 
+	protected SweepExecutor<Float> createSweep() {
+		return new SweepExecutor<Float>(parallelism);
+	}
+
+	/* Puts the statistics of the runs of the sweep in result */
+	protected void executeSweep(SweepExecutor<Float> sweep) {
+		sweep.execute(result, TreeMap<Float, Statistics>::new);
+	}
+
 	protected void generateOutput() {
 		generateNumericalFactorOutput(result);
 	}
@@ -14,11 +14,16 @@ import org.apache.commons.math3.util.Pair;
 import lombok.Getter;
 import lombok.Setter;
 import nrg.sdnsimulator.core.entity.traffic.Flow;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.RandomStreams;
 import nrg.sdnsimulator.core.utility.Statistics;
+import nrg.sdnsimulator.core.utility.columnar.ColumnarHandler;
+import nrg.sdnsimulator.core.utility.datastructure.SeqNumTimeSeries;
 import nrg.sdnsimulator.core.utility.excel.ExcelHandler;
 import nrg.sdnsimulator.core.utility.excel.datastructure.CategoryFactorOutputData;
 import nrg.sdnsimulator.core.utility.excel.datastructure.NumericFactorOutputData;
 import nrg.sdnsimulator.core.utility.excel.datastructure.NumericFactorScatterTableData;
+import nrg.sdnsimulator.core.utility.excel.datastructure.SeqNumScatterTableData;
 import nrg.sdnsimulator.topology.Testbed;
 import nrg.sdnsimulator.trafficgenerator.TrafficGenerator;
 
@@ -26,6 +31,12 @@ import nrg.sdnsimulator.trafficgenerator.TrafficGenerator;
 @Setter
 public abstract class Scenario {
 	protected boolean functionalityOutput = false;
+	// Columnar files instead of workbooks, for post-processing
+	protected boolean columnarOutput = false;
+	// Runs of the study executed at once, see SweepExecutor
+	protected int parallelism = Runtime.getRuntime().availableProcessors();
+	// Streams of the runs, see setRandomStreams
+	protected RandomStreams randomStreams = new RandomStreams(Keywords.RandomVariableGenerator.StudySeed);
 	protected TrafficGenerator trafficGen;
 	protected Testbed testbed;
 	private String mainFactorName;
@@ -38,12 +49,22 @@ public abstract class Scenario {
 
 	public abstract void executeTest();
 
+	/* Seeds the generators of a run of a sweep from the streams of the study */
+	protected void setRandomStreams(TrafficGenerator trafficGen, Testbed testbed, int run, int replication) {
+		trafficGen.setRandomStreams(randomStreams, run, replication);
+		testbed.setRandomStreams(randomStreams, run, replication);
+	}
+
 	public void generateNumericalFactorOutput(LinkedHashMap<String, TreeMap<Float, Statistics>> result) {
 		String studyOutputPath = "output/" + studyName + "/";
 		new File(studyOutputPath).mkdirs();
 		NumericFactorOutputData outputData = new NumericFactorOutputData(mainFactorName, result);
 		try {
-			ExcelHandler.createNumericFactorStudyOutput(studyOutputPath, studyName, outputData);
+			if (columnarOutput) {
+				ColumnarHandler.createNumericFactorStudyOutput(studyOutputPath, studyName, outputData);
+			} else {
+				ExcelHandler.createNumericFactorStudyOutput(studyOutputPath, studyName, outputData);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -104,18 +125,20 @@ public abstract class Scenario {
 		for (Flow flow : stat.getFlows().values()) {
 			NumericFactorScatterTableData flowSeqNumData = new NumericFactorScatterTableData("Time (us)", "SeqNum");
 			ArrayList<Pair<Float, Float>> dataSerie = new ArrayList<Pair<Float, Float>>();
-			for (float seqNum : flow.getDataSeqNumSendingTimes().keySet()) {
-				Pair<Float, Float> singleEntry = new Pair<Float, Float>(flow.getDataSeqNumSendingTimes().get(seqNum),
-						seqNum);
-				dataSerie.add(singleEntry);
+			SeqNumTimeSeries sendingTimes = flow.getDataSeqNumSendingTimes();
+			for (int seqNum = 0; seqNum < sendingTimes.getEnd(); seqNum++) {
+				if (sendingTimes.contains(seqNum)) {
+					dataSerie.add(new Pair<Float, Float>(sendingTimes.get(seqNum), (float) seqNum));
+				}
 			}
 			flowSeqNumData.getData().put("Data Segments", dataSerie);
 
 			ArrayList<Pair<Float, Float>> ackSerie = new ArrayList<Pair<Float, Float>>();
-			for (float seqNum : flow.getAckSeqNumArrivalTimes().keySet()) {
-				Pair<Float, Float> singleEntry = new Pair<Float, Float>(flow.getAckSeqNumArrivalTimes().get(seqNum),
-						seqNum);
-				ackSerie.add(singleEntry);
+			SeqNumTimeSeries arrivalTimes = flow.getAckSeqNumArrivalTimes();
+			for (int seqNum = 0; seqNum < arrivalTimes.getEnd(); seqNum++) {
+				if (arrivalTimes.contains(seqNum)) {
+					ackSerie.add(new Pair<Float, Float>(arrivalTimes.get(seqNum), (float) seqNum));
+				}
 			}
 			flowSeqNumData.getData().put("ACKs", ackSerie);
 			SeqNumDataForAllFlowIDs.put(flow.getID(), flowSeqNumData);
@@ -126,29 +149,36 @@ public abstract class Scenario {
 	protected void generateSequenceNumGraphOutput(String testName, Statistics stat) {
 		String studyOutputPath = "validation/" + testName + "/";
 		new File(studyOutputPath).mkdirs();
-		LinkedHashMap<String, NumericFactorScatterTableData> outputData = new LinkedHashMap<String, NumericFactorScatterTableData>();
-		for (Flow flow : stat.getFlows().values()) {
-			NumericFactorScatterTableData flowSeqNumData = new NumericFactorScatterTableData("Time (us)",
-					"Sequence Number");
-			ArrayList<Pair<Float, Float>> dataSerie = new ArrayList<Pair<Float, Float>>();
-			for (float seqNum : flow.getDataSeqNumSendingTimes().keySet()) {
-				Pair<Float, Float> singleEntry = new Pair<Float, Float>(flow.getDataSeqNumSendingTimes().get(seqNum),
-						seqNum);
-				dataSerie.add(singleEntry);
+		if (columnarOutput) {
+			try {
+				ColumnarHandler.createSeqNumOutput(studyOutputPath, "SeqNums", stat);
+				ColumnarHandler.createFlowOutput(studyOutputPath, "Flows", stat);
+				ColumnarHandler.createLinkOutput(studyOutputPath, "Links", stat);
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
-			flowSeqNumData.getData().put("Data Segments", dataSerie);
-
-			ArrayList<Pair<Float, Float>> ackSerie = new ArrayList<Pair<Float, Float>>();
-			for (float seqNum : flow.getAckSeqNumArrivalTimes().keySet()) {
-				Pair<Float, Float> singleEntry = new Pair<Float, Float>(flow.getAckSeqNumArrivalTimes().get(seqNum),
-						seqNum);
-				ackSerie.add(singleEntry);
-			}
-			flowSeqNumData.getData().put("ACKs", ackSerie);
+			return;
+		}
+		// The series are the flows' own time series, only the small sheets are copied
+		LinkedHashMap<String, SeqNumScatterTableData> outputData = new LinkedHashMap<String, SeqNumScatterTableData>();
+		int rowCount = 0;
+		for (Flow flow : stat.getFlows().values()) {
+			SeqNumScatterTableData flowSeqNumData = new SeqNumScatterTableData("Time (us)", "Sequence Number");
+			flowSeqNumData.addSeriesToTable("Data Segments", flow.getDataSeqNumSendingTimes());
+			flowSeqNumData.addSeriesToTable("ACKs", flow.getAckSeqNumArrivalTimes());
 			outputData.put("Flow_" + Integer.toString((int) flow.getID()), flowSeqNumData);
+			rowCount = Math.max(rowCount, flowSeqNumData.getRowCount());
 		}
 		try {
-			ExcelHandler.createValidationOutput(studyOutputPath, "SeqNumPlots", outputData);
+			if (rowCount > Keywords.Excel.StreamingRowThreshold) {
+				ExcelHandler.createStreamingValidationOutput(studyOutputPath, "SeqNumPlots", outputData);
+			} else {
+				LinkedHashMap<String, NumericFactorScatterTableData> tables = new LinkedHashMap<String, NumericFactorScatterTableData>();
+				for (String sheetName : outputData.keySet()) {
+					tables.put(sheetName, outputData.get(sheetName).getScatterTableData());
+				}
+				ExcelHandler.createValidationOutput(studyOutputPath, "SeqNumPlots", tables);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -0,0 +1,85 @@
+package nrg.sdnsimulator.scenario;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+import lombok.Setter;
+import nrg.sdnsimulator.core.utility.Statistics;
+
+/*
+ * Runs the points of a study, a series and a factor value each, on a bounded
+ * ForkJoinPool. A run builds its own TrafficGenerator and Testbed, so the
+ * random variable generators and the simulator it uses are not shared with
+ * the other runs. The results are put in the result map in the order the runs
+ * were added, whatever the order they finish in.
+ *
+ * A run is numbered by the order it was added, so a study that adds its points
+ * in the same order gives a point the same run index in every replication and
+ * its random streams depend only on the run and the replication, see
+ * Scenario.setRandomStreams.
+ */
+@Getter
+@Setter
+public class SweepExecutor<K> {
+
+	public interface SweepRun {
+		Statistics execute(int run, int replication);
+	}
+
+	private final int parallelism;
+	// Replication the next execute runs the points for
+	private int replication = 0;
+	private final ArrayList<String> seriesNames;
+	private final ArrayList<K> factorValues;
+	private final ArrayList<SweepRun> runs;
+
+	public SweepExecutor(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.parallelism = parallelism;
+		seriesNames = new ArrayList<String>();
+		factorValues = new ArrayList<K>();
+		runs = new ArrayList<SweepRun>();
+	}
+
+	public void addRun(String seriesName, K factorValue, SweepRun run) {
+		seriesNames.add(seriesName);
+		factorValues.add(factorValue);
+		runs.add(run);
+	}
+
+	/* Runs every point added so far, a failed run fails the sweep */
+	public <M extends Map<K, Statistics>> void execute(LinkedHashMap<String, M> result, Supplier<M> newSeries) {
+		ArrayList<ForkJoinTask<Statistics>> tasks = new ArrayList<ForkJoinTask<Statistics>>(runs.size());
+		ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, Math.max(1, runs.size())));
+		try {
+			int replication = this.replication;
+			for (int i = 0; i < runs.size(); i++) {
+				SweepRun run = runs.get(i);
+				int runIndex = i;
+				tasks.add(pool.submit(() -> run.execute(runIndex, replication)));
+			}
+			for (int i = 0; i < tasks.size(); i++) {
+				Statistics stat = tasks.get(i).join();
+				M series = result.get(seriesNames.get(i));
+				if (series == null) {
+					series = newSeries.get();
+					result.put(seriesNames.get(i), series);
+				}
+				series.put(factorValues.get(i), stat);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		seriesNames.clear();
+		factorValues.clear();
+		runs.clear();
+	}
+
+}
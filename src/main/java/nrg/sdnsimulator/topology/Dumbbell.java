@@ -3,6 +3,7 @@ package nrg.sdnsimulator.topology;
 import java.util.TreeMap;
 
 import nrg.sdnsimulator.core.Simulator;
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
 import nrg.sdnsimulator.core.utility.Keywords;
 import nrg.sdnsimulator.core.utility.Statistics;
 import nrg.sdnsimulator.trafficgenerator.Traffic;
@@ -14,60 +15,106 @@ public class Dumbbell extends Testbed {
 	}
 
 	public Statistics executeSimulation(Traffic traffic) {
-		int controlLinkIndex = 0;
-		String controllerLabel = Keywords.Entities.Labels.Prefixes.ControllerPrefix + "0";
 		NumberOfSenderAccessSwitches = 1;
 		NumberOfNetworkSwitches = 1;
 		NumberOfHostsPerAccessSwitch = traffic.getFlowSizePerFlowID().size();
+
 		TreeMap<Integer, Float> accessLinkPropagationDelayPerFlowID = prepareAccessLinksPropagationDelay(
 				AccessLinkPropagationDelayDistribution, NumberOfHostsPerAccessSwitch);
-		Simulator sim = new Simulator();
-
-		// Creating the controller
-		sim.createController(controllerLabel, Keywords.Entities.Controllers.Types.Controller_1,
-				alpha, 1, 1);
-
-		// Creating access switches
+		Simulator sim = createSimulator();
+		createController(sim);
 		for (int acessSwitchIndex = 0; acessSwitchIndex < NumberOfSenderAccessSwitches; acessSwitchIndex++) {
-			String senderAccessSwitchLabel = Keywords.Entities.Labels.Prefixes.SenderAccessSwitchPrefix
-					+ acessSwitchIndex;
-			String receiverAccessSwitchLabel = Keywords.Entities.Labels.Prefixes.ReceiverAccessSwitchPrefix
-					+ acessSwitchIndex;
-			sim.createSwitch(senderAccessSwitchLabel, Keywords.Entities.Switches.Types.Switch_1);
-			sim.createSwitch(receiverAccessSwitchLabel, Keywords.Entities.Switches.Types.Switch_1);
-
-			// Creating control links for the access switches
-			sim.createLink(Keywords.Entities.Labels.Prefixes.ControlLinkPrefix + controlLinkIndex,
-					senderAccessSwitchLabel, controllerLabel, controlLinkPropagationDelay,
-					controlLinkBandwidth, Keywords.Entities.Buffers.Size.Unlimited, false);
-			controlLinkIndex++;
-			sim.createLink(Keywords.Entities.Labels.Prefixes.ControlLinkPrefix + controlLinkIndex,
-					receiverAccessSwitchLabel, controllerLabel, controlLinkPropagationDelay,
-					controlLinkBandwidth, Keywords.Entities.Buffers.Size.Unlimited, false);
-			controlLinkIndex++;
-
+			createAccessSwitches(sim, acessSwitchIndex);
 			// Creating hosts and connecting them to access switches
 			for (int hostIndex = 0; hostIndex < NumberOfHostsPerAccessSwitch; hostIndex++) {
-				String senderHostLabel = Keywords.Entities.Labels.Prefixes.SenderHostPrefix
-						+ hostIndex;
-				String receiverHostLabel = Keywords.Entities.Labels.Prefixes.ReceiverHostPrefix
-						+ hostIndex;
-				String senderAccessLinkLabel = Keywords.Entities.Labels.Prefixes.SenderAccessLinkPrefix
-						+ hostIndex;
-				String receiverAccessLinkLabel = Keywords.Entities.Labels.Prefixes.ReceiverAccessLinkPrefix
-						+ hostIndex;
-
-				sim.createHost(senderHostLabel);
-				sim.createLink(senderAccessLinkLabel, senderHostLabel, senderAccessSwitchLabel,
-						accessLinkPropagationDelayPerFlowID.get(hostIndex), AccessLinkBandwidth,
-						Integer.MAX_VALUE, false);
-				sim.createHost(receiverHostLabel);
-				sim.createLink(receiverAccessLinkLabel, receiverHostLabel,
-						receiverAccessSwitchLabel, ReceiverAccessLinkPropagationDelay,
-						AccessLinkBandwidth, Integer.MAX_VALUE, false);
+				createHosts(sim, acessSwitchIndex, hostIndex, accessLinkPropagationDelayPerFlowID.get(hostIndex));
 			}
 		}
+		createNetworkSwitches(sim);
+
+		// Creating the flows
+		for (int flowIndex : traffic.getArrivalTimePerFlowID().keySet()) {
+			generateFlow(sim, flowIndex, traffic.getArrivalTimePerFlowID().get(flowIndex),
+					traffic.getFlowSizePerFlowID().get(flowIndex));
+		}
+		// Running the simulation
+		return sim.run(0, SimEndTime);
+	}
+
+	public Statistics executeSimulation(FlowSource flowSource) {
+		NumberOfSenderAccessSwitches = 1;
+		NumberOfNetworkSwitches = 1;
 
+		rttRVG.resetRng();
+		Simulator sim = createSimulator();
+		createController(sim);
+		for (int acessSwitchIndex = 0; acessSwitchIndex < NumberOfSenderAccessSwitches; acessSwitchIndex++) {
+			createAccessSwitches(sim, acessSwitchIndex);
+		}
+		createNetworkSwitches(sim);
+
+		// The hosts of each flow are created when it arrives
+		sim.setFlowSource(flowSource, (flowIndex, arrivalTime, size) -> {
+			createHosts(sim, 0, flowIndex, nextAccessLinkPropagationDelay(AccessLinkPropagationDelayDistribution));
+			generateFlow(sim, flowIndex, arrivalTime, size);
+		});
+		// Running the simulation
+		return sim.run(0, SimEndTime);
+	}
+
+	private void createController(Simulator sim) {
+		sim.createController(Keywords.Entities.Labels.Prefixes.ControllerPrefix + "0",
+				Keywords.Entities.Controllers.Types.Controller_1, alpha, 1, 1);
+	}
+
+	/* The sender and receiver access switches of the index with their control links */
+	private void createAccessSwitches(Simulator sim, int acessSwitchIndex) {
+		String controllerLabel = Keywords.Entities.Labels.Prefixes.ControllerPrefix + "0";
+		String senderAccessSwitchLabel = Keywords.Entities.Labels.Prefixes.SenderAccessSwitchPrefix
+				+ acessSwitchIndex;
+		String receiverAccessSwitchLabel = Keywords.Entities.Labels.Prefixes.ReceiverAccessSwitchPrefix
+				+ acessSwitchIndex;
+		sim.createSwitch(senderAccessSwitchLabel, Keywords.Entities.Switches.Types.Switch_1);
+		sim.createSwitch(receiverAccessSwitchLabel, Keywords.Entities.Switches.Types.Switch_1);
+
+		// Creating control links for the access switches
+		sim.createLink(Keywords.Entities.Labels.Prefixes.ControlLinkPrefix + (2 * acessSwitchIndex),
+				senderAccessSwitchLabel, controllerLabel, controlLinkPropagationDelay,
+				controlLinkBandwidth, Keywords.Entities.Buffers.Size.Unlimited, false);
+		sim.createLink(Keywords.Entities.Labels.Prefixes.ControlLinkPrefix + (2 * acessSwitchIndex + 1),
+				receiverAccessSwitchLabel, controllerLabel, controlLinkPropagationDelay,
+				controlLinkBandwidth, Keywords.Entities.Buffers.Size.Unlimited, false);
+	}
+
+	private void createHosts(Simulator sim, int acessSwitchIndex, int hostIndex,
+			float senderAccessLinkPropagationDelay) {
+		String senderAccessSwitchLabel = Keywords.Entities.Labels.Prefixes.SenderAccessSwitchPrefix
+				+ acessSwitchIndex;
+		String receiverAccessSwitchLabel = Keywords.Entities.Labels.Prefixes.ReceiverAccessSwitchPrefix
+				+ acessSwitchIndex;
+		String senderHostLabel = Keywords.Entities.Labels.Prefixes.SenderHostPrefix
+				+ hostIndex;
+		String receiverHostLabel = Keywords.Entities.Labels.Prefixes.ReceiverHostPrefix
+				+ hostIndex;
+		String senderAccessLinkLabel = Keywords.Entities.Labels.Prefixes.SenderAccessLinkPrefix
+				+ hostIndex;
+		String receiverAccessLinkLabel = Keywords.Entities.Labels.Prefixes.ReceiverAccessLinkPrefix
+				+ hostIndex;
+
+		sim.createHost(senderHostLabel);
+		sim.createLink(senderAccessLinkLabel, senderHostLabel, senderAccessSwitchLabel,
+				senderAccessLinkPropagationDelay, AccessLinkBandwidth,
+				Integer.MAX_VALUE, false);
+		sim.createHost(receiverHostLabel);
+		sim.createLink(receiverAccessLinkLabel, receiverHostLabel,
+				receiverAccessSwitchLabel, ReceiverAccessLinkPropagationDelay,
+				AccessLinkBandwidth, Integer.MAX_VALUE, false);
+	}
+
+	/* The network switches with their control links, connected to the access switches */
+	private void createNetworkSwitches(Simulator sim) {
+		String controllerLabel = Keywords.Entities.Labels.Prefixes.ControllerPrefix + "0";
+		int controlLinkIndex = 2 * NumberOfSenderAccessSwitches;
 		// Creating network Switch
 		String networkSwitchLabel;
 		for (int networkSwitchIndex = 0; networkSwitchIndex < NumberOfNetworkSwitches; networkSwitchIndex++) {
@@ -105,20 +152,15 @@ public class Dumbbell extends Testbed {
 					NetworkLinkPropagationDelay, NetworkLinkBandwidth,
 					Keywords.Entities.Buffers.Size.Unlimited, false);
 		}
+	}
 
-		// Creating the flows
-		for (int flowIndex : traffic.getArrivalTimePerFlowID().keySet()) {
-			String flowLabel = Keywords.Entities.Labels.Prefixes.FlowPrefix + flowIndex;
-			String senderHostLabel = Keywords.Entities.Labels.Prefixes.SenderHostPrefix + flowIndex;
-			String receiverHostLabel = Keywords.Entities.Labels.Prefixes.ReceiverHostPrefix
-					+ flowIndex;
-			sim.generateFlow(flowLabel, senderHostLabel, receiverHostLabel,
-					traffic.getFlowSizePerFlowID().get(flowIndex),
-					traffic.getArrivalTimePerFlowID().get(flowIndex),
-					Keywords.Entities.Agents.Types.SDTCP);
-		}
-		// Running the simulation
-		return sim.run(0, SimEndTime);
+	private void generateFlow(Simulator sim, int flowIndex, float arrivalTime, int size) {
+		String flowLabel = Keywords.Entities.Labels.Prefixes.FlowPrefix + flowIndex;
+		String senderHostLabel = Keywords.Entities.Labels.Prefixes.SenderHostPrefix + flowIndex;
+		String receiverHostLabel = Keywords.Entities.Labels.Prefixes.ReceiverHostPrefix
+				+ flowIndex;
+		sim.generateFlow(flowLabel, senderHostLabel, receiverHostLabel, size, arrivalTime,
+				Keywords.Entities.Agents.Types.SDTCP);
 	}
 
 }
@@ -1,5 +1,6 @@
 package nrg.sdnsimulator.topology;
 
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
 import nrg.sdnsimulator.core.utility.Statistics;
 import nrg.sdnsimulator.trafficgenerator.Traffic;
 
@@ -13,4 +14,8 @@ public class ParkingLot extends Testbed {
 		return null;
 	}
 
+	public Statistics executeSimulation(FlowSource flowSource) {
+		return null;
+	}
+
 }
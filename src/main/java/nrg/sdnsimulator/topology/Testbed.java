@@ -4,8 +4,11 @@ import java.util.TreeMap;
 
 import lombok.Getter;
 import lombok.Setter;
+import nrg.sdnsimulator.core.Simulator;
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
 import nrg.sdnsimulator.core.utility.Keywords;
 import nrg.sdnsimulator.core.utility.Mathematics;
+import nrg.sdnsimulator.core.utility.RandomStreams;
 import nrg.sdnsimulator.core.utility.RandomVariableGenerator;
 import nrg.sdnsimulator.core.utility.Statistics;
 import nrg.sdnsimulator.trafficgenerator.Traffic;
@@ -42,9 +45,30 @@ public abstract class Testbed {
 	protected float SimEndTime;
 
 	protected double StandardDeviationAccessLinkPropagationDelay;
+	/* Simulator Properties */
+	protected short eventListType;
+	protected boolean prioritizeSimultaneousEvents;
+	protected boolean eventPooling;
+	protected boolean timerWheel;
+	protected boolean entityTieBreaking;
+	protected int partitions;
+	protected boolean timeWarp;
+	protected boolean packetStore;
+	protected boolean seqNumRecording;
+	protected float queueTraceInterval;
 
 	public Testbed(short networkType) {
 		SimEndTime = Float.MAX_VALUE;
+		eventListType = Keywords.EventLists.Types.Default;
+		prioritizeSimultaneousEvents = false;
+		eventPooling = false;
+		timerWheel = false;
+		entityTieBreaking = false;
+		partitions = 1;
+		timeWarp = false;
+		packetStore = false;
+		seqNumRecording = true;
+		queueTraceInterval = 0;
 		rttRVG = new RandomVariableGenerator(
 				Keywords.RandomVariableGenerator.StartingSeeds.AccessLinkPropagationDelayStartingSeed);
 		switch (networkType) {
@@ -96,14 +120,42 @@ public abstract class Testbed {
 
 	public abstract Statistics executeSimulation(Traffic traffic);
 
+	/* The flows are built as they arrive and retired once finished, see Simulator.setFlowSource */
+	public abstract Statistics executeSimulation(FlowSource flowSource);
+
+	protected Simulator createSimulator() {
+		Simulator sim = new Simulator(eventListType);
+		sim.setPrioritizeSimultaneousEvents(prioritizeSimultaneousEvents);
+		sim.setEventPooling(eventPooling);
+		sim.setTimerWheel(timerWheel);
+		sim.setEntityTieBreaking(entityTieBreaking);
+		sim.setPartitions(partitions);
+		sim.setTimeWarp(timeWarp);
+		sim.setPacketStore(packetStore);
+		sim.setSeqNumRecording(seqNumRecording);
+		sim.setQueueTraceInterval(queueTraceInterval);
+		return sim;
+	}
+
+	/* Draws the access link delays from the stream of the run and replication */
+	public void setRandomStreams(RandomStreams streams, int run, int replication) {
+		rttRVG = streams.createGenerator(run, replication,
+				Keywords.RandomVariableGenerator.Purposes.AccessLinkPropagationDelay);
+	}
+
 	protected TreeMap<Integer, Float> prepareAccessLinksPropagationDelay(int distribution, int totalNumberOfFlows) {
 		TreeMap<Integer, Float> accessLinkPropagationDelayPerFlowID = new TreeMap<Integer, Float>();
 		rttRVG.resetRng();
 		for (int flowIndex = 0; flowIndex < totalNumberOfFlows; flowIndex++) {
-			accessLinkPropagationDelayPerFlowID.put(flowIndex, (float) rttRVG.getNextValue(distribution,
-					MinAccessLinkPropagationDelay, StandardDeviationAccessLinkPropagationDelay));
+			accessLinkPropagationDelayPerFlowID.put(flowIndex, nextAccessLinkPropagationDelay(distribution));
 		}
 		return accessLinkPropagationDelayPerFlowID;
 	}
 
+	/* Drawn in the order of the flows, a lazy run gets the delays of prepareAccessLinksPropagationDelay */
+	protected float nextAccessLinkPropagationDelay(int distribution) {
+		return (float) rttRVG.getNextValue(distribution, MinAccessLinkPropagationDelay,
+				StandardDeviationAccessLinkPropagationDelay);
+	}
+
 }
@@ -0,0 +1,93 @@
+package nrg.sdnsimulator.trafficgenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/*
+ * Converts a CSV flow trace to the binary format of FlowTraceWriter, one line
+ * at a time. Each line holds the arrival time (microseconds, decimal), the
+ * source host, the destination host and the size (segments) of a flow, in the
+ * order of arrival. The arrival is rounded to the picosecond without going
+ * through a float. Blank lines, lines starting with # and a header line, a
+ * first line none of whose fields is a number, are skipped.
+ */
+public class FlowTraceConverter {
+
+	private static final int NumberOfFields = 4;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: FlowTraceConverter <trace.csv> <trace.bin>");
+			System.exit(1);
+		}
+		long numberOfFlows = convert(args[0], args[1]);
+		System.out.println(numberOfFlows + " flows written to " + args[1]);
+	}
+
+	/* Returns the number of flows written */
+	public static long convert(String csvFilePath, String traceFilePath) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvFilePath), StandardCharsets.UTF_8);
+				FlowTraceWriter writer = new FlowTraceWriter(traceFilePath)) {
+			long lineNumber = 0;
+			boolean isFirstRecord = true;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.charAt(0) == '#') {
+					continue;
+				}
+				String[] fields = line.split(",");
+				if (fields.length != NumberOfFields) {
+					throw new IOException(csvFilePath + ":" + lineNumber + ": expected " + NumberOfFields
+							+ " fields, found " + fields.length);
+				}
+				long arrivalTimePs;
+				int source;
+				int destination;
+				int size;
+				try {
+					arrivalTimePs = new BigDecimal(fields[0].trim()).movePointRight(6)
+							.setScale(0, RoundingMode.HALF_UP).longValueExact();
+					source = Integer.parseInt(fields[1].trim());
+					destination = Integer.parseInt(fields[2].trim());
+					size = Integer.parseInt(fields[3].trim());
+				} catch (NumberFormatException | ArithmeticException e) {
+					if (isFirstRecord && isHeader(fields)) {
+						isFirstRecord = false;
+						continue;
+					}
+					throw new IOException(csvFilePath + ":" + lineNumber + ": " + e.getMessage());
+				}
+				isFirstRecord = false;
+				try {
+					writer.write(arrivalTimePs, source, destination, size);
+				} catch (IllegalArgumentException e) {
+					throw new IOException(csvFilePath + ":" + lineNumber + ": " + e.getMessage());
+				}
+			}
+			// Only a complete conversion gets its number of flows
+			writer.finish();
+			return writer.getNumberOfFlows();
+		}
+	}
+
+	/* Column names, a first record with a number in it is a record with an error */
+	private static boolean isHeader(String[] fields) {
+		for (String field : fields) {
+			try {
+				new BigDecimal(field.trim());
+				return false;
+			} catch (NumberFormatException e) {
+				// Not a number, a column name
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,147 @@
+package nrg.sdnsimulator.trafficgenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
+import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.Mathematics;
+
+/*
+ * Replays the flows of a FlowTraceWriter file. The records are read from a
+ * window of the file mapped into memory, and the next window is mapped once
+ * the replay has gone past it, so the trace stays in the page cache instead of
+ * on the heap whatever its length. The flow index is the position of the flow
+ * in the trace.
+ */
+public class FlowTraceReader implements FlowSource, Closeable {
+
+	private final FileChannel channel;
+	private final long numberOfFlows;
+	private MappedByteBuffer window;
+	// Index of the first flow of the window
+	private long windowStart;
+	private int flowIndex;
+	private long arrivalTimePs;
+	private int source;
+	private int destination;
+	private int size;
+
+	public FlowTraceReader(String filePath) throws IOException {
+		channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+		try {
+			numberOfFlows = readHeader();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		flowIndex = -1;
+		windowStart = 0;
+	}
+
+	private long readHeader() throws IOException {
+		if (channel.size() < Keywords.FlowTrace.HeaderSize) {
+			throw new IOException("Not a flow trace");
+		}
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Keywords.FlowTrace.HeaderSize);
+		if (header.getInt() != Keywords.FlowTrace.Magic) {
+			throw new IOException("Not a flow trace");
+		}
+		short version = header.getShort();
+		if (version != Keywords.FlowTrace.Version) {
+			throw new IOException("Unsupported flow trace version " + version);
+		}
+		long flows = header.getLong(FlowTraceWriter.FlowCountOffset);
+		long records = (channel.size() - Keywords.FlowTrace.HeaderSize) / Keywords.FlowTrace.RecordSize;
+		if (flows < 0) {
+			throw new IOException("Flow trace was not finished");
+		}
+		if (flows > records) {
+			throw new IOException("Flow trace of " + flows + " flows with " + records + " records, it was truncated");
+		}
+		return flows;
+	}
+
+	public long getNumberOfFlows() {
+		return numberOfFlows;
+	}
+
+	@Override
+	public boolean nextFlow() {
+		if (flowIndex + 1 >= numberOfFlows) {
+			return false;
+		}
+		flowIndex++;
+		if (window == null || !window.hasRemaining()) {
+			mapWindow(flowIndex);
+		}
+		arrivalTimePs = window.getLong();
+		source = window.getInt();
+		destination = window.getInt();
+		size = window.getInt();
+		return true;
+	}
+
+	/* Goes back to the start of the trace to replay it again */
+	public void rewind() {
+		flowIndex = -1;
+		if (window != null && windowStart == 0) {
+			window.rewind();
+		} else {
+			window = null;
+		}
+	}
+
+	private void mapWindow(long firstFlow) {
+		long flows = Math.min(Keywords.FlowTrace.RecordsPerWindow, numberOfFlows - firstFlow);
+		try {
+			window = channel.map(FileChannel.MapMode.READ_ONLY,
+					Keywords.FlowTrace.HeaderSize + firstFlow * Keywords.FlowTrace.RecordSize,
+					flows * Keywords.FlowTrace.RecordSize);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot map flow " + firstFlow + " of the trace", e);
+		}
+		windowStart = firstFlow;
+	}
+
+	@Override
+	public int getFlowIndex() {
+		return flowIndex;
+	}
+
+	@Override
+	public float getArrivalTime() {
+		return Mathematics.picoToMicro(arrivalTimePs);
+	}
+
+	@Override
+	public long getArrivalTimePs() {
+		return arrivalTimePs;
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/* Host of the trace that sent the flow */
+	public int getSource() {
+		return source;
+	}
+
+	/* Host of the trace that received the flow */
+	public int getDestination() {
+		return destination;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+}
@@ -0,0 +1,112 @@
+package nrg.sdnsimulator.trafficgenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
+import nrg.sdnsimulator.core.utility.Keywords;
+
+/*
+ * Writes a flow trace: a header (magic, version, number of flows) followed by
+ * one fixed size record per flow in the order of arrival. The number of flows
+ * is written in the header by finish, a trace closed without it keeps -1 there
+ * and FlowTraceReader rejects it. The records are fixed size so that
+ * FlowTraceReader can map any part of the file without an index.
+ */
+public class FlowTraceWriter implements Closeable {
+
+	// Position of the number of flows in the header
+	static final int FlowCountOffset = 8;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private long numberOfFlows;
+	private long lastArrivalTimePs;
+	private boolean isFinished;
+
+	public FlowTraceWriter(String filePath) throws IOException {
+		channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(Keywords.FlowTrace.BufferSize);
+		numberOfFlows = 0;
+		lastArrivalTimePs = 0;
+		isFinished = false;
+		buffer.putInt(Keywords.FlowTrace.Magic);
+		buffer.putShort(Keywords.FlowTrace.Version);
+		buffer.putShort((short) 0);
+		// Number of flows, set by finish
+		buffer.putLong(-1);
+	}
+
+	/* Arrival time in picoseconds, size in segments */
+	public void write(long arrivalTimePs, int source, int destination, int size) throws IOException {
+		if (isFinished) {
+			throw new IllegalStateException("The trace is finished");
+		}
+		if (arrivalTimePs < 0) {
+			throw new IllegalArgumentException("Flow " + numberOfFlows + " arrives before the start of the run");
+		}
+		if (arrivalTimePs < lastArrivalTimePs) {
+			throw new IllegalArgumentException("Flow " + numberOfFlows + " arrives at " + arrivalTimePs
+					+ " ps, before the flow ahead of it at " + lastArrivalTimePs + " ps");
+		}
+		if (size <= 0) {
+			throw new IllegalArgumentException("Flow " + numberOfFlows + " has no segments");
+		}
+		if (numberOfFlows == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A trace holds at most " + Integer.MAX_VALUE + " flows");
+		}
+		if (buffer.remaining() < Keywords.FlowTrace.RecordSize) {
+			flush();
+		}
+		buffer.putLong(arrivalTimePs);
+		buffer.putInt(source);
+		buffer.putInt(destination);
+		buffer.putInt(size);
+		lastArrivalTimePs = arrivalTimePs;
+		numberOfFlows++;
+	}
+
+	/* Records the remaining flows of a source, the flow index standing for both hosts */
+	public void write(FlowSource flowSource) throws IOException {
+		while (flowSource.nextFlow()) {
+			write(flowSource.getArrivalTimePs(), flowSource.getFlowIndex(), flowSource.getFlowIndex(),
+					flowSource.getSize());
+		}
+	}
+
+	public long getNumberOfFlows() {
+		return numberOfFlows;
+	}
+
+	/* Writes out the flows and their number, once every flow is written */
+	public void finish() throws IOException {
+		flush();
+		ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+		header.putLong(numberOfFlows);
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header, FlowCountOffset + header.position());
+		}
+		isFinished = true;
+	}
+
+	/* Without finish, the trace is left unreadable */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
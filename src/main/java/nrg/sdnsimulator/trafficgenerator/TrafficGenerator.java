@@ -2,13 +2,19 @@ package nrg.sdnsimulator.trafficgenerator;
 
 import lombok.Getter;
 import lombok.Setter;
+import nrg.sdnsimulator.core.entity.traffic.FlowSource;
 import nrg.sdnsimulator.core.utility.Keywords;
+import nrg.sdnsimulator.core.utility.RandomStreams;
 import nrg.sdnsimulator.core.utility.RandomVariableGenerator;
 
 @Getter
 @Setter
 public class TrafficGenerator {
 
+	// Sizes that truncate to 1 to 1100000 segments
+	private static final double MinFlowSize = 1;
+	private static final double MaxFlowSize = 1100001;
+
 	private float firstFlowArrivalTime;
 	private short flowSizeDistribution;
 	private double flowSizeMean;
@@ -56,6 +62,18 @@ public class TrafficGenerator {
 		return traffic;
 	}
 
+	/*
+	 * The flows of generateTraffic drawn one at a time, as the simulation
+	 * reaches their arrival. With random streams the redraws of out-of-range
+	 * sizes come in another order than the batch of generateTraffic.
+	 */
+	public FlowSource createFlowSource() {
+		prepareNumberOfFlows();
+		interArrivalTimeRVG.resetRng();
+		flowSizeRVG.resetRng();
+		return new GeneratedFlowSource();
+	}
+
 	public Traffic generateDCNElephantMouseTraffic() {
 		// Create an Elephant flow
 		return traffic;
@@ -65,15 +83,14 @@ public class TrafficGenerator {
 		interArrivalTimeRVG.resetRng();
 		traffic.getArrivalTimePerFlowID().clear();
 		traffic.getArrivalTimePerFlowID().put(0, firstFlowArrivalTime);
+		int interArrivals = Math.max(0, numberOfFlows - 1);
+		double[] interArrivalTimes = new double[interArrivals];
+		interArrivalTimeRVG.fillNextValues(interArrivalTimeDistribution, interArrivalTimeMean, interArrivalTimeSTD, 0,
+				Double.POSITIVE_INFINITY, interArrivalTimes, interArrivals);
 		float previousArrival = firstFlowArrivalTime;
 		float interArrivalTime = 0;
 		for (int flowIndex = 1; flowIndex < numberOfFlows; flowIndex++) {
-			interArrivalTime = (float) interArrivalTimeRVG.getNextValue(interArrivalTimeDistribution,
-					interArrivalTimeMean, interArrivalTimeSTD);
-			while (interArrivalTime < 0) {
-				interArrivalTime = (float) interArrivalTimeRVG.getNextValue(interArrivalTimeDistribution,
-						interArrivalTimeMean, interArrivalTimeSTD);
-			}
+			interArrivalTime = (float) interArrivalTimes[flowIndex - 1];
 			traffic.getArrivalTimePerFlowID().put(flowIndex, interArrivalTime + previousArrival);
 			previousArrival += interArrivalTime;
 		}
@@ -82,13 +99,11 @@ public class TrafficGenerator {
 	private void prepareFlowSizes() {
 		flowSizeRVG.resetRng();
 		traffic.getFlowSizePerFlowID().clear();
-		int flowSize = 0;
+		double[] flowSizes = new double[numberOfFlows];
+		flowSizeRVG.fillNextValues(flowSizeDistribution, flowSizeMean, flowSizeSTD, MinFlowSize, MaxFlowSize,
+				flowSizes, numberOfFlows);
 		for (int flowIndex = 0; flowIndex < numberOfFlows; flowIndex++) {
-			flowSize = (int) flowSizeRVG.getNextValue(flowSizeDistribution, flowSizeMean, flowSizeSTD);
-			while (flowSize <= 0 || flowSize > 1100000) {
-				flowSize = (int) flowSizeRVG.getNextValue(flowSizeDistribution, flowSizeMean, flowSizeSTD);
-			}
-			traffic.getFlowSizePerFlowID().put(flowIndex, flowSize);
+			traffic.getFlowSizePerFlowID().put(flowIndex, (int) flowSizes[flowIndex]);
 		}
 	}
 
@@ -102,6 +117,15 @@ public class TrafficGenerator {
 		}
 	}
 
+	/* Draws the traffic from the streams of the run and replication instead of the starting seeds */
+	public void setRandomStreams(RandomStreams streams, int run, int replication) {
+		interArrivalTimeRVG = streams.createGenerator(run, replication,
+				Keywords.RandomVariableGenerator.Purposes.InterArrivalTime);
+		flowSizeRVG = streams.createGenerator(run, replication, Keywords.RandomVariableGenerator.Purposes.FlowSize);
+		numberOfFLowsRVG = streams.createGenerator(run, replication,
+				Keywords.RandomVariableGenerator.Purposes.NumberOfFlows);
+	}
+
 	public void setFlowInterArrivalTimeProperties(short distribution, double mean, double standardDeviation) {
 		interArrivalTimeDistribution = distribution;
 		interArrivalTimeMean = mean;
@@ -122,4 +146,50 @@ public class TrafficGenerator {
 
 	}
 
+	private class GeneratedFlowSource implements FlowSource {
+
+		private final int numberOfFlows;
+		private int flowIndex;
+		private float arrivalTime;
+		private int size;
+
+		GeneratedFlowSource() {
+			numberOfFlows = TrafficGenerator.this.numberOfFlows;
+			flowIndex = -1;
+		}
+
+		@Override
+		public boolean nextFlow() {
+			if (flowIndex + 1 >= numberOfFlows) {
+				return false;
+			}
+			flowIndex++;
+			if (flowIndex == 0) {
+				arrivalTime = firstFlowArrivalTime;
+			} else {
+				arrivalTime += (float) interArrivalTimeRVG.getNextValue(interArrivalTimeDistribution,
+						interArrivalTimeMean, interArrivalTimeSTD, 0, Double.POSITIVE_INFINITY);
+			}
+			size = (int) flowSizeRVG.getNextValue(flowSizeDistribution, flowSizeMean, flowSizeSTD, MinFlowSize,
+					MaxFlowSize);
+			return true;
+		}
+
+		@Override
+		public int getFlowIndex() {
+			return flowIndex;
+		}
+
+		@Override
+		public float getArrivalTime() {
+			return arrivalTime;
+		}
+
+		@Override
+		public int getSize() {
+			return size;
+		}
+
+	}
+
 }